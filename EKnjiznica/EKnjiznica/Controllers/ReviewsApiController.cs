@@ -15,6 +15,9 @@ namespace EKnjiznica.Controllers
     {
         private readonly LibraryContext _context;
         private readonly UserManager<IdentityUser> _userManager;
+        private const int MaxRatingBatch = 100;
+        private const int MaxReviewPage = 50;
+        private const int CommentPreviewLength = 200;
 
         public ReviewsApiController(LibraryContext context, UserManager<IdentityUser> userManager)
         {
@@ -54,6 +57,170 @@ namespace EKnjiznica.Controllers
             }
         }
 
+        /// <summary>
+        /// Get one page of a book's reviews, newest first, with comments cut to a preview (public endpoint).
+        /// Pass the returned nextCursor to get the following page; it is null on the last page.
+        /// </summary>
+        [HttpGet("book/{bookId}/page")]
+        [AllowAnonymous]
+        public async Task<ActionResult<ApiResponse<ReviewPage>>> GetBookReviewsPage(int bookId, [FromQuery] string? cursor, [FromQuery] int limit = 20)
+        {
+            try
+            {
+                limit = Math.Clamp(limit, 1, MaxReviewPage);
+                var query = _context.Reviews.Where(r => r.BookID == bookId);
+
+                if (!string.IsNullOrEmpty(cursor))
+                {
+                    var parts = cursor.Split('_');
+                    if (parts.Length != 2 || !long.TryParse(parts[0], out var ticks) || !int.TryParse(parts[1], out var afterId))
+                    {
+                        return BadRequest(new ApiResponse<object>
+                        {
+                            Success = false,
+                            Message = "Invalid cursor"
+                        });
+                    }
+
+                    // Keyset paging: reviews added meanwhile don't shift later pages
+                    var afterDate = new DateTime(ticks);
+                    query = query.Where(r => r.ReviewDate < afterDate || (r.ReviewDate == afterDate && r.ID < afterId));
+                }
+
+                var reviews = await query
+                    .OrderByDescending(r => r.ReviewDate)
+                    .ThenByDescending(r => r.ID)
+                    .Take(limit + 1)
+                    .Select(r => new ReviewPreview
+                    {
+                        Id = r.ID,
+                        BookId = r.BookID,
+                        UserId = r.UserId,
+                        Rating = r.Rating,
+                        Comment = r.Comment != null && r.Comment.Length > CommentPreviewLength
+                            ? r.Comment.Substring(0, CommentPreviewLength)
+                            : r.Comment,
+                        CommentTruncated = r.Comment != null && r.Comment.Length > CommentPreviewLength,
+                        ReviewDate = r.ReviewDate,
+                        User = new ReviewUser { Email = r.User.Email }
+                    })
+                    .ToListAsync();
+
+                string? nextCursor = null;
+                if (reviews.Count > limit)
+                {
+                    reviews.RemoveAt(limit);
+                    var last = reviews[^1];
+                    nextCursor = $"{last.ReviewDate.Ticks}_{last.Id}";
+                }
+
+                return Ok(new ApiResponse<ReviewPage>
+                {
+                    Success = true,
+                    Data = new ReviewPage { Items = reviews, NextCursor = nextCursor },
+                    Message = "Reviews retrieved successfully"
+                });
+            }
+            catch (Exception ex)
+            {
+                return StatusCode(500, new ApiResponse<object>
+                {
+                    Success = false,
+                    Message = $"Error retrieving reviews: {ex.Message}"
+                });
+            }
+        }
+
+        /// <summary>
+        /// Get the full comment of a review whose preview was truncated (public endpoint)
+        /// </summary>
+        [HttpGet("{id:int}/comment")]
+        [AllowAnonymous]
+        public async Task<ActionResult<ApiResponse<string>>> GetReviewComment(int id)
+        {
+            try
+            {
+                var review = await _context.Reviews.FindAsync(id);
+                if (review == null)
+                {
+                    return NotFound(new ApiResponse<object>
+                    {
+                        Success = false,
+                        Message = "Review not found"
+                    });
+                }
+
+                return Ok(new ApiResponse<string>
+                {
+                    Success = true,
+                    Data = review.Comment,
+                    Message = "Comment retrieved successfully"
+                });
+            }
+            catch (Exception ex)
+            {
+                return StatusCode(500, new ApiResponse<object>
+                {
+                    Success = false,
+                    Message = $"Error retrieving comment: {ex.Message}"
+                });
+            }
+        }
+
+        /// <summary>
+        /// Get average ratings for several books in one request (public endpoint)
+        /// </summary>
+        [HttpGet("ratings")]
+        [AllowAnonymous]
+        public async Task<ActionResult<ApiResponse<List<object>>>> GetBookRatings([FromQuery] List<int> bookIds)
+        {
+            try
+            {
+                var ids = bookIds.Distinct().ToList();
+                if (ids.Count == 0 || ids.Count > MaxRatingBatch)
+                {
+                    return BadRequest(new ApiResponse<object>
+                    {
+                        Success = false,
+                        Message = $"Between 1 and {MaxRatingBatch} book IDs are required"
+                    });
+                }
+
+                // One row per book and star value, so the histogram needs no per-review data
+                var starCounts = await _context.Reviews
+                    .Where(r => ids.Contains(r.BookID))
+                    .GroupBy(r => new { r.BookID, r.Rating })
+                    .Select(g => new { g.Key.BookID, g.Key.Rating, Count = g.Count() })
+                    .ToListAsync();
+
+                // Books without reviews are included with a zero count, like the single-book endpoint
+                var data = ids.Select(id =>
+                {
+                    var ratingCounts = new int[5];
+                    foreach (var starCount in starCounts.Where(c => c.BookID == id && c.Rating >= 1 && c.Rating <= 5))
+                    {
+                        ratingCounts[starCount.Rating - 1] = starCount.Count;
+                    }
+                    return RatingSummary(id, ratingCounts);
+                }).ToList();
+
+                return Ok(new ApiResponse<List<object>>
+                {
+                    Success = true,
+                    Data = data,
+                    Message = "Ratings retrieved successfully"
+                });
+            }
+            catch (Exception ex)
+            {
+                return StatusCode(500, new ApiResponse<object>
+                {
+                    Success = false,
+                    Message = $"Error retrieving ratings: {ex.Message}"
+                });
+            }
+        }
+
         /// <summary>
         /// Get average rating for a book (public endpoint)
         /// </summary>
@@ -63,28 +230,22 @@ namespace EKnjiznica.Controllers
         {
             try
             {
-                var reviews = await _context.Reviews
+                var ratings = await _context.Reviews
                     .Where(r => r.BookID == bookId)
+                    .Select(r => r.Rating)
                     .ToListAsync();
 
-                if (!reviews.Any())
+                var ratingCounts = new int[5];
+                foreach (var rating in ratings.Where(r => r >= 1 && r <= 5))
                 {
-                    return Ok(new ApiResponse<object>
-                    {
-                        Success = true,
-                        Data = new { averageRating = 0.0, reviewCount = 0 },
-                        Message = "No reviews yet"
-                    });
+                    ratingCounts[rating - 1]++;
                 }
 
-                var averageRating = reviews.Average(r => r.Rating);
-                var reviewCount = reviews.Count;
-
                 return Ok(new ApiResponse<object>
                 {
                     Success = true,
-                    Data = new { averageRating = Math.Round(averageRating, 1), reviewCount },
-                    Message = "Rating retrieved successfully"
+                    Data = RatingSummary(bookId, ratingCounts),
+                    Message = ratings.Any() ? "Rating retrieved successfully" : "No reviews yet"
                 });
             }
             catch (Exception ex)
@@ -97,6 +258,23 @@ namespace EKnjiznica.Controllers
             }
         }
 
+        /// <summary>
+        /// Rating summary with a 1-5 star histogram (index 0 = one star), so clients can
+        /// update it locally when a review is added or removed
+        /// </summary>
+        private static object RatingSummary(int bookId, int[] ratingCounts)
+        {
+            var reviewCount = ratingCounts.Sum();
+            var ratingSum = ratingCounts.Select((count, index) => count * (index + 1)).Sum();
+            return new
+            {
+                bookId,
+                averageRating = reviewCount > 0 ? Math.Round((double)ratingSum / reviewCount, 1) : 0.0,
+                reviewCount,
+                ratingCounts
+            };
+        }
+
         /// <summary>
         /// Create a review (Member only)
         /// </summary>
@@ -285,4 +463,27 @@ namespace EKnjiznica.Controllers
         public int Rating { get; set; }
         public string? Comment { get; set; }
     }
+
+    public class ReviewPage
+    {
+        public List<ReviewPreview> Items { get; set; } = new();
+        public string? NextCursor { get; set; }
+    }
+
+    public class ReviewPreview
+    {
+        public int Id { get; set; }
+        public int BookId { get; set; }
+        public string UserId { get; set; } = string.Empty;
+        public int Rating { get; set; }
+        public string? Comment { get; set; }
+        public bool CommentTruncated { get; set; }
+        public DateTime ReviewDate { get; set; }
+        public ReviewUser User { get; set; } = null!;
+    }
+
+    public class ReviewUser
+    {
+        public string? Email { get; set; }
+    }
 }
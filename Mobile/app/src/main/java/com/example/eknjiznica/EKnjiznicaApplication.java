@@ -0,0 +1,37 @@
+package com.example.eknjiznica;
+
+import android.app.Application;
+
+import com.example.eknjiznica.adapters.RowPool;
+import com.example.eknjiznica.utils.JankMonitor;
+import com.example.eknjiznica.utils.LoanReminders;
+import com.example.eknjiznica.utils.MemberSync;
+import com.example.eknjiznica.utils.NetworkMonitor;
+import com.example.eknjiznica.utils.SnapshotStore;
+import com.example.eknjiznica.utils.StartupTimer;
+import com.example.eknjiznica.utils.StrictModeMonitor;
+import com.example.eknjiznica.utils.TextPrecomputer;
+
+public class EKnjiznicaApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        StartupTimer.onApplicationCreate();
+        StrictModeMonitor.install(this);
+        JankMonitor.init(this);
+        NetworkMonitor.init(this);
+        SnapshotStore.init(this);
+        LoanReminders.init(this);
+        MemberSync.init(this);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            RowPool.getInstance().trim();
+            TextPrecomputer.getInstance().clear();
+        }
+    }
+}
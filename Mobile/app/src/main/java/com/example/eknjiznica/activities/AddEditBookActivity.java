@@ -9,17 +9,13 @@ import android.widget.EditText;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.eknjiznica.R;
-import com.example.eknjiznica.api.ApiService;
-import com.example.eknjiznica.api.RetrofitClient;
 import com.example.eknjiznica.models.Book;
-import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.utils.DataCache;
 import com.example.eknjiznica.utils.SharedPreferencesHelper;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import com.example.eknjiznica.viewmodels.AddEditBookViewModel;
 
 public class AddEditBookActivity extends AppCompatActivity {
     private EditText etTitle, etAuthor, etYear, etGenre;
@@ -27,7 +23,7 @@ public class AddEditBookActivity extends AppCompatActivity {
     private Book book;
     private boolean isEditMode;
     private SharedPreferencesHelper prefsHelper;
-    private ApiService apiService;
+    private AddEditBookViewModel viewModel;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -35,7 +31,6 @@ public class AddEditBookActivity extends AppCompatActivity {
         setContentView(R.layout.activity_add_edit_book);
 
         prefsHelper = new SharedPreferencesHelper(this);
-        apiService = RetrofitClient.getInstance().getApiService();
 
         if (!prefsHelper.isLibrarian()) {
             Toast.makeText(this, "Access denied", Toast.LENGTH_SHORT).show();
@@ -49,8 +44,21 @@ public class AddEditBookActivity extends AppCompatActivity {
         etGenre = findViewById(R.id.etGenre);
         btnSave = findViewById(R.id.btnSave);
 
-        book = (Book) getIntent().getSerializableExtra("book");
-        isEditMode = book != null;
+        int bookId = Navigator.getBookId(getIntent());
+        isEditMode = bookId != Navigator.NO_ID;
+        if (isEditMode) {
+            Book source = Navigator.getBookSnapshot(getIntent());
+            if (source == null) {
+                source = DataCache.getInstance().findBook(bookId, DataCache.DEFAULT_MAX_AGE_MS);
+            }
+            if (source == null) {
+                Toast.makeText(this, "Book not found", Toast.LENGTH_SHORT).show();
+                finish();
+                return;
+            }
+            // Edited in place, so never the instance shared through the cache
+            book = source.copy();
+        }
 
         if (isEditMode) {
             setTitle("Edit Book");
@@ -62,6 +70,23 @@ public class AddEditBookActivity extends AppCompatActivity {
             setTitle("Add New Book");
         }
 
+        viewModel = new ViewModelProvider(this).get(AddEditBookViewModel.class);
+        viewModel.isSaving().observe(this, saving -> {
+            btnSave.setEnabled(!saving);
+            btnSave.setText(saving ? "Saving..." : "Save");
+        });
+        viewModel.getSaved().observe(this, event -> {
+            if (event.getContentIfNotHandled() != null) {
+                finish();
+            }
+        });
+        viewModel.getMessages().observe(this, event -> {
+            String message = event.getContentIfNotHandled();
+            if (message != null) {
+                Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+            }
+        });
+
         btnSave.setOnClickListener(v -> saveBook());
     }
 
@@ -99,40 +124,7 @@ public class AddEditBookActivity extends AppCompatActivity {
             return;
         }
 
-        btnSave.setEnabled(false);
-        btnSave.setText("Saving...");
-
-        Call<ApiResponse<Book>> call;
-        if (isEditMode) {
-            call = apiService.updateBook(token, book.getId(), bookToSave);
-        } else {
-            call = apiService.addBook(token, bookToSave);
-        }
-
-        call.enqueue(new Callback<ApiResponse<Book>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<Book>> call, Response<ApiResponse<Book>> response) {
-                btnSave.setEnabled(true);
-                btnSave.setText("Save");
-
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    Toast.makeText(AddEditBookActivity.this, 
-                        isEditMode ? "Book updated successfully" : "Book added successfully", 
-                        Toast.LENGTH_SHORT).show();
-                    finish();
-                } else {
-                    String message = response.body() != null ? response.body().getMessage() : "Failed to save book";
-                    Toast.makeText(AddEditBookActivity.this, message, Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<Book>> call, Throwable t) {
-                btnSave.setEnabled(true);
-                btnSave.setText("Save");
-                Toast.makeText(AddEditBookActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
+        viewModel.saveBook(token, bookToSave, isEditMode);
     }
 
     @Override
@@ -1,44 +1,37 @@
 package com.example.eknjiznica.activities;
 
+import android.app.AlertDialog;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.Menu;
 import android.view.MenuItem;
+import android.view.View;
+import android.widget.EditText;
+import android.widget.Spinner;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eknjiznica.R;
 import com.example.eknjiznica.adapters.FineAdapter;
-import com.example.eknjiznica.api.ApiService;
-import com.example.eknjiznica.api.RetrofitClient;
-import android.app.AlertDialog;
-import android.view.View;
-import android.widget.EditText;
-import android.widget.Spinner;
-
-import com.example.eknjiznica.models.ApiResponse;
-import com.example.eknjiznica.models.CreateFineRequest;
+import com.example.eknjiznica.adapters.RowPool;
 import com.example.eknjiznica.models.Fine;
 import com.example.eknjiznica.utils.SharedPreferencesHelper;
+import com.example.eknjiznica.viewmodels.AllFinesViewModel;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class AllFinesActivity extends AppCompatActivity {
     private RecyclerView recyclerView;
     private FineAdapter adapter;
-    private List<Fine> fineList;
     private SharedPreferencesHelper prefsHelper;
-    private ApiService apiService;
+    private AllFinesViewModel viewModel;
     private FloatingActionButton fabAddFine;
 
     @Override
@@ -47,7 +40,6 @@ public class AllFinesActivity extends AppCompatActivity {
         setContentView(R.layout.activity_all_fines);
 
         prefsHelper = new SharedPreferencesHelper(this);
-        apiService = RetrofitClient.getInstance().getApiService();
 
         if (!prefsHelper.isLibrarian()) {
             Toast.makeText(this, "Access denied", Toast.LENGTH_SHORT).show();
@@ -55,18 +47,58 @@ public class AllFinesActivity extends AppCompatActivity {
             return;
         }
 
+        String token = prefsHelper.getAuthHeader();
+        if (token == null) {
+            Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+
         recyclerView = findViewById(R.id.recyclerViewFines);
         fabAddFine = findViewById(R.id.fabAddFine);
 
-        fineList = new ArrayList<>();
-        adapter = new FineAdapter(fineList, true);
-        adapter.setOnMarkPaidClickListener(fine -> markFineAsPaid(fine.getId()));
+        viewModel = new ViewModelProvider(this).get(AllFinesViewModel.class);
+        adapter = new FineAdapter(viewModel.getItems(), true);
+        adapter.setOnMarkPaidClickListener(this::markFineAsPaid);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
+        RowPool.getInstance().attach(recyclerView, R.layout.item_fine);
+
+        viewModel.getItemsChanged().observe(this, change -> change.dispatchTo(adapter));
+        viewModel.getMessages().observe(this, event -> {
+            String message = event.getContentIfNotHandled();
+            if (message != null) {
+                Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+            }
+        });
+        viewModel.getMembers().observe(this, event -> {
+            List<Object> members = event.getContentIfNotHandled();
+            if (members != null) {
+                showAddFineDialogWithMembers(members);
+            }
+        });
 
         fabAddFine.setOnClickListener(v -> showAddFineDialog());
 
-        loadFines();
+        viewModel.loadIfNeeded(token);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (recyclerView != null) {
+            RowPool.getInstance().release(recyclerView);
+        }
+    }
+
+    private void markFineAsPaid(Fine fine) {
+        String token = prefsHelper.getAuthHeader();
+        if (token == null) {
+            Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        viewModel.markFineAsPaid(token, fine);
     }
 
     private void showAddFineDialog() {
@@ -77,23 +109,7 @@ public class AllFinesActivity extends AppCompatActivity {
             return;
         }
 
-        Call<ApiResponse<List<Object>>> call = apiService.getMembers(token);
-        call.enqueue(new Callback<ApiResponse<List<Object>>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<List<Object>>> call, Response<ApiResponse<List<Object>>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    List<Object> members = response.body().getData();
-                    showAddFineDialogWithMembers(members);
-                } else {
-                    Toast.makeText(AllFinesActivity.this, "Failed to load members", Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<List<Object>>> call, Throwable t) {
-                Toast.makeText(AllFinesActivity.this, "Error loading members: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
+        viewModel.loadMembers(token);
     }
 
     private void showAddFineDialogWithMembers(List<Object> members) {
@@ -145,7 +161,7 @@ public class AllFinesActivity extends AppCompatActivity {
                     Toast.makeText(this, "Amount must be greater than 0", Toast.LENGTH_SHORT).show();
                     return;
                 }
-                createFine(userId, amount, reason);
+                viewModel.createFine(prefsHelper.getAuthHeader(), userId, amount, reason);
             } catch (NumberFormatException e) {
                 Toast.makeText(this, "Invalid amount", Toast.LENGTH_SHORT).show();
             }
@@ -155,93 +171,13 @@ public class AllFinesActivity extends AppCompatActivity {
         builder.show();
     }
 
-    private void createFine(String userId, double amount, String reason) {
-        String token = prefsHelper.getAuthHeader();
-        if (token == null) {
-            Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        CreateFineRequest request = new CreateFineRequest(userId, amount, reason);
-        Call<ApiResponse<Fine>> call = apiService.createFine(token, request);
-        call.enqueue(new Callback<ApiResponse<Fine>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<Fine>> call, Response<ApiResponse<Fine>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    Toast.makeText(AllFinesActivity.this, "Fine created successfully!", Toast.LENGTH_SHORT).show();
-                    loadFines();
-                } else {
-                    String message = response.body() != null ? response.body().getMessage() : "Failed to create fine";
-                    Toast.makeText(AllFinesActivity.this, message, Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<Fine>> call, Throwable t) {
-                Toast.makeText(AllFinesActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
-    }
-
-    private void loadFines() {
-        String token = prefsHelper.getAuthHeader();
-        if (token == null) {
-            Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
-            finish();
-            return;
-        }
-
-        Call<ApiResponse<List<Fine>>> call = apiService.getAllFines(token);
-        call.enqueue(new Callback<ApiResponse<List<Fine>>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<List<Fine>>> call, Response<ApiResponse<List<Fine>>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    fineList.clear();
-                    fineList.addAll(response.body().getData());
-                    adapter.notifyDataSetChanged();
-                } else {
-                    Toast.makeText(AllFinesActivity.this, "Failed to load fines", Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<List<Fine>>> call, Throwable t) {
-                Toast.makeText(AllFinesActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
-    }
-
-    private void markFineAsPaid(int fineId) {
-        String token = prefsHelper.getAuthHeader();
-        if (token == null) {
-            Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        Call<ApiResponse<Fine>> call = apiService.markFineAsPaid(token, fineId);
-        call.enqueue(new Callback<ApiResponse<Fine>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<Fine>> call, Response<ApiResponse<Fine>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    Toast.makeText(AllFinesActivity.this, "Fine marked as paid!", Toast.LENGTH_SHORT).show();
-                    loadFines();
-                } else {
-                    String message = response.body() != null ? response.body().getMessage() : "Failed to mark fine as paid";
-                    Toast.makeText(AllFinesActivity.this, message, Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<Fine>> call, Throwable t) {
-                Toast.makeText(AllFinesActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
-    }
-
     @Override
     protected void onResume() {
         super.onResume();
-        loadFines();
+        // Only reload when something was changed while this screen was in the background
+        if (viewModel != null) {
+            viewModel.refreshIfChanged(prefsHelper.getAuthHeader());
+        }
     }
 
     @Override
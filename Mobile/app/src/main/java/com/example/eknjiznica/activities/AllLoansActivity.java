@@ -4,33 +4,30 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.view.Menu;
 import android.view.MenuItem;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eknjiznica.R;
 import com.example.eknjiznica.adapters.LoanAdapter;
-import com.example.eknjiznica.api.ApiService;
-import com.example.eknjiznica.api.RetrofitClient;
-import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.adapters.RowPool;
 import com.example.eknjiznica.models.Loan;
+import com.example.eknjiznica.utils.CirculationAnalytics;
 import com.example.eknjiznica.utils.SharedPreferencesHelper;
+import com.example.eknjiznica.viewmodels.AllLoansViewModel;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class AllLoansActivity extends AppCompatActivity {
     private RecyclerView recyclerView;
+    private TextView tvCirculation;
     private LoanAdapter adapter;
-    private List<Loan> loanList;
     private SharedPreferencesHelper prefsHelper;
-    private ApiService apiService;
+    private AllLoansViewModel viewModel;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -38,7 +35,6 @@ public class AllLoansActivity extends AppCompatActivity {
         setContentView(R.layout.activity_all_loans);
 
         prefsHelper = new SharedPreferencesHelper(this);
-        apiService = RetrofitClient.getInstance().getApiService();
 
         if (!prefsHelper.isLibrarian()) {
             Toast.makeText(this, "Access denied", Toast.LENGTH_SHORT).show();
@@ -46,18 +42,6 @@ public class AllLoansActivity extends AppCompatActivity {
             return;
         }
 
-        recyclerView = findViewById(R.id.recyclerViewLoans);
-
-        loanList = new ArrayList<>();
-        adapter = new LoanAdapter(loanList, true);
-        adapter.setOnReturnClickListener(loan -> returnLoan(loan.getId()));
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        recyclerView.setAdapter(adapter);
-
-        loadLoans();
-    }
-
-    private void loadLoans() {
         String token = prefsHelper.getAuthHeader();
         if (token == null) {
             Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
@@ -65,57 +49,70 @@ public class AllLoansActivity extends AppCompatActivity {
             return;
         }
 
-        Call<ApiResponse<List<Loan>>> call = apiService.getAllLoans(token);
-        call.enqueue(new Callback<ApiResponse<List<Loan>>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<List<Loan>>> call, Response<ApiResponse<List<Loan>>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    loanList.clear();
-                    loanList.addAll(response.body().getData());
-                    adapter.notifyDataSetChanged();
-                } else {
-                    Toast.makeText(AllLoansActivity.this, "Failed to load loans", Toast.LENGTH_SHORT).show();
-                }
-            }
+        recyclerView = findViewById(R.id.recyclerViewLoans);
+        tvCirculation = findViewById(R.id.tvCirculation);
 
-            @Override
-            public void onFailure(Call<ApiResponse<List<Loan>>> call, Throwable t) {
-                Toast.makeText(AllLoansActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
+        viewModel = new ViewModelProvider(this).get(AllLoansViewModel.class);
+        adapter = new LoanAdapter(viewModel.getItems(), true);
+        adapter.setOnReturnClickListener(this::returnLoan);
+        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        recyclerView.setAdapter(adapter);
+        RowPool.getInstance().attach(recyclerView, R.layout.item_loan);
+
+        viewModel.getItemsChanged().observe(this, change -> {
+            change.dispatchTo(adapter);
+            showCirculation();
+        });
+        viewModel.getMessages().observe(this, event -> {
+            String message = event.getContentIfNotHandled();
+            if (message != null) {
+                Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
             }
         });
+
+        viewModel.loadIfNeeded(token);
     }
 
-    private void returnLoan(int loanId) {
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (recyclerView != null) {
+            RowPool.getInstance().release(recyclerView);
+        }
+    }
+
+    private void showCirculation() {
+        CirculationAnalytics analytics = CirculationAnalytics.getInstance();
+        StringBuilder text = new StringBuilder()
+                .append("Last 7 days: ").append(analytics.loansInLastDays(7)).append(" loans, ")
+                .append(analytics.returnsInLastDays(7)).append(" returns")
+                .append("\nLast 30 days: ").append(analytics.loansInLastDays(30)).append(" loans")
+                .append("\nOverdue: ").append(analytics.overdueCount());
+        List<CirculationAnalytics.BookCount> top = analytics.topBorrowed(1);
+        if (!top.isEmpty() && top.get(0).title != null) {
+            text.append("\nMost borrowed: ").append(top.get(0).title)
+                    .append(" (").append(top.get(0).count).append(")");
+        }
+        tvCirculation.setText(text);
+    }
+
+    private void returnLoan(Loan loan) {
         String token = prefsHelper.getAuthHeader();
         if (token == null) {
             Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        Call<ApiResponse<Loan>> call = apiService.returnLoan(token, loanId);
-        call.enqueue(new Callback<ApiResponse<Loan>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<Loan>> call, Response<ApiResponse<Loan>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    Toast.makeText(AllLoansActivity.this, "Loan returned successfully!", Toast.LENGTH_SHORT).show();
-                    loadLoans();
-                } else {
-                    String message = response.body() != null ? response.body().getMessage() : "Failed to return loan";
-                    Toast.makeText(AllLoansActivity.this, message, Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<Loan>> call, Throwable t) {
-                Toast.makeText(AllLoansActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
+        viewModel.returnLoan(token, loan);
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        loadLoans();
+        // Only reload when something was changed while this screen was in the background
+        if (viewModel != null) {
+            viewModel.refreshIfChanged(prefsHelper.getAuthHeader());
+        }
     }
 
     @Override
@@ -7,30 +7,22 @@ import android.view.MenuItem;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eknjiznica.R;
 import com.example.eknjiznica.adapters.ReservationAdapter;
-import com.example.eknjiznica.api.ApiService;
-import com.example.eknjiznica.api.RetrofitClient;
-import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.adapters.RowPool;
 import com.example.eknjiznica.models.Reservation;
 import com.example.eknjiznica.utils.SharedPreferencesHelper;
-
-import java.util.ArrayList;
-import java.util.List;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import com.example.eknjiznica.viewmodels.AllReservationsViewModel;
 
 public class AllReservationsActivity extends AppCompatActivity {
     private RecyclerView recyclerView;
     private ReservationAdapter adapter;
-    private List<Reservation> reservationList;
     private SharedPreferencesHelper prefsHelper;
-    private ApiService apiService;
+    private AllReservationsViewModel viewModel;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -38,7 +30,6 @@ public class AllReservationsActivity extends AppCompatActivity {
         setContentView(R.layout.activity_all_reservations);
 
         prefsHelper = new SharedPreferencesHelper(this);
-        apiService = RetrofitClient.getInstance().getApiService();
 
         if (!prefsHelper.isLibrarian()) {
             Toast.makeText(this, "Access denied", Toast.LENGTH_SHORT).show();
@@ -46,18 +37,6 @@ public class AllReservationsActivity extends AppCompatActivity {
             return;
         }
 
-        recyclerView = findViewById(R.id.recyclerViewReservations);
-
-        reservationList = new ArrayList<>();
-        adapter = new ReservationAdapter(reservationList, true);
-        adapter.setOnApproveClickListener(reservation -> approveReservation(reservation.getId()));
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        recyclerView.setAdapter(adapter);
-
-        loadReservations();
-    }
-
-    private void loadReservations() {
         String token = prefsHelper.getAuthHeader();
         if (token == null) {
             Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
@@ -65,58 +44,51 @@ public class AllReservationsActivity extends AppCompatActivity {
             return;
         }
 
-        Call<ApiResponse<List<Reservation>>> call = apiService.getAllReservations(token);
-        call.enqueue(new Callback<ApiResponse<List<Reservation>>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<List<Reservation>>> call, Response<ApiResponse<List<Reservation>>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    reservationList.clear();
-                    reservationList.addAll(response.body().getData());
-                    adapter.notifyDataSetChanged();
-                } else {
-                    Toast.makeText(AllReservationsActivity.this, "Failed to load reservations", Toast.LENGTH_SHORT).show();
-                }
-            }
+        recyclerView = findViewById(R.id.recyclerViewReservations);
+
+        viewModel = new ViewModelProvider(this).get(AllReservationsViewModel.class);
+        adapter = new ReservationAdapter(viewModel.getItems(), true);
+        adapter.setOnApproveClickListener(this::approveReservation);
+        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        recyclerView.setAdapter(adapter);
+        RowPool.getInstance().attach(recyclerView, R.layout.item_reservation);
 
-            @Override
-            public void onFailure(Call<ApiResponse<List<Reservation>>> call, Throwable t) {
-                Toast.makeText(AllReservationsActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
+        viewModel.getItemsChanged().observe(this, change -> change.dispatchTo(adapter));
+        viewModel.getMessages().observe(this, event -> {
+            String message = event.getContentIfNotHandled();
+            if (message != null) {
+                Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
             }
         });
+
+        viewModel.loadIfNeeded(token);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (recyclerView != null) {
+            RowPool.getInstance().release(recyclerView);
+        }
     }
 
-    private void approveReservation(int reservationId) {
+    private void approveReservation(Reservation reservation) {
         String token = prefsHelper.getAuthHeader();
         if (token == null) {
             Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        Call<ApiResponse<com.example.eknjiznica.models.Loan>> call = apiService.approveReservation(token, reservationId);
-        call.enqueue(new Callback<ApiResponse<com.example.eknjiznica.models.Loan>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<com.example.eknjiznica.models.Loan>> call,
-                                  Response<ApiResponse<com.example.eknjiznica.models.Loan>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    Toast.makeText(AllReservationsActivity.this, "Reservation approved and loan created!", Toast.LENGTH_SHORT).show();
-                    loadReservations();
-                } else {
-                    String message = response.body() != null ? response.body().getMessage() : "Failed to approve reservation";
-                    Toast.makeText(AllReservationsActivity.this, message, Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<com.example.eknjiznica.models.Loan>> call, Throwable t) {
-                Toast.makeText(AllReservationsActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
+        viewModel.approveReservation(token, reservation);
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        loadReservations();
+        // Only reload when something was changed while this screen was in the background
+        if (viewModel != null) {
+            viewModel.refreshIfChanged(prefsHelper.getAuthHeader());
+        }
     }
 
     @Override
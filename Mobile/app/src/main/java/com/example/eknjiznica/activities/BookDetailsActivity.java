@@ -11,40 +11,32 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.widget.NestedScrollView;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import android.text.InputType;
 import android.widget.EditText;
 import android.widget.RatingBar;
 
 import com.example.eknjiznica.R;
 import com.example.eknjiznica.adapters.ReviewAdapter;
-import com.example.eknjiznica.api.ApiService;
-import com.example.eknjiznica.api.RetrofitClient;
 import com.example.eknjiznica.models.Book;
-import com.example.eknjiznica.models.ApiResponse;
-import com.example.eknjiznica.models.CreateReviewRequest;
-import com.example.eknjiznica.models.Review;
 import com.example.eknjiznica.utils.SharedPreferencesHelper;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import com.example.eknjiznica.viewmodels.BookDetailsViewModel;
 
 public class BookDetailsActivity extends AppCompatActivity {
+    // Start loading the next review page this far before the end of the screen
+    private static final int LOAD_MORE_THRESHOLD_PX = 600;
+
     private Book book;
     private TextView tvTitle, tvAuthor, tvYear, tvGenre, tvAvailable, tvAverageRating;
     private Button btnReserve, btnEdit, btnDelete, btnAddReview;
+    private NestedScrollView scrollView;
     private RecyclerView recyclerViewReviews;
     private ReviewAdapter reviewAdapter;
-    private List<Review> reviewList;
     private SharedPreferencesHelper prefsHelper;
-    private ApiService apiService;
+    private BookDetailsViewModel viewModel;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -52,10 +44,9 @@ public class BookDetailsActivity extends AppCompatActivity {
         setContentView(R.layout.activity_book_details);
 
         prefsHelper = new SharedPreferencesHelper(this);
-        apiService = RetrofitClient.getInstance().getApiService();
 
-        book = (Book) getIntent().getSerializableExtra("book");
-        if (book == null) {
+        int bookId = Navigator.getBookId(getIntent());
+        if (bookId == Navigator.NO_ID) {
             Toast.makeText(this, "Book not found", Toast.LENGTH_SHORT).show();
             finish();
             return;
@@ -72,16 +63,19 @@ public class BookDetailsActivity extends AppCompatActivity {
         btnDelete = findViewById(R.id.btnDelete);
         btnAddReview = findViewById(R.id.btnAddReview);
         recyclerViewReviews = findViewById(R.id.recyclerViewReviews);
+        scrollView = findViewById(R.id.scrollView);
 
-        reviewList = new ArrayList<>();
-        reviewAdapter = new ReviewAdapter(reviewList, prefsHelper.getUserId());
+        viewModel = new ViewModelProvider(this).get(BookDetailsViewModel.class);
+        viewModel.init(bookId, Navigator.getBookSnapshot(getIntent()));
+
+        reviewAdapter = new ReviewAdapter(viewModel.getReviews(), prefsHelper.getUserId());
         reviewAdapter.setOnDeleteClickListener(review -> deleteReview(review.getId()));
+        reviewAdapter.setOnExpandClickListener(viewModel::expandComment);
         recyclerViewReviews.setLayoutManager(new LinearLayoutManager(this));
         recyclerViewReviews.setAdapter(reviewAdapter);
-
-        displayBook();
-        loadReviews();
-        loadRating();
+        // The reviews list sits inside the scroll view, so paging follows the outer scroll
+        scrollView.setOnScrollChangeListener((NestedScrollView.OnScrollChangeListener)
+                (v, scrollX, scrollY, oldScrollX, oldScrollY) -> loadMoreReviewsIfNearEnd());
 
         if (prefsHelper.isLibrarian()) {
             btnEdit.setVisibility(android.view.View.VISIBLE);
@@ -89,14 +83,13 @@ public class BookDetailsActivity extends AppCompatActivity {
             btnReserve.setVisibility(android.view.View.GONE);
 
             btnEdit.setOnClickListener(v -> {
-                Intent intent = new Intent(this, AddEditBookActivity.class);
-                intent.putExtra("book", book);
-                startActivity(intent);
+                if (book != null) {
+                    Navigator.editBook(this, book);
+                }
             });
 
             btnDelete.setOnClickListener(v -> deleteBook());
         } else if (prefsHelper.isMember()) {
-            btnReserve.setVisibility(book.isAvailable() ? android.view.View.VISIBLE : android.view.View.GONE);
             btnEdit.setVisibility(android.view.View.GONE);
             btnDelete.setVisibility(android.view.View.GONE);
             btnAddReview.setVisibility(android.view.View.VISIBLE);
@@ -106,66 +99,26 @@ public class BookDetailsActivity extends AppCompatActivity {
         } else {
             btnAddReview.setVisibility(android.view.View.GONE);
         }
-    }
 
-    private void loadReviews() {
-        Call<ApiResponse<List<Review>>> call = apiService.getBookReviews(book.getId());
-        call.enqueue(new Callback<ApiResponse<List<Review>>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<List<Review>>> call, Response<ApiResponse<List<Review>>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    reviewList.clear();
-                    reviewList.addAll(response.body().getData());
-                    reviewAdapter.notifyDataSetChanged();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<List<Review>>> call, Throwable t) {
-                // Silently fail - reviews are optional
-            }
+        viewModel.getBook().observe(this, current -> {
+            book = current;
+            displayBook();
         });
-    }
-
-    private void loadRating() {
-        Call<ApiResponse<Object>> call = apiService.getBookRating(book.getId());
-        call.enqueue(new Callback<ApiResponse<Object>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<Object>> call, Response<ApiResponse<Object>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    try {
-                        Object data = response.body().getData();
-                        if (data instanceof Map) {
-                            @SuppressWarnings("unchecked")
-                            Map<String, Object> ratingData = (Map<String, Object>) data;
-                            Object avgRating = ratingData.get("averageRating");
-                            Object reviewCount = ratingData.get("reviewCount");
-                            
-                            if (avgRating != null && reviewCount != null) {
-                                double avg = ((Number) avgRating).doubleValue();
-                                int count = ((Number) reviewCount).intValue();
-                                if (count > 0) {
-                                    tvAverageRating.setText(String.format("Average Rating: %.1f/5.0 (%d reviews)", avg, count));
-                                } else {
-                                    tvAverageRating.setText("No reviews yet");
-                                }
-                            } else {
-                                tvAverageRating.setText("Average Rating: -");
-                            }
-                        } else {
-                            tvAverageRating.setText("Average Rating: -");
-                        }
-                    } catch (Exception e) {
-                        tvAverageRating.setText("Average Rating: -");
-                    }
-                } else {
-                    tvAverageRating.setText("Average Rating: -");
-                }
+        viewModel.getReviewsChanged().observe(this, change -> {
+            change.dispatchTo(reviewAdapter);
+            // A short page may not fill the screen, so no scroll would ask for the next one
+            scrollView.post(this::loadMoreReviewsIfNearEnd);
+        });
+        viewModel.getRatingText().observe(this, tvAverageRating::setText);
+        viewModel.getMessages().observe(this, event -> {
+            String message = event.getContentIfNotHandled();
+            if (message != null) {
+                Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
             }
-
-            @Override
-            public void onFailure(Call<ApiResponse<Object>> call, Throwable t) {
-                tvAverageRating.setText("Average Rating: -");
+        });
+        viewModel.getCloseScreen().observe(this, event -> {
+            if (event.getContentIfNotHandled() != null) {
+                finish();
             }
         });
     }
@@ -203,26 +156,7 @@ public class BookDetailsActivity extends AppCompatActivity {
             return;
         }
 
-        CreateReviewRequest request = new CreateReviewRequest(book.getId(), rating, comment);
-        Call<ApiResponse<Review>> call = apiService.createReview(token, request);
-        call.enqueue(new Callback<ApiResponse<Review>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<Review>> call, Response<ApiResponse<Review>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    Toast.makeText(BookDetailsActivity.this, "Review added successfully!", Toast.LENGTH_SHORT).show();
-                    loadReviews();
-                    loadRating();
-                } else {
-                    String message = response.body() != null ? response.body().getMessage() : "Failed to add review";
-                    Toast.makeText(BookDetailsActivity.this, message, Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<Review>> call, Throwable t) {
-                Toast.makeText(BookDetailsActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
+        viewModel.createReview(token, rating, comment);
     }
 
     private void deleteReview(int reviewId) {
@@ -232,25 +166,17 @@ public class BookDetailsActivity extends AppCompatActivity {
             return;
         }
 
-        Call<ApiResponse<Object>> call = apiService.deleteReview(token, reviewId);
-        call.enqueue(new Callback<ApiResponse<Object>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<Object>> call, Response<ApiResponse<Object>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    Toast.makeText(BookDetailsActivity.this, "Review deleted successfully", Toast.LENGTH_SHORT).show();
-                    loadReviews();
-                    loadRating();
-                } else {
-                    String message = response.body() != null ? response.body().getMessage() : "Failed to delete review";
-                    Toast.makeText(BookDetailsActivity.this, message, Toast.LENGTH_SHORT).show();
-                }
-            }
+        viewModel.deleteReview(token, reviewId);
+    }
 
-            @Override
-            public void onFailure(Call<ApiResponse<Object>> call, Throwable t) {
-                Toast.makeText(BookDetailsActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
+    private void loadMoreReviewsIfNearEnd() {
+        if (!viewModel.hasMoreReviews() || scrollView.getChildCount() == 0) {
+            return;
+        }
+        int remaining = scrollView.getChildAt(0).getBottom() - (scrollView.getScrollY() + scrollView.getHeight());
+        if (remaining < LOAD_MORE_THRESHOLD_PX) {
+            viewModel.loadMoreReviews();
+        }
     }
 
     private void displayBook() {
@@ -262,6 +188,9 @@ public class BookDetailsActivity extends AppCompatActivity {
         tvAvailable.setTextColor(book.isAvailable() ?
             getColor(android.R.color.holo_green_dark) :
             getColor(android.R.color.holo_red_dark));
+        if (prefsHelper.isMember()) {
+            btnReserve.setVisibility(book.isAvailable() ? android.view.View.VISIBLE : android.view.View.GONE);
+        }
     }
 
     private void reserveBook() {
@@ -271,52 +200,20 @@ public class BookDetailsActivity extends AppCompatActivity {
             return;
         }
 
-        Call<ApiResponse<com.example.eknjiznica.models.Reservation>> call = apiService.reserveBook(token, book.getId());
-        call.enqueue(new Callback<ApiResponse<com.example.eknjiznica.models.Reservation>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<com.example.eknjiznica.models.Reservation>> call,
-                                  Response<ApiResponse<com.example.eknjiznica.models.Reservation>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    Toast.makeText(BookDetailsActivity.this, "Book reserved successfully!", Toast.LENGTH_SHORT).show();
-                    finish();
-                } else {
-                    String message = response.body() != null ? response.body().getMessage() : "Failed to reserve book";
-                    Toast.makeText(BookDetailsActivity.this, message, Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<com.example.eknjiznica.models.Reservation>> call, Throwable t) {
-                Toast.makeText(BookDetailsActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
+        viewModel.reserveBook(token);
     }
 
     private void deleteBook() {
+        if (book == null) {
+            return;
+        }
         String token = prefsHelper.getAuthHeader();
         if (token == null) {
             Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        Call<ApiResponse<Object>> call = apiService.deleteBook(token, book.getId());
-        call.enqueue(new Callback<ApiResponse<Object>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<Object>> call, Response<ApiResponse<Object>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    Toast.makeText(BookDetailsActivity.this, "Book deleted successfully", Toast.LENGTH_SHORT).show();
-                    finish();
-                } else {
-                    String message = response.body() != null ? response.body().getMessage() : "Failed to delete book";
-                    Toast.makeText(BookDetailsActivity.this, message, Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<Object>> call, Throwable t) {
-                Toast.makeText(BookDetailsActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
+        viewModel.deleteBook(token);
     }
 
     @Override
@@ -328,30 +225,12 @@ public class BookDetailsActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        // Refresh book data when returning from edit
-        if (book != null) {
-            loadBookDetails();
+        // Refresh book data only when it was edited or changed elsewhere
+        if (viewModel != null) {
+            viewModel.refreshIfChanged();
         }
     }
 
-    private void loadBookDetails() {
-        Call<ApiResponse<Book>> call = apiService.getBook(book.getId());
-        call.enqueue(new Callback<ApiResponse<Book>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<Book>> call, Response<ApiResponse<Book>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    book = response.body().getData();
-                    displayBook();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<Book>> call, Throwable t) {
-                // Silently fail - keep existing data
-            }
-        });
-    }
-
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         if (item.getItemId() == R.id.menu_logout) {
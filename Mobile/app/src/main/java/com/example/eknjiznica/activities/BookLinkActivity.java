@@ -0,0 +1,24 @@
+package com.example.eknjiznica.activities;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.widget.Toast;
+
+/**
+ * Exported entry point for eknjiznica://book/{id} links. Forwards only the parsed id to the
+ * unexported BookDetailsActivity, so nothing else another app puts in the intent gets through.
+ */
+public class BookLinkActivity extends Activity {
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        int bookId = Navigator.getBookId(getIntent().getData());
+        if (bookId == Navigator.NO_ID) {
+            Toast.makeText(this, "Book not found", Toast.LENGTH_SHORT).show();
+        } else {
+            Navigator.openBook(this, bookId);
+        }
+        finish();
+    }
+}
@@ -10,32 +10,25 @@ import android.view.View;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eknjiznica.R;
 import com.example.eknjiznica.adapters.BookAdapter;
-import com.example.eknjiznica.api.ApiService;
-import com.example.eknjiznica.api.RetrofitClient;
-import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.adapters.RowPool;
 import com.example.eknjiznica.models.Book;
+import com.example.eknjiznica.utils.NetworkMonitor;
 import com.example.eknjiznica.utils.SharedPreferencesHelper;
+import com.example.eknjiznica.viewmodels.BooksViewModel;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.textfield.TextInputEditText;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class BooksActivity extends AppCompatActivity {
     private RecyclerView recyclerView;
     private BookAdapter adapter;
-    private List<Book> bookList;
     private SharedPreferencesHelper prefsHelper;
-    private ApiService apiService;
+    private BooksViewModel viewModel;
     private FloatingActionButton fabAddBook;
     private TextInputEditText etSearch;
 
@@ -45,19 +38,17 @@ public class BooksActivity extends AppCompatActivity {
         setContentView(R.layout.activity_books);
 
         prefsHelper = new SharedPreferencesHelper(this);
-        apiService = RetrofitClient.getInstance().getApiService();
+        viewModel = new ViewModelProvider(this).get(BooksViewModel.class);
+        viewModel.setCompactCatalog(prefsHelper.useCompactCatalog());
 
         recyclerView = findViewById(R.id.recyclerViewBooks);
         fabAddBook = findViewById(R.id.fabAddBook);
         etSearch = findViewById(R.id.etSearch);
 
-        bookList = new ArrayList<>();
-        adapter = new BookAdapter(bookList, prefsHelper.isLibrarian(), new BookAdapter.OnBookClickListener() {
+        adapter = new BookAdapter(viewModel.getBooks(), prefsHelper.isLibrarian(), new BookAdapter.OnBookClickListener() {
             @Override
             public void onBookClick(Book book) {
-                Intent intent = new Intent(BooksActivity.this, BookDetailsActivity.class);
-                intent.putExtra("book", book);
-                startActivity(intent);
+                Navigator.openBook(BooksActivity.this, book);
             }
 
             @Override
@@ -66,8 +57,36 @@ public class BooksActivity extends AppCompatActivity {
             }
         });
 
+        adapter.setDrawnRows(prefsHelper.useDrawnBookRows());
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
+        RowPool.getInstance().attach(recyclerView, adapter.getRowViewType());
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    prefetchVisibleBooks();
+                }
+            }
+        });
+
+        viewModel.getItemsChanged().observe(this, change -> {
+            if (change.isAll()) {
+                adapter.setBooks(viewModel.getBooks());
+                adapter.notifyDataSetChanged();
+                // Rows are only laid out on the next pass
+                recyclerView.removeCallbacks(prefetchRunnable);
+                recyclerView.post(prefetchRunnable);
+            } else {
+                change.dispatchTo(adapter);
+            }
+        });
+        viewModel.getMessages().observe(this, event -> {
+            String message = event.getContentIfNotHandled();
+            if (message != null) {
+                Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+            }
+        });
 
         // Show FAB only for librarians
         if (prefsHelper.isLibrarian()) {
@@ -87,51 +106,37 @@ public class BooksActivity extends AppCompatActivity {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                // Debounce search - search after user stops typing
+                // Debounce search - search after user stops typing, longer on slow connections
                 recyclerView.removeCallbacks(searchRunnable);
-                recyclerView.postDelayed(searchRunnable, 500);
+                recyclerView.postDelayed(searchRunnable, NetworkMonitor.getInstance().getSearchDebounceMs());
             }
 
             @Override
             public void afterTextChanged(Editable s) {}
         });
 
-        loadBooks();
+        viewModel.loadIfNeeded(null);
+    }
+
+    private final Runnable prefetchRunnable = this::prefetchVisibleBooks;
+
+    private void prefetchVisibleBooks() {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager == null) {
+            return;
+        }
+        viewModel.prefetchVisible(layoutManager.findFirstVisibleItemPosition(),
+                layoutManager.findLastVisibleItemPosition());
     }
 
     private final Runnable searchRunnable = new Runnable() {
         @Override
         public void run() {
             String searchQuery = etSearch.getText().toString().trim();
-            loadBooks(searchQuery.isEmpty() ? null : searchQuery);
+            viewModel.search(searchQuery.isEmpty() ? null : searchQuery);
         }
     };
 
-    private void loadBooks() {
-        loadBooks(null);
-    }
-
-    private void loadBooks(String searchQuery) {
-        Call<ApiResponse<List<Book>>> call = apiService.getBooks(searchQuery);
-        call.enqueue(new Callback<ApiResponse<List<Book>>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<List<Book>>> call, Response<ApiResponse<List<Book>>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    bookList.clear();
-                    bookList.addAll(response.body().getData());
-                    adapter.notifyDataSetChanged();
-                } else {
-                    Toast.makeText(BooksActivity.this, "Failed to load books", Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<List<Book>>> call, Throwable t) {
-                Toast.makeText(BooksActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
-    }
-
     private void reserveBook(int bookId) {
         String token = prefsHelper.getAuthHeader();
         if (token == null) {
@@ -139,42 +144,49 @@ public class BooksActivity extends AppCompatActivity {
             return;
         }
 
-        Call<com.example.eknjiznica.models.ApiResponse<com.example.eknjiznica.models.Reservation>> call = 
-            apiService.reserveBook(token, bookId);
-        call.enqueue(new Callback<com.example.eknjiznica.models.ApiResponse<com.example.eknjiznica.models.Reservation>>() {
-            @Override
-            public void onResponse(Call<com.example.eknjiznica.models.ApiResponse<com.example.eknjiznica.models.Reservation>> call, 
-                                  Response<com.example.eknjiznica.models.ApiResponse<com.example.eknjiznica.models.Reservation>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    Toast.makeText(BooksActivity.this, "Book reserved successfully!", Toast.LENGTH_SHORT).show();
-                    loadBooks(); // Refresh list
-                } else {
-                    String message = response.body() != null ? response.body().getMessage() : "Failed to reserve book";
-                    Toast.makeText(BooksActivity.this, message, Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<com.example.eknjiznica.models.ApiResponse<com.example.eknjiznica.models.Reservation>> call, Throwable t) {
-                Toast.makeText(BooksActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
+        viewModel.reserveBook(token, bookId);
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        loadBooks(); // Refresh when returning to this activity
+        // Only reload when something was changed while this screen was in the background
+        viewModel.refreshIfChanged(null);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        recyclerView.removeCallbacks(searchRunnable);
+        recyclerView.removeCallbacks(prefetchRunnable);
+        RowPool.getInstance().release(recyclerView);
     }
 
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.books_menu, menu);
         getMenuInflater().inflate(R.menu.main_menu, menu);
+        menu.findItem(R.id.menu_drawn_rows).setChecked(prefsHelper.useDrawnBookRows());
+        menu.findItem(R.id.menu_compact_catalog).setChecked(prefsHelper.useCompactCatalog());
         return true;
     }
 
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.menu_drawn_rows) {
+            boolean drawn = !item.isChecked();
+            item.setChecked(drawn);
+            prefsHelper.setDrawnBookRows(drawn);
+            adapter.setDrawnRows(drawn);
+            return true;
+        }
+        if (item.getItemId() == R.id.menu_compact_catalog) {
+            boolean compact = !item.isChecked();
+            item.setChecked(compact);
+            prefsHelper.setCompactCatalog(compact);
+            viewModel.setCompactCatalog(compact);
+            return true;
+        }
         if (item.getItemId() == R.id.menu_logout) {
             prefsHelper.clear();
             startActivity(new Intent(this, LoginActivity.class));
@@ -0,0 +1,145 @@
+package com.example.eknjiznica.activities;
+
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.eknjiznica.R;
+import com.example.eknjiznica.api.ApiMetrics;
+import com.example.eknjiznica.utils.Diagnostics;
+import com.example.eknjiznica.utils.JankMonitor;
+import com.example.eknjiznica.utils.StrictModeMonitor;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Hidden screen with the app's runtime performance data, opened by long-pressing the
+ * welcome text on the home screen.
+ */
+public class DiagnosticsActivity extends AppCompatActivity {
+    // Writes the dump and export files, which must not block the main thread
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private TextView tvRuntime, tvFrames;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_diagnostics);
+
+        tvRuntime = findViewById(R.id.tvRuntime);
+        tvFrames = findViewById(R.id.tvFrames);
+        Button btnDump = findViewById(R.id.btnDump);
+        Button btnRefresh = findViewById(R.id.btnRefresh);
+        Button btnReset = findViewById(R.id.btnReset);
+        Button btnExport = findViewById(R.id.btnExport);
+
+        btnDump.setOnClickListener(v -> dump(btnDump));
+        btnRefresh.setOnClickListener(v -> refresh());
+        btnReset.setOnClickListener(v -> {
+            JankMonitor.getInstance().reset();
+            ApiMetrics.getInstance().reset();
+            if (StrictModeMonitor.getInstance() != null) {
+                StrictModeMonitor.getInstance().reset();
+            }
+            refresh();
+        });
+        btnExport.setOnClickListener(v -> exportFrames(btnExport));
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // A write already started still finishes
+        executor.shutdown();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        refresh();
+    }
+
+    private void refresh() {
+        showRuntime();
+        showFrames();
+    }
+
+    private void showRuntime() {
+        try {
+            JSONObject report = Diagnostics.collect();
+            // Frames have their own, more readable section below
+            report.remove("frames");
+            tvRuntime.setText(report.toString(2));
+        } catch (JSONException e) {
+            tvRuntime.setText("Failed to collect: " + e.getMessage());
+        }
+    }
+
+    private void showFrames() {
+        List<JankMonitor.Stats> stats = JankMonitor.getInstance().getStats();
+        if (stats.isEmpty()) {
+            tvFrames.setText("No frames recorded yet");
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        for (JankMonitor.Stats screen : stats) {
+            text.append(screen.screen).append(" (").append(screen.state).append(")\n");
+            text.append(String.format(Locale.US, "  %d frames, %.1f%% janky, %d frozen\n",
+                    screen.frames, screen.getJankPercent(), screen.frozenFrames));
+            text.append(String.format(Locale.US, "  p50 %.1f  p90 %.1f  p95 %.1f  p99 %.1f ms\n\n",
+                    screen.p50Ms, screen.p90Ms, screen.p95Ms, screen.p99Ms));
+        }
+        tvFrames.setText(text.toString().trim());
+    }
+
+    private void dump(Button button) {
+        JSONObject report;
+        try {
+            // The counters are read on the main thread; only the file is written in the background
+            report = Diagnostics.collect();
+        } catch (JSONException e) {
+            Toast.makeText(this, "Dump failed: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            return;
+        }
+        button.setEnabled(false);
+        executor.execute(() -> {
+            String message;
+            try {
+                message = "Saved to " + Diagnostics.dump(getApplicationContext(), report).getAbsolutePath();
+            } catch (IOException | JSONException e) {
+                message = "Dump failed: " + e.getMessage();
+            }
+            showResult(button, message);
+        });
+    }
+
+    private void exportFrames(Button button) {
+        button.setEnabled(false);
+        executor.execute(() -> {
+            String message;
+            try {
+                message = "Saved to " + JankMonitor.getInstance().exportCsv(getApplicationContext()).getAbsolutePath();
+            } catch (IOException e) {
+                message = "Export failed: " + e.getMessage();
+            }
+            showResult(button, message);
+        });
+    }
+
+    private void showResult(Button button, String message) {
+        runOnUiThread(() -> {
+            button.setEnabled(true);
+            Toast.makeText(getApplicationContext(), message, Toast.LENGTH_LONG).show();
+        });
+    }
+}
@@ -11,38 +11,47 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
+import androidx.core.splashscreen.SplashScreen;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.eknjiznica.R;
-import com.example.eknjiznica.api.ApiService;
-import com.example.eknjiznica.api.RetrofitClient;
-import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.LibrarianStatistics;
+import com.example.eknjiznica.models.MemberStatistics;
+import com.example.eknjiznica.utils.MemberSync;
 import com.example.eknjiznica.utils.SharedPreferencesHelper;
-
-import org.json.JSONObject;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import com.example.eknjiznica.utils.StartupTimer;
+import com.example.eknjiznica.viewmodels.HomeViewModel;
 
 public class HomeActivity extends AppCompatActivity {
     private SharedPreferencesHelper prefsHelper;
-    private ApiService apiService;
+    private HomeViewModel viewModel;
     private TextView tvWelcome, tvMemberSection, tvLibrarianSection;
     private CardView cvBooks, cvLoans, cvReservations, cvFines, cvManageBooks, cvManageLoans, cvManageReservations, cvManageFines, cvManageMembers;
+    private TextView tvBooksCount, tvLoansCount, tvReservationsCount, tvManageBooksCount, tvManageLoansCount, tvManageReservationsCount, tvMembersCount;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        SplashScreen splashScreen = SplashScreen.installSplashScreen(this);
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_home);
 
         prefsHelper = new SharedPreferencesHelper(this);
-        apiService = RetrofitClient.getInstance().getApiService();
+        viewModel = new ViewModelProvider(this).get(HomeViewModel.class);
+
+        // Keep the splash up while the session is read off the main thread
+        splashScreen.setKeepOnScreenCondition(() -> viewModel.isLoggedIn().getValue() == null);
+        viewModel.isLoggedIn().observe(this, loggedIn -> {
+            if (!loggedIn) {
+                startActivity(new Intent(this, LoginActivity.class));
+                finish();
+                return;
+            }
+            showHome();
+        });
+        viewModel.loadSession(getApplicationContext());
+    }
 
-        if (!prefsHelper.isLoggedIn()) {
-            startActivity(new Intent(this, LoginActivity.class));
-            finish();
-            return;
-        }
+    private void showHome() {
+        setContentView(R.layout.activity_home);
 
         tvWelcome = findViewById(R.id.tvWelcome);
         tvMemberSection = findViewById(R.id.tvMemberSection);
@@ -50,46 +59,52 @@ public class HomeActivity extends AppCompatActivity {
         
         String email = prefsHelper.getEmail();
         tvWelcome.setText("Welcome, " + (email != null ? email : "User") + "!");
+        // Hidden entry for support staff
+        tvWelcome.setOnLongClickListener(v -> {
+            startActivity(new Intent(this, DiagnosticsActivity.class));
+            return true;
+        });
 
         setupViews();
         setupNavigation();
-        loadStatistics();
+        viewModel.getLibrarianStatistics().observe(this, this::showLibrarianStatistics);
+        viewModel.getMemberStatistics().observe(this, this::showMemberStatistics);
+        StartupTimer.reportFirstFrame(this);
     }
 
     private void loadStatistics() {
         String token = prefsHelper.getAuthHeader();
         if (token == null) return;
 
-        if (prefsHelper.isLibrarian()) {
-            Call<ApiResponse<Object>> call = apiService.getLibrarianStatistics(token);
-            call.enqueue(new Callback<ApiResponse<Object>>() {
-                @Override
-                public void onResponse(Call<ApiResponse<Object>> call, Response<ApiResponse<Object>> response) {
-                    if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                        // Statistics loaded - could display in cards if needed
-                    }
-                }
-
-                @Override
-                public void onFailure(Call<ApiResponse<Object>> call, Throwable t) {
-                    // Silently fail
-                }
-            });
-        } else if (prefsHelper.isMember()) {
-            Call<ApiResponse<Object>> call = apiService.getMemberStatistics(token);
-            call.enqueue(new Callback<ApiResponse<Object>>() {
-                @Override
-                public void onResponse(Call<ApiResponse<Object>> call, Response<ApiResponse<Object>> response) {
-                    if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                        // Statistics loaded - could display in cards if needed
-                    }
-                }
-
-                @Override
-                public void onFailure(Call<ApiResponse<Object>> call, Throwable t) {
-                    // Silently fail
-                }
-            });
+        viewModel.loadStatistics(token, prefsHelper.isLibrarian(), prefsHelper.isMember());
+    }
+
+    private void showLibrarianStatistics(LibrarianStatistics statistics) {
+        tvManageBooksCount.setText(statistics.getAvailableBooks() + " / " + statistics.getTotalBooks() + " available");
+        String loans = statistics.getActiveLoans() + " active";
+        if (statistics.getOverdueLoans() > 0) {
+            loans += ", " + statistics.getOverdueLoans() + " overdue";
+        }
+        tvManageLoansCount.setText(loans);
+        tvManageReservationsCount.setText(statistics.getPendingReservations() + " pending");
+        tvMembersCount.setText(String.valueOf(statistics.getTotalMembers()));
+    }
+
+    private void showMemberStatistics(MemberStatistics statistics) {
+        tvBooksCount.setText(statistics.getAvailableBooks() + " available");
+        tvLoansCount.setText(statistics.getMyActiveLoans() + " active");
+        tvReservationsCount.setText(statistics.getMyPendingReservations() + " pending");
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Counts are patched locally by mutations, so this rarely reaches the server
+        if (Boolean.TRUE.equals(viewModel.isLoggedIn().getValue())) {
+            loadStatistics();
+            if (prefsHelper.isMember()) {
+                MemberSync.getInstance().requestSync();
+            }
         }
     }
 
@@ -103,6 +118,13 @@ public class HomeActivity extends AppCompatActivity {
         cvManageReservations = findViewById(R.id.cvManageReservations);
         cvManageFines = findViewById(R.id.cvManageFines);
         cvManageMembers = findViewById(R.id.cvManageMembers);
+        tvBooksCount = findViewById(R.id.tvBooksCount);
+        tvLoansCount = findViewById(R.id.tvLoansCount);
+        tvReservationsCount = findViewById(R.id.tvReservationsCount);
+        tvManageBooksCount = findViewById(R.id.tvManageBooksCount);
+        tvManageLoansCount = findViewById(R.id.tvManageLoansCount);
+        tvManageReservationsCount = findViewById(R.id.tvManageReservationsCount);
+        tvMembersCount = findViewById(R.id.tvMembersCount);
 
         // Show/hide based on role
         if (prefsHelper.isLibrarian()) {
@@ -9,23 +9,21 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.eknjiznica.R;
-import com.example.eknjiznica.api.ApiService;
-import com.example.eknjiznica.api.RetrofitClient;
-import com.example.eknjiznica.models.LoginRequest;
 import com.example.eknjiznica.models.LoginResponse;
+import com.example.eknjiznica.utils.CacheWarmer;
+import com.example.eknjiznica.utils.MemberSync;
 import com.example.eknjiznica.utils.SharedPreferencesHelper;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import com.example.eknjiznica.utils.StartupTimer;
+import com.example.eknjiznica.viewmodels.LoginViewModel;
 
 public class LoginActivity extends AppCompatActivity {
     private EditText etEmail, etPassword;
     private Button btnLogin;
     private SharedPreferencesHelper prefsHelper;
-    private ApiService apiService;
+    private LoginViewModel viewModel;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -33,7 +31,6 @@ public class LoginActivity extends AppCompatActivity {
         setContentView(R.layout.activity_login);
 
         prefsHelper = new SharedPreferencesHelper(this);
-        apiService = RetrofitClient.getInstance().getApiService();
 
         // If already logged in, go to home
         if (prefsHelper.isLoggedIn()) {
@@ -46,7 +43,34 @@ public class LoginActivity extends AppCompatActivity {
         etPassword = findViewById(R.id.etPassword);
         btnLogin = findViewById(R.id.btnLogin);
 
+        viewModel = new ViewModelProvider(this).get(LoginViewModel.class);
+        viewModel.isLoggingIn().observe(this, loggingIn -> {
+            btnLogin.setEnabled(!loggingIn);
+            btnLogin.setText(loggingIn ? "Logging in..." : "Login");
+        });
+        viewModel.getLoginResult().observe(this, event -> {
+            LoginResponse loginResponse = event.getContentIfNotHandled();
+            if (loginResponse != null) {
+                prefsHelper.saveLoginResponse(loginResponse);
+                CacheWarmer.getInstance().warmUp(loginResponse);
+                if (loginResponse.isMember()) {
+                    MemberSync.getInstance().schedulePeriodic();
+                }
+
+                Toast.makeText(this, "Login successful!", Toast.LENGTH_SHORT).show();
+                startActivity(new Intent(this, HomeActivity.class));
+                finish();
+            }
+        });
+        viewModel.getMessages().observe(this, event -> {
+            String message = event.getContentIfNotHandled();
+            if (message != null) {
+                Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+            }
+        });
+
         btnLogin.setOnClickListener(v -> login());
+        StartupTimer.reportFirstFrame(this);
     }
 
     private void login() {
@@ -58,36 +82,6 @@ public class LoginActivity extends AppCompatActivity {
             return;
         }
 
-        btnLogin.setEnabled(false);
-        btnLogin.setText("Logging in...");
-
-        LoginRequest request = new LoginRequest(email, password);
-        Call<LoginResponse> call = apiService.login(request);
-
-        call.enqueue(new Callback<LoginResponse>() {
-            @Override
-            public void onResponse(Call<LoginResponse> call, Response<LoginResponse> response) {
-                btnLogin.setEnabled(true);
-                btnLogin.setText("Login");
-
-                if (response.isSuccessful() && response.body() != null) {
-                    LoginResponse loginResponse = response.body();
-                    prefsHelper.saveLoginResponse(loginResponse);
-                    
-                    Toast.makeText(LoginActivity.this, "Login successful!", Toast.LENGTH_SHORT).show();
-                    startActivity(new Intent(LoginActivity.this, HomeActivity.class));
-                    finish();
-                } else {
-                    Toast.makeText(LoginActivity.this, "Invalid email or password", Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<LoginResponse> call, Throwable t) {
-                btnLogin.setEnabled(true);
-                btnLogin.setText("Login");
-                Toast.makeText(LoginActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
+        viewModel.login(email, password);
     }
 }
@@ -7,30 +7,21 @@ import android.view.MenuItem;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eknjiznica.R;
 import com.example.eknjiznica.adapters.FineAdapter;
-import com.example.eknjiznica.api.ApiService;
-import com.example.eknjiznica.api.RetrofitClient;
-import com.example.eknjiznica.models.ApiResponse;
-import com.example.eknjiznica.models.Fine;
+import com.example.eknjiznica.adapters.RowPool;
 import com.example.eknjiznica.utils.SharedPreferencesHelper;
-
-import java.util.ArrayList;
-import java.util.List;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import com.example.eknjiznica.viewmodels.MyFinesViewModel;
 
 public class MyFinesActivity extends AppCompatActivity {
     private RecyclerView recyclerView;
     private FineAdapter adapter;
-    private List<Fine> fineList;
     private SharedPreferencesHelper prefsHelper;
-    private ApiService apiService;
+    private MyFinesViewModel viewModel;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -38,19 +29,7 @@ public class MyFinesActivity extends AppCompatActivity {
         setContentView(R.layout.activity_my_fines);
 
         prefsHelper = new SharedPreferencesHelper(this);
-        apiService = RetrofitClient.getInstance().getApiService();
-
-        recyclerView = findViewById(R.id.recyclerViewFines);
-
-        fineList = new ArrayList<>();
-        adapter = new FineAdapter(fineList, false);
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        recyclerView.setAdapter(adapter);
 
-        loadFines();
-    }
-
-    private void loadFines() {
         String token = prefsHelper.getAuthHeader();
         if (token == null) {
             Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
@@ -58,30 +37,40 @@ public class MyFinesActivity extends AppCompatActivity {
             return;
         }
 
-        Call<ApiResponse<List<Fine>>> call = apiService.getMyFines(token);
-        call.enqueue(new Callback<ApiResponse<List<Fine>>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<List<Fine>>> call, Response<ApiResponse<List<Fine>>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    fineList.clear();
-                    fineList.addAll(response.body().getData());
-                    adapter.notifyDataSetChanged();
-                } else {
-                    Toast.makeText(MyFinesActivity.this, "Failed to load fines", Toast.LENGTH_SHORT).show();
-                }
-            }
+        recyclerView = findViewById(R.id.recyclerViewFines);
 
-            @Override
-            public void onFailure(Call<ApiResponse<List<Fine>>> call, Throwable t) {
-                Toast.makeText(MyFinesActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
+        viewModel = new ViewModelProvider(this).get(MyFinesViewModel.class);
+        adapter = new FineAdapter(viewModel.getItems(), false);
+        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        recyclerView.setAdapter(adapter);
+        RowPool.getInstance().attach(recyclerView, R.layout.item_fine);
+
+        viewModel.getItemsChanged().observe(this, change -> change.dispatchTo(adapter));
+        viewModel.getMessages().observe(this, event -> {
+            String message = event.getContentIfNotHandled();
+            if (message != null) {
+                Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
             }
         });
+
+        viewModel.loadIfNeeded(token);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (recyclerView != null) {
+            RowPool.getInstance().release(recyclerView);
+        }
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        loadFines();
+        // Only reload when something was changed while this screen was in the background
+        if (viewModel != null) {
+            viewModel.refreshIfChanged(prefsHelper.getAuthHeader());
+        }
     }
 
     @Override
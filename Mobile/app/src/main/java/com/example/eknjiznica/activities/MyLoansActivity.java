@@ -1,38 +1,37 @@
 package com.example.eknjiznica.activities;
 
+import android.Manifest;
 import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
 import android.os.Bundle;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.widget.Toast;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eknjiznica.R;
 import com.example.eknjiznica.adapters.LoanAdapter;
-import com.example.eknjiznica.api.ApiService;
-import com.example.eknjiznica.api.RetrofitClient;
-import com.example.eknjiznica.models.ApiResponse;
-import com.example.eknjiznica.models.Loan;
+import com.example.eknjiznica.adapters.RowPool;
+import com.example.eknjiznica.utils.LoanReminders;
 import com.example.eknjiznica.utils.SharedPreferencesHelper;
-
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import com.example.eknjiznica.viewmodels.MyLoansViewModel;
 
 public class MyLoansActivity extends AppCompatActivity {
+    private static final int REQUEST_NOTIFICATIONS = 1;
+
     private RecyclerView recyclerView;
     private LoanAdapter adapter;
-    private List<Loan> loanList;
     private SharedPreferencesHelper prefsHelper;
-    private ApiService apiService;
+    private MyLoansViewModel viewModel;
+    // Asked at most once per visit, not again on rotation
+    private boolean offerNotifications;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -40,19 +39,7 @@ public class MyLoansActivity extends AppCompatActivity {
         setContentView(R.layout.activity_my_loans);
 
         prefsHelper = new SharedPreferencesHelper(this);
-        apiService = RetrofitClient.getInstance().getApiService();
-
-        recyclerView = findViewById(R.id.recyclerViewLoans);
-
-        loanList = new ArrayList<>();
-        adapter = new LoanAdapter(loanList, false);
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        recyclerView.setAdapter(adapter);
 
-        loadLoans();
-    }
-
-    private void loadLoans() {
         String token = prefsHelper.getAuthHeader();
         if (token == null) {
             Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
@@ -60,30 +47,73 @@ public class MyLoansActivity extends AppCompatActivity {
             return;
         }
 
-        Call<ApiResponse<List<Loan>>> call = apiService.getMyLoans(token);
-        call.enqueue(new Callback<ApiResponse<List<Loan>>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<List<Loan>>> call, Response<ApiResponse<List<Loan>>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    loanList.clear();
-                    loanList.addAll(response.body().getData());
-                    adapter.notifyDataSetChanged();
-                } else {
-                    Toast.makeText(MyLoansActivity.this, "Failed to load loans", Toast.LENGTH_SHORT).show();
-                }
-            }
+        recyclerView = findViewById(R.id.recyclerViewLoans);
+
+        viewModel = new ViewModelProvider(this).get(MyLoansViewModel.class);
+        adapter = new LoanAdapter(viewModel.getItems(), false);
+        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        recyclerView.setAdapter(adapter);
+        RowPool.getInstance().attach(recyclerView, R.layout.item_loan);
 
-            @Override
-            public void onFailure(Call<ApiResponse<List<Loan>>> call, Throwable t) {
-                Toast.makeText(MyLoansActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
+        offerNotifications = savedInstanceState == null;
+        viewModel.getItemsChanged().observe(this, change -> {
+            change.dispatchTo(adapter);
+            offerNotificationPermission();
+        });
+        viewModel.getMessages().observe(this, event -> {
+            String message = event.getContentIfNotHandled();
+            if (message != null) {
+                Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
             }
         });
+
+        viewModel.loadIfNeeded(token);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (recyclerView != null) {
+            RowPool.getInstance().release(recyclerView);
+        }
+    }
+
+    /**
+     * Due-date reminders are posted as notifications, which need runtime permission on Android 13+.
+     * Only asked for once there are reminders to show. After one denial the user gets an
+     * explanation first, and is not asked again once they turn that down.
+     */
+    private void offerNotificationPermission() {
+        if (!offerNotifications || Build.VERSION.SDK_INT < Build.VERSION_CODES.TIRAMISU
+                || !LoanReminders.getInstance().hasScheduled()) {
+            return;
+        }
+        offerNotifications = false;
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS)
+                == PackageManager.PERMISSION_GRANTED) {
+            return;
+        }
+        if (!shouldShowRequestPermissionRationale(Manifest.permission.POST_NOTIFICATIONS)) {
+            // Never asked, or denied for good, in which case the system ignores the request
+            requestPermissions(new String[]{Manifest.permission.POST_NOTIFICATIONS}, REQUEST_NOTIFICATIONS);
+        } else if (!LoanReminders.getInstance().isPermissionDeclined()) {
+            new AlertDialog.Builder(this)
+                    .setTitle("Due date reminders")
+                    .setMessage("Allow notifications to be reminded the day before and on the day a loan is due.")
+                    .setPositiveButton("Allow", (dialog, which) -> requestPermissions(
+                            new String[]{Manifest.permission.POST_NOTIFICATIONS}, REQUEST_NOTIFICATIONS))
+                    .setNegativeButton("Not now", (dialog, which) -> LoanReminders.getInstance().setPermissionDeclined())
+                    .show();
+        }
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        loadLoans();
+        // Only reload when something was changed while this screen was in the background
+        if (viewModel != null) {
+            viewModel.refreshIfChanged(prefsHelper.getAuthHeader());
+        }
     }
 
     @Override
@@ -7,30 +7,21 @@ import android.view.MenuItem;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eknjiznica.R;
 import com.example.eknjiznica.adapters.ReservationAdapter;
-import com.example.eknjiznica.api.ApiService;
-import com.example.eknjiznica.api.RetrofitClient;
-import com.example.eknjiznica.models.ApiResponse;
-import com.example.eknjiznica.models.Reservation;
+import com.example.eknjiznica.adapters.RowPool;
 import com.example.eknjiznica.utils.SharedPreferencesHelper;
-
-import java.util.ArrayList;
-import java.util.List;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import com.example.eknjiznica.viewmodels.MyReservationsViewModel;
 
 public class MyReservationsActivity extends AppCompatActivity {
     private RecyclerView recyclerView;
     private ReservationAdapter adapter;
-    private List<Reservation> reservationList;
     private SharedPreferencesHelper prefsHelper;
-    private ApiService apiService;
+    private MyReservationsViewModel viewModel;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -38,19 +29,7 @@ public class MyReservationsActivity extends AppCompatActivity {
         setContentView(R.layout.activity_my_reservations);
 
         prefsHelper = new SharedPreferencesHelper(this);
-        apiService = RetrofitClient.getInstance().getApiService();
-
-        recyclerView = findViewById(R.id.recyclerViewReservations);
-
-        reservationList = new ArrayList<>();
-        adapter = new ReservationAdapter(reservationList, false);
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        recyclerView.setAdapter(adapter);
 
-        loadReservations();
-    }
-
-    private void loadReservations() {
         String token = prefsHelper.getAuthHeader();
         if (token == null) {
             Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
@@ -58,30 +37,40 @@ public class MyReservationsActivity extends AppCompatActivity {
             return;
         }
 
-        Call<ApiResponse<List<Reservation>>> call = apiService.getMyReservations(token);
-        call.enqueue(new Callback<ApiResponse<List<Reservation>>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<List<Reservation>>> call, Response<ApiResponse<List<Reservation>>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    reservationList.clear();
-                    reservationList.addAll(response.body().getData());
-                    adapter.notifyDataSetChanged();
-                } else {
-                    Toast.makeText(MyReservationsActivity.this, "Failed to load reservations", Toast.LENGTH_SHORT).show();
-                }
-            }
+        recyclerView = findViewById(R.id.recyclerViewReservations);
 
-            @Override
-            public void onFailure(Call<ApiResponse<List<Reservation>>> call, Throwable t) {
-                Toast.makeText(MyReservationsActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
+        viewModel = new ViewModelProvider(this).get(MyReservationsViewModel.class);
+        adapter = new ReservationAdapter(viewModel.getItems(), false);
+        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        recyclerView.setAdapter(adapter);
+        RowPool.getInstance().attach(recyclerView, R.layout.item_reservation);
+
+        viewModel.getItemsChanged().observe(this, change -> change.dispatchTo(adapter));
+        viewModel.getMessages().observe(this, event -> {
+            String message = event.getContentIfNotHandled();
+            if (message != null) {
+                Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
             }
         });
+
+        viewModel.loadIfNeeded(token);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (recyclerView != null) {
+            RowPool.getInstance().release(recyclerView);
+        }
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        loadReservations();
+        // Only reload when something was changed while this screen was in the background
+        if (viewModel != null) {
+            viewModel.refreshIfChanged(prefsHelper.getAuthHeader());
+        }
     }
 
     @Override
@@ -0,0 +1,84 @@
+package com.example.eknjiznica.activities;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Build;
+
+import com.example.eknjiznica.models.Book;
+
+/**
+ * Starts the book screens. Intents carry only the book id, plus an optional Parcelable
+ * snapshot to draw the first frame from; the screens read the current book through
+ * DataCache. Book details can also be opened with a deep link, eknjiznica://book/{id},
+ * which BookLinkActivity turns into an id-only intent; the book screens themselves are not
+ * exported, so every snapshot comes from inside the app.
+ */
+public final class Navigator {
+    public static final int NO_ID = -1;
+
+    private static final String EXTRA_BOOK_ID = "bookId";
+    private static final String EXTRA_BOOK_SNAPSHOT = "bookSnapshot";
+    private static final String DEEP_LINK_SCHEME = "eknjiznica";
+    private static final String DEEP_LINK_BOOK = "book";
+
+    private Navigator() {
+    }
+
+    public static void openBook(Context context, Book book) {
+        context.startActivity(bookIntent(context, BookDetailsActivity.class, book.getId(), book));
+    }
+
+    public static void openBook(Context context, int bookId) {
+        context.startActivity(bookIntent(context, BookDetailsActivity.class, bookId, null));
+    }
+
+    public static void editBook(Context context, Book book) {
+        context.startActivity(bookIntent(context, AddEditBookActivity.class, book.getId(), book));
+    }
+
+    public static Uri bookUri(int bookId) {
+        return new Uri.Builder().scheme(DEEP_LINK_SCHEME).authority(DEEP_LINK_BOOK)
+                .appendPath(String.valueOf(bookId)).build();
+    }
+
+    public static int getBookId(Intent intent) {
+        return intent.getIntExtra(EXTRA_BOOK_ID, NO_ID);
+    }
+
+    /**
+     * The book id of an eknjiznica://book/{id} link, or NO_ID.
+     */
+    public static int getBookId(Uri uri) {
+        if (uri == null || !DEEP_LINK_SCHEME.equals(uri.getScheme()) || !DEEP_LINK_BOOK.equals(uri.getHost())
+                || uri.getPathSegments().size() != 1) {
+            return NO_ID;
+        }
+        try {
+            int id = Integer.parseInt(uri.getPathSegments().get(0));
+            return id > 0 ? id : NO_ID;
+        } catch (NumberFormatException e) {
+            return NO_ID;
+        }
+    }
+
+    /**
+     * The snapshot passed by another screen of the app, or null.
+     */
+    @SuppressWarnings("deprecation")
+    public static Book getBookSnapshot(Intent intent) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            return intent.getParcelableExtra(EXTRA_BOOK_SNAPSHOT, Book.class);
+        }
+        return intent.getParcelableExtra(EXTRA_BOOK_SNAPSHOT);
+    }
+
+    private static Intent bookIntent(Context context, Class<?> activity, int bookId, Book snapshot) {
+        Intent intent = new Intent(context, activity);
+        intent.putExtra(EXTRA_BOOK_ID, bookId);
+        if (snapshot != null) {
+            intent.putExtra(EXTRA_BOOK_SNAPSHOT, snapshot);
+        }
+        return intent;
+    }
+}
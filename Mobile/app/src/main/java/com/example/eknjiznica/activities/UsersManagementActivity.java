@@ -8,32 +8,23 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eknjiznica.R;
 import com.example.eknjiznica.adapters.UserAdapter;
-import com.example.eknjiznica.api.ApiService;
-import com.example.eknjiznica.api.RetrofitClient;
-import com.example.eknjiznica.models.ApiResponse;
-import com.example.eknjiznica.models.CreateUserRequest;
 import com.example.eknjiznica.utils.SharedPreferencesHelper;
+import com.example.eknjiznica.viewmodels.UsersViewModel;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class UsersManagementActivity extends AppCompatActivity {
     private RecyclerView recyclerView;
     private UserAdapter adapter;
-    private List<Map<String, Object>> userList;
     private SharedPreferencesHelper prefsHelper;
-    private ApiService apiService;
+    private UsersViewModel viewModel;
     private FloatingActionButton fabAddUser;
 
     @Override
@@ -42,7 +33,6 @@ public class UsersManagementActivity extends AppCompatActivity {
         setContentView(R.layout.activity_users_management);
 
         prefsHelper = new SharedPreferencesHelper(this);
-        apiService = RetrofitClient.getInstance().getApiService();
 
         if (!prefsHelper.isLibrarian()) {
             Toast.makeText(this, "Access denied", Toast.LENGTH_SHORT).show();
@@ -50,11 +40,18 @@ public class UsersManagementActivity extends AppCompatActivity {
             return;
         }
 
+        String token = prefsHelper.getAuthHeader();
+        if (token == null) {
+            Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+
         recyclerView = findViewById(R.id.recyclerViewUsers);
         fabAddUser = findViewById(R.id.fabAddUser);
 
-        userList = new ArrayList<>();
-        adapter = new UserAdapter(userList, new UserAdapter.OnUserClickListener() {
+        viewModel = new ViewModelProvider(this).get(UsersViewModel.class);
+        adapter = new UserAdapter(viewModel.getUsers(), new UserAdapter.OnUserClickListener() {
             @Override
             public void onDeleteClick(Map<String, Object> user) {
 
@@ -65,42 +62,17 @@ public class UsersManagementActivity extends AppCompatActivity {
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
 
-        fabAddUser.setOnClickListener(v -> showAddUserDialog());
-
-        loadUsers();
-    }
-
-    private void loadUsers() {
-        String token = prefsHelper.getAuthHeader();
-        if (token == null) {
-            Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
-            finish();
-            return;
-        }
-
-        Call<ApiResponse<List<Object>>> call = apiService.getAllUsers(token);
-        call.enqueue(new Callback<ApiResponse<List<Object>>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<List<Object>>> call, Response<ApiResponse<List<Object>>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    userList.clear();
-                    // Convert objects to maps
-                    for (Object obj : response.body().getData()) {
-                        if (obj instanceof Map) {
-                            userList.add((Map<String, Object>) obj);
-                        }
-                    }
-                    adapter.notifyDataSetChanged();
-                } else {
-                    Toast.makeText(UsersManagementActivity.this, "Failed to load users", Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<List<Object>>> call, Throwable t) {
-                Toast.makeText(UsersManagementActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
+        viewModel.getUsersChanged().observe(this, position -> adapter.notifyDataSetChanged());
+        viewModel.getMessages().observe(this, event -> {
+            String message = event.getContentIfNotHandled();
+            if (message != null) {
+                Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
             }
         });
+
+        fabAddUser.setOnClickListener(v -> showAddUserDialog());
+
+        viewModel.loadIfNeeded(token);
     }
 
     private void showAddUserDialog() {
@@ -144,25 +116,7 @@ public class UsersManagementActivity extends AppCompatActivity {
             return;
         }
 
-        CreateUserRequest request = new CreateUserRequest(email, password, role);
-        Call<ApiResponse<Object>> call = apiService.createUser(token, request);
-        call.enqueue(new Callback<ApiResponse<Object>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<Object>> call, Response<ApiResponse<Object>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    Toast.makeText(UsersManagementActivity.this, "User created successfully!", Toast.LENGTH_SHORT).show();
-                    loadUsers();
-                } else {
-                    String message = response.body() != null ? response.body().getMessage() : "Failed to create user";
-                    Toast.makeText(UsersManagementActivity.this, message, Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiResponse<Object>> call, Throwable t) {
-                Toast.makeText(UsersManagementActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
+        viewModel.createUser(token, email, password, role);
     }
 
     private void deleteUser(String userId) {
@@ -176,24 +130,7 @@ public class UsersManagementActivity extends AppCompatActivity {
                         return;
                     }
 
-                    Call<ApiResponse<Object>> call = apiService.deleteUser(token, userId);
-                    call.enqueue(new Callback<ApiResponse<Object>>() {
-                        @Override
-                        public void onResponse(Call<ApiResponse<Object>> call, Response<ApiResponse<Object>> response) {
-                            if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                                Toast.makeText(UsersManagementActivity.this, "User deleted successfully", Toast.LENGTH_SHORT).show();
-                                loadUsers();
-                            } else {
-                                String message = response.body() != null ? response.body().getMessage() : "Failed to delete user";
-                                Toast.makeText(UsersManagementActivity.this, message, Toast.LENGTH_SHORT).show();
-                            }
-                        }
-
-                        @Override
-                        public void onFailure(Call<ApiResponse<Object>> call, Throwable t) {
-                            Toast.makeText(UsersManagementActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-                        }
-                    });
+                    viewModel.deleteUser(token, userId);
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -202,7 +139,10 @@ public class UsersManagementActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        loadUsers();
+        // Only reload when something was changed while this screen was in the background
+        if (viewModel != null) {
+            viewModel.refreshIfChanged(prefsHelper.getAuthHeader());
+        }
     }
 
     @Override
@@ -1,6 +1,5 @@
 package com.example.eknjiznica.adapters;
 
-import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
@@ -11,13 +10,22 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eknjiznica.R;
 import com.example.eknjiznica.models.Book;
+import com.example.eknjiznica.models.RatingSummary;
+import com.example.eknjiznica.utils.RatingLoader;
+import com.example.eknjiznica.utils.TextPrecomputer;
+import com.example.eknjiznica.utils.Tracing;
+import com.example.eknjiznica.views.BookRowView;
 
 import java.util.List;
 
-public class BookAdapter extends RecyclerView.Adapter<BookAdapter.BookViewHolder> {
+public class BookAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+    // Rows on each side of a bound row whose text is measured ahead of time
+    private static final int PRECOMPUTE_AHEAD = 4;
+
     private List<Book> books;
     private boolean isLibrarian;
     private OnBookClickListener listener;
+    private boolean drawnRows;
 
     public interface OnBookClickListener {
         void onBookClick(Book book);
@@ -30,28 +38,109 @@ public class BookAdapter extends RecyclerView.Adapter<BookAdapter.BookViewHolder
         this.listener = listener;
     }
 
+    /**
+     * Replaces the rows, e.g. with a CatalogStore view; the caller notifies the change.
+     */
+    public void setBooks(List<Book> books) {
+        this.books = books;
+    }
+
+    /**
+     * Switches between item_book.xml rows and the single-view BookRowView, e.g. to compare
+     * frame times.
+     */
+    public void setDrawnRows(boolean drawnRows) {
+        if (this.drawnRows != drawnRows) {
+            this.drawnRows = drawnRows;
+            notifyDataSetChanged();
+        }
+    }
+
+    public int getRowViewType() {
+        // Unique across the lists sharing RowPool's pool
+        return drawnRows ? R.id.view_type_book_row : R.layout.item_book;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return getRowViewType();
+    }
+
     @NonNull
     @Override
-    public BookViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_book, parent, false);
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if (viewType == R.id.view_type_book_row) {
+            BookRowView row = new BookRowView(RowPool.getInstance().getRowContext(parent));
+            RecyclerView.LayoutParams params = new RecyclerView.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+            int margin = Math.round(8 * parent.getResources().getDisplayMetrics().density);
+            params.setMargins(margin, margin, margin, margin);
+            row.setLayoutParams(params);
+            return new BookRowViewHolder(row);
+        }
+        View view = RowPool.getInstance().inflate(parent, viewType);
         return new BookViewHolder(view);
     }
 
     @Override
-    public void onBindViewHolder(@NonNull BookViewHolder holder, int position) {
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        Tracing.begin("BookAdapter.bind");
+        try {
+            if (holder instanceof BookRowViewHolder) {
+                bindRow((BookRowViewHolder) holder, position);
+            } else {
+                bindViews((BookViewHolder) holder, position);
+            }
+        } finally {
+            Tracing.end();
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        if (holder instanceof BookRowViewHolder) {
+            ((BookRowViewHolder) holder).row.setOnReserveClickListener(null);
+        }
+    }
+
+    private void bindRow(BookRowViewHolder holder, int position) {
+        Book book = books.get(position);
+        int bookId = book.getId();
+        holder.boundBookId = bookId;
+        boolean showReserve = canReserve(book);
+        holder.row.bind(book, showReserve);
+        holder.row.setOnReserveClickListener(showReserve ? () -> listener.onReserveClick(book) : null);
+        holder.row.setOnClickListener(v -> listener.onBookClick(book));
+        RatingLoader.getInstance().load(bookId, rating -> {
+            if (holder.boundBookId == bookId) {
+                holder.row.setRating(ratingText(rating));
+            }
+        });
+    }
+
+    private void bindViews(BookViewHolder holder, int position) {
         Book book = books.get(position);
-        holder.tvTitle.setText(book.getTitle());
-        holder.tvAuthor.setText("Author: " + book.getAuthor());
+        holder.boundBookId = book.getId();
+        TextPrecomputer precomputer = TextPrecomputer.getInstance();
+        precomputer.bind(holder.tvTitle, titleKey(book), titleText(book));
+        precomputer.bind(holder.tvAuthor, authorKey(book), authorText(book));
+        precomputeAround(holder, position);
         holder.tvYear.setText("Year: " + book.getYear());
         holder.tvGenre.setText("Genre: " + book.getGenre());
+        holder.tvRating.setText("");
+        int bookId = book.getId();
+        RatingLoader.getInstance().load(bookId, rating -> {
+            // The holder may have been recycled for another book while the rating loaded
+            if (holder.boundBookId == bookId) {
+                holder.tvRating.setText(ratingText(rating));
+            }
+        });
         holder.tvAvailable.setText(book.isAvailable() ? "Available" : "Not Available");
         holder.tvAvailable.setTextColor(book.isAvailable() ? 
             holder.itemView.getContext().getColor(android.R.color.holo_green_dark) : 
             holder.itemView.getContext().getColor(android.R.color.holo_red_dark));
 
-        // Show reserve button only for members and if book is available
-        if (!isLibrarian && book.isAvailable()) {
+        if (canReserve(book)) {
             holder.btnReserve.setVisibility(View.VISIBLE);
             holder.btnReserve.setOnClickListener(v -> listener.onReserveClick(book));
         } else {
@@ -61,14 +150,55 @@ public class BookAdapter extends RecyclerView.Adapter<BookAdapter.BookViewHolder
         holder.itemView.setOnClickListener(v -> listener.onBookClick(book));
     }
 
+    // Show reserve button only for members and if book is available
+    private boolean canReserve(Book book) {
+        return !isLibrarian && book.isAvailable();
+    }
+
+    private static String ratingText(RatingSummary rating) {
+        return rating.getReviewCount() > 0
+                ? String.format("★ %.1f (%d)", rating.getAverageRating(), rating.getReviewCount())
+                : "No reviews yet";
+    }
+
+    private void precomputeAround(BookViewHolder holder, int position) {
+        TextPrecomputer precomputer = TextPrecomputer.getInstance();
+        int from = Math.max(0, position - PRECOMPUTE_AHEAD);
+        int to = Math.min(books.size() - 1, position + PRECOMPUTE_AHEAD);
+        for (int i = from; i <= to; i++) {
+            if (i != position) {
+                Book book = books.get(i);
+                precomputer.prefetch(holder.tvTitle, titleKey(book), titleText(book));
+                precomputer.prefetch(holder.tvAuthor, authorKey(book), authorText(book));
+            }
+        }
+    }
+
+    private static String titleKey(Book book) {
+        return "book/" + book.getId() + "/title";
+    }
+
+    private static String authorKey(Book book) {
+        return "book/" + book.getId() + "/author";
+    }
+
+    private static CharSequence titleText(Book book) {
+        return book.getTitle() != null ? book.getTitle() : "";
+    }
+
+    private static CharSequence authorText(Book book) {
+        return "Author: " + book.getAuthor();
+    }
+
     @Override
     public int getItemCount() {
         return books.size();
     }
 
     static class BookViewHolder extends RecyclerView.ViewHolder {
-        TextView tvTitle, tvAuthor, tvYear, tvGenre, tvAvailable;
+        TextView tvTitle, tvAuthor, tvYear, tvGenre, tvRating, tvAvailable;
         Button btnReserve;
+        int boundBookId;
 
         public BookViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -76,8 +206,19 @@ public class BookAdapter extends RecyclerView.Adapter<BookAdapter.BookViewHolder
             tvAuthor = itemView.findViewById(R.id.tvAuthor);
             tvYear = itemView.findViewById(R.id.tvYear);
             tvGenre = itemView.findViewById(R.id.tvGenre);
+            tvRating = itemView.findViewById(R.id.tvRating);
             tvAvailable = itemView.findViewById(R.id.tvAvailable);
             btnReserve = itemView.findViewById(R.id.btnReserve);
         }
     }
+
+    static class BookRowViewHolder extends RecyclerView.ViewHolder {
+        BookRowView row;
+        int boundBookId;
+
+        public BookRowViewHolder(@NonNull BookRowView row) {
+            super(row);
+            this.row = row;
+        }
+    }
 }
@@ -1,6 +1,5 @@
 package com.example.eknjiznica.adapters;
 
-import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
@@ -11,6 +10,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eknjiznica.R;
 import com.example.eknjiznica.models.Fine;
+import com.example.eknjiznica.utils.Tracing;
 
 import java.text.SimpleDateFormat;
 import java.util.List;
@@ -34,16 +34,30 @@ public class FineAdapter extends RecyclerView.Adapter<FineAdapter.FineViewHolder
         this.isLibrarian = isLibrarian;
     }
 
+    @Override
+    public int getItemViewType(int position) {
+        // Unique across the lists sharing RowPool's pool
+        return R.layout.item_fine;
+    }
+
     @NonNull
     @Override
     public FineViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_fine, parent, false);
+        View view = RowPool.getInstance().inflate(parent, viewType);
         return new FineViewHolder(view);
     }
 
     @Override
     public void onBindViewHolder(@NonNull FineViewHolder holder, int position) {
+        Tracing.begin("FineAdapter.bind");
+        try {
+            bind(holder, position);
+        } finally {
+            Tracing.end();
+        }
+    }
+
+    private void bind(FineViewHolder holder, int position) {
         Fine fine = fines.get(position);
         
         holder.tvAmount.setText(String.format(Locale.getDefault(), "Amount: %.2f EUR", fine.getAmount()));
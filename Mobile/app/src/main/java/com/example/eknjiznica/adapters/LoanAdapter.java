@@ -1,6 +1,5 @@
 package com.example.eknjiznica.adapters;
 
-import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
@@ -11,6 +10,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eknjiznica.R;
 import com.example.eknjiznica.models.Loan;
+import com.example.eknjiznica.utils.Tracing;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -36,16 +36,30 @@ public class LoanAdapter extends RecyclerView.Adapter<LoanAdapter.LoanViewHolder
         this.isLibrarian = isLibrarian;
     }
 
+    @Override
+    public int getItemViewType(int position) {
+        // Unique across the lists sharing RowPool's pool
+        return R.layout.item_loan;
+    }
+
     @NonNull
     @Override
     public LoanViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_loan, parent, false);
+        View view = RowPool.getInstance().inflate(parent, viewType);
         return new LoanViewHolder(view);
     }
 
     @Override
     public void onBindViewHolder(@NonNull LoanViewHolder holder, int position) {
+        Tracing.begin("LoanAdapter.bind");
+        try {
+            bind(holder, position);
+        } finally {
+            Tracing.end();
+        }
+    }
+
+    private void bind(LoanViewHolder holder, int position) {
         Loan loan = loans.get(position);
         
         if (loan.getBook() != null) {
@@ -95,10 +109,11 @@ public class LoanAdapter extends RecyclerView.Adapter<LoanAdapter.LoanViewHolder
             holder.tvReturnDate.setVisibility(View.GONE);
         }
         
-        holder.tvStatus.setText("Status: " + loan.getStatus());
-        if ("Overdue".equals(loan.getStatus())) {
+        String status = loan.getEffectiveStatus();
+        holder.tvStatus.setText("Status: " + status);
+        if ("Overdue".equals(status)) {
             holder.tvStatus.setTextColor(holder.itemView.getContext().getColor(android.R.color.holo_red_dark));
-        } else if ("Active".equals(loan.getStatus())) {
+        } else if ("Active".equals(status)) {
             holder.tvStatus.setTextColor(holder.itemView.getContext().getColor(android.R.color.holo_green_dark));
         } else {
             holder.tvStatus.setTextColor(holder.itemView.getContext().getColor(android.R.color.darker_gray));
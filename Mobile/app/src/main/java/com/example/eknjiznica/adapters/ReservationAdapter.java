@@ -1,6 +1,5 @@
 package com.example.eknjiznica.adapters;
 
-import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
@@ -11,6 +10,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eknjiznica.R;
 import com.example.eknjiznica.models.Reservation;
+import com.example.eknjiznica.utils.Tracing;
 
 import java.text.SimpleDateFormat;
 import java.util.List;
@@ -35,16 +35,30 @@ public class ReservationAdapter extends RecyclerView.Adapter<ReservationAdapter.
         this.approveListener = listener;
     }
 
+    @Override
+    public int getItemViewType(int position) {
+        // Unique across the lists sharing RowPool's pool
+        return R.layout.item_reservation;
+    }
+
     @NonNull
     @Override
     public ReservationViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_reservation, parent, false);
+        View view = RowPool.getInstance().inflate(parent, viewType);
         return new ReservationViewHolder(view);
     }
 
     @Override
     public void onBindViewHolder(@NonNull ReservationViewHolder holder, int position) {
+        Tracing.begin("ReservationAdapter.bind");
+        try {
+            bind(holder, position);
+        } finally {
+            Tracing.end();
+        }
+    }
+
+    private void bind(ReservationViewHolder holder, int position) {
         Reservation reservation = reservations.get(position);
         
         if (reservation.getBook() != null) {
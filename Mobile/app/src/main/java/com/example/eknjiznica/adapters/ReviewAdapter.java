@@ -11,6 +11,8 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eknjiznica.R;
 import com.example.eknjiznica.models.Review;
+import com.example.eknjiznica.utils.TextPrecomputer;
+import com.example.eknjiznica.utils.Tracing;
 
 import java.text.SimpleDateFormat;
 import java.util.List;
@@ -21,11 +23,16 @@ public class ReviewAdapter extends RecyclerView.Adapter<ReviewAdapter.ReviewView
     private List<Review> reviews;
     private String currentUserId;
     private OnDeleteClickListener deleteListener;
+    private OnExpandClickListener expandListener;
 
     public interface OnDeleteClickListener {
         void onDeleteClick(Review review);
     }
 
+    public interface OnExpandClickListener {
+        void onExpandClick(int position);
+    }
+
     public ReviewAdapter(List<Review> reviews, String currentUserId) {
         this.reviews = reviews;
         this.currentUserId = currentUserId;
@@ -35,6 +42,10 @@ public class ReviewAdapter extends RecyclerView.Adapter<ReviewAdapter.ReviewView
         this.deleteListener = listener;
     }
 
+    public void setOnExpandClickListener(OnExpandClickListener listener) {
+        this.expandListener = listener;
+    }
+
     @NonNull
     @Override
     public ReviewViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -45,6 +56,15 @@ public class ReviewAdapter extends RecyclerView.Adapter<ReviewAdapter.ReviewView
 
     @Override
     public void onBindViewHolder(@NonNull ReviewViewHolder holder, int position) {
+        Tracing.begin("ReviewAdapter.bind");
+        try {
+            bind(holder, position);
+        } finally {
+            Tracing.end();
+        }
+    }
+
+    private void bind(ReviewViewHolder holder, int position) {
         Review review = reviews.get(position);
         
         // Try to get user email from review object (if API includes it)
@@ -82,11 +102,23 @@ public class ReviewAdapter extends RecyclerView.Adapter<ReviewAdapter.ReviewView
         holder.tvStars.setText(stars.toString());
         
         if (review.getComment() != null && !review.getComment().isEmpty()) {
-            holder.tvComment.setText(review.getComment());
+            // Every row of this non-recycling list is bound once, so there is nothing to prefetch
+            TextPrecomputer.getInstance().bind(holder.tvComment, commentKey(review), commentText(review));
             holder.tvComment.setVisibility(View.VISIBLE);
         } else {
             holder.tvComment.setVisibility(View.GONE);
         }
+        if (review.isCommentTruncated()) {
+            holder.tvReadMore.setVisibility(View.VISIBLE);
+            holder.tvReadMore.setOnClickListener(v -> {
+                int adapterPosition = holder.getBindingAdapterPosition();
+                if (expandListener != null && adapterPosition != RecyclerView.NO_POSITION) {
+                    expandListener.onExpandClick(adapterPosition);
+                }
+            });
+        } else {
+            holder.tvReadMore.setVisibility(View.GONE);
+        }
         
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
         if (review.getReviewDate() != null) {
@@ -106,13 +138,22 @@ public class ReviewAdapter extends RecyclerView.Adapter<ReviewAdapter.ReviewView
         }
     }
 
+    private static String commentKey(Review review) {
+        return "review/" + review.getId() + "/comment";
+    }
+
+    // Long comments arrive as a preview; the full text is loaded on request
+    private static CharSequence commentText(Review review) {
+        return review.isCommentTruncated() ? review.getComment() + "…" : review.getComment();
+    }
+
     @Override
     public int getItemCount() {
         return reviews.size();
     }
 
     static class ReviewViewHolder extends RecyclerView.ViewHolder {
-        TextView tvUserEmail, tvRating, tvStars, tvComment, tvDate;
+        TextView tvUserEmail, tvRating, tvStars, tvComment, tvReadMore, tvDate;
         Button btnDelete;
 
         public ReviewViewHolder(@NonNull View itemView) {
@@ -121,6 +162,7 @@ public class ReviewAdapter extends RecyclerView.Adapter<ReviewAdapter.ReviewView
             tvRating = itemView.findViewById(R.id.tvRating);
             tvStars = itemView.findViewById(R.id.tvStars);
             tvComment = itemView.findViewById(R.id.tvComment);
+            tvReadMore = itemView.findViewById(R.id.tvReadMore);
             tvDate = itemView.findViewById(R.id.tvDate);
             btnDelete = itemView.findViewById(R.id.btnDelete);
         }
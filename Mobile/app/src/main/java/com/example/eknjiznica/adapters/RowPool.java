@@ -0,0 +1,259 @@
+package com.example.eknjiznica.adapters;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.pm.ActivityInfo;
+import android.content.res.Configuration;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.eknjiznica.R;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * App-wide RecycledViewPool for the list rows, so screens showing the same row layout (e.g.
+ * My Loans and All Loans) reuse each other's rows, plus pre-inflation of rows while a list
+ * is still waiting for its data. Rows are inflated against a configuration context of the
+ * application with the app theme rather than an activity, so a pooled row never keeps a closed
+ * screen alive. When the configuration changes (night mode, locale, font scale, density) the
+ * context is rebuilt and rows inflated under the old one are dropped. Adapters using it
+ * return their row layout id as the view type. Must be used from the main thread.
+ */
+public class RowPool {
+    private static final String TAG = "RowPool";
+    public static final int DEFAULT_PREWARM_COUNT = 8;
+    // Configuration changes that change how an inflated row looks
+    private static final int ROW_CONFIG_CHANGES = ActivityInfo.CONFIG_UI_MODE | ActivityInfo.CONFIG_LOCALE
+            | ActivityInfo.CONFIG_FONT_SCALE | ActivityInfo.CONFIG_DENSITY | ActivityInfo.CONFIG_LAYOUT_DIRECTION;
+
+    private static RowPool instance;
+
+    private final RecyclerView.RecycledViewPool pool = new SharedPool();
+    // Rows inflated per layout, to tell how many the first frame of a list had to create
+    private final Map<Integer, Integer> inflateCounts = new HashMap<>();
+    private final Map<String, Long> firstFrameTimes = new HashMap<>();
+    private Context rowContext;
+    private Configuration rowConfiguration;
+    private boolean configurationCallbacksRegistered;
+
+    /**
+     * A pool that survives its lists: RecyclerView clears the pool whenever it is left
+     * without any adapter, which would happen every time one screen closes. Rows built for
+     * an older configuration are not taken back.
+     */
+    private class SharedPool extends RecyclerView.RecycledViewPool {
+        private boolean clearAllowed;
+
+        @Override
+        public void clear() {
+            if (clearAllowed) {
+                super.clear();
+            }
+        }
+
+        @Override
+        public void putRecycledView(RecyclerView.ViewHolder scrap) {
+            if (scrap.itemView.getContext() == rowContext) {
+                super.putRecycledView(scrap);
+            }
+        }
+
+        void trim() {
+            clearAllowed = true;
+            super.clear();
+            clearAllowed = false;
+        }
+    }
+
+    private RowPool() {
+    }
+
+    public static synchronized RowPool getInstance() {
+        if (instance == null) {
+            instance = new RowPool();
+        }
+        return instance;
+    }
+
+    /**
+     * Context for rows, themed like the app and with the parent's configuration but not tied
+     * to any screen.
+     */
+    public Context getRowContext(@NonNull ViewGroup parent) {
+        Configuration configuration = parent.getResources().getConfiguration();
+        if (rowContext != null && (rowConfiguration.diff(configuration) & ROW_CONFIG_CHANGES) != 0) {
+            resetRowContext();
+        }
+        if (rowContext == null) {
+            Context application = parent.getContext().getApplicationContext();
+            registerConfigurationCallbacks(application);
+            // A configuration context may create views without an incorrect-context violation
+            Context configurationContext = application.createConfigurationContext(configuration);
+            rowContext = new ContextThemeWrapper(configurationContext, R.style.Theme_EKnjiznica);
+            rowConfiguration = new Configuration(configuration);
+        }
+        return rowContext;
+    }
+
+    /**
+     * Inflates a row for onCreateViewHolder.
+     */
+    public View inflate(@NonNull ViewGroup parent, int layoutRes) {
+        Context rowContext = getRowContext(parent);
+        Integer count = inflateCounts.get(layoutRes);
+        inflateCounts.put(layoutRes, count == null ? 1 : count + 1);
+        // The clone keeps the activity's AppCompat view factory, so rows get the same widgets
+        return LayoutInflater.from(parent.getContext()).cloneInContext(rowContext)
+                .inflate(layoutRes, parent, false);
+    }
+
+    public void attach(RecyclerView recyclerView, int layoutRes) {
+        attach(recyclerView, layoutRes, DEFAULT_PREWARM_COUNT);
+    }
+
+    /**
+     * Connects a list to the shared pool and, while the main thread is idle (typically
+     * waiting for the list's data), inflates rows until the pool holds prewarmCount of them.
+     * Call after setAdapter() and before the data is shown.
+     */
+    public void attach(RecyclerView recyclerView, int layoutRes, int prewarmCount) {
+        pool.setMaxRecycledViews(layoutRes, Math.max(prewarmCount, DEFAULT_PREWARM_COUNT));
+        recyclerView.setRecycledViewPool(pool);
+        recyclerView.addRecyclerListener(holder -> clearClickListeners(holder.itemView));
+        watchFirstFrame(recyclerView, layoutRes);
+
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (adapter == null) {
+            return;
+        }
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                // Stop once the list was released or the pool is full
+                if (recyclerView.getAdapter() != adapter || pool.getRecycledViewCount(layoutRes) >= prewarmCount) {
+                    return false;
+                }
+                // One row per idle pass keeps each pass short enough not to delay input
+                pool.putRecycledView(adapter.createViewHolder(recyclerView, layoutRes));
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Hands a closing list's rows back to the pool for the next screen that shows them.
+     */
+    public void release(RecyclerView recyclerView) {
+        recyclerView.setAdapter(null);
+    }
+
+    /**
+     * Time from a list's data arriving to its first drawn rows, by layout name.
+     */
+    public Map<String, Long> getFirstFrameTimes() {
+        return new HashMap<>(firstFrameTimes);
+    }
+
+    /**
+     * Drops all pooled rows, e.g. when the app's UI is hidden.
+     */
+    public void trim() {
+        ((SharedPool) pool).trim();
+    }
+
+    private void resetRowContext() {
+        rowContext = null;
+        rowConfiguration = null;
+        trim();
+    }
+
+    private void registerConfigurationCallbacks(Context application) {
+        if (configurationCallbacksRegistered) {
+            return;
+        }
+        configurationCallbacksRegistered = true;
+        application.registerComponentCallbacks(new ComponentCallbacks() {
+            @Override
+            public void onConfigurationChanged(@NonNull Configuration newConfig) {
+                if (rowContext != null && (rowConfiguration.diff(newConfig) & ROW_CONFIG_CHANGES) != 0) {
+                    resetRowContext();
+                }
+            }
+
+            @Override
+            public void onLowMemory() {
+            }
+        });
+    }
+
+    private void watchFirstFrame(RecyclerView recyclerView, int layoutRes) {
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (adapter == null || adapter.getItemCount() > 0) {
+            return;
+        }
+        String name = recyclerView.getResources().getResourceEntryName(layoutRes);
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                if (adapter.getItemCount() > 0) {
+                    adapter.unregisterAdapterDataObserver(this);
+                    measure(recyclerView, layoutRes, name);
+                }
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                onChanged();
+            }
+        });
+    }
+
+    private void measure(RecyclerView recyclerView, int layoutRes, String name) {
+        long start = SystemClock.uptimeMillis();
+        int pooled = pool.getRecycledViewCount(layoutRes);
+        Integer inflatedBefore = inflateCounts.get(layoutRes);
+        recyclerView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                if (recyclerView.getChildCount() == 0) {
+                    return true;
+                }
+                recyclerView.getViewTreeObserver().removeOnPreDrawListener(this);
+                long elapsed = SystemClock.uptimeMillis() - start;
+                Integer inflatedAfter = inflateCounts.get(layoutRes);
+                int inflated = (inflatedAfter != null ? inflatedAfter : 0) - (inflatedBefore != null ? inflatedBefore : 0);
+                firstFrameTimes.put(name, elapsed);
+                Log.i(TAG, name + ": first rows in " + elapsed + " ms, " + recyclerView.getChildCount()
+                        + " shown, " + inflated + " inflated, " + pooled + " were pooled");
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Pooled rows must not keep click listeners pointing into the screen that bound them.
+     */
+    private static void clearClickListeners(View view) {
+        if (view.hasOnClickListeners()) {
+            view.setOnClickListener(null);
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                clearClickListeners(group.getChildAt(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.eknjiznica.api;
+
+import androidx.annotation.NonNull;
+
+import com.example.eknjiznica.utils.Tracing;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import retrofit2.Invocation;
+
+/**
+ * Per-endpoint counters for the API calls: requests, failures, cancellations, bytes received
+ * and the latency of recent calls (time to response headers, after any scheduling wait).
+ * Endpoints are named after their ApiService method, and each call is an async "http
+ * <endpoint>" trace section. Safe to use from any thread.
+ */
+public class ApiMetrics {
+    // Latencies kept per endpoint for the percentiles
+    private static final int LATENCY_BUFFER_SIZE = 256;
+
+    public static class EndpointStats {
+        public final String endpoint;
+        public final int calls;
+        public final int failures;
+        public final int cancelled;
+        public final long bytes;
+        public final long p50Ms, p90Ms, p99Ms;
+
+        EndpointStats(String endpoint, int calls, int failures, int cancelled, long bytes, long[] sortedLatencies) {
+            this.endpoint = endpoint;
+            this.calls = calls;
+            this.failures = failures;
+            this.cancelled = cancelled;
+            this.bytes = bytes;
+            p50Ms = percentile(sortedLatencies, 50);
+            p90Ms = percentile(sortedLatencies, 90);
+            p99Ms = percentile(sortedLatencies, 99);
+        }
+
+        private static long percentile(long[] sorted, int percent) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+
+    private static class Endpoint {
+        final long[] latenciesMs = new long[LATENCY_BUFFER_SIZE];
+        int next;
+        int filled;
+        int calls;
+        int failures;
+        int cancelled;
+        long bytes;
+    }
+
+    private static ApiMetrics instance;
+
+    private final Map<String, Endpoint> endpoints = new TreeMap<>();
+
+    private ApiMetrics() {
+    }
+
+    public static synchronized ApiMetrics getInstance() {
+        if (instance == null) {
+            instance = new ApiMetrics();
+        }
+        return instance;
+    }
+
+    /**
+     * Interceptor that records every call; add it after the RequestScheduler's so queueing
+     * time is not counted as latency.
+     */
+    public Interceptor interceptor() {
+        return chain -> {
+            Request request = chain.request();
+            String endpoint = endpointName(request);
+            String section = "http " + endpoint;
+            int cookie = System.identityHashCode(chain.call());
+            long start = System.nanoTime();
+            Response response;
+            Tracing.beginAsync(section, cookie);
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                recordFailure(endpoint, chain.call().isCanceled());
+                throw e;
+            } finally {
+                // Ends at the response headers; reading the body is traced as parsing
+                Tracing.endAsync(section, cookie);
+            }
+            recordResponse(endpoint, (System.nanoTime() - start) / 1_000_000, response.isSuccessful());
+
+            ResponseBody body = response.body();
+            if (body == null) {
+                return response;
+            }
+            BufferedSource counted = Okio.buffer(new ForwardingSource(body.source()) {
+                @Override
+                public long read(@NonNull Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read > 0) {
+                        recordBytes(endpoint, read);
+                    }
+                    return read;
+                }
+            });
+            return response.newBuilder()
+                    .body(ResponseBody.create(counted, body.contentType(), body.contentLength()))
+                    .build();
+        };
+    }
+
+    public synchronized List<EndpointStats> getStats() {
+        List<EndpointStats> stats = new ArrayList<>();
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Endpoint endpoint = entry.getValue();
+            long[] latencies = Arrays.copyOf(endpoint.latenciesMs, endpoint.filled);
+            Arrays.sort(latencies);
+            stats.add(new EndpointStats(entry.getKey(), endpoint.calls, endpoint.failures,
+                    endpoint.cancelled, endpoint.bytes, latencies));
+        }
+        return stats;
+    }
+
+    public synchronized long getTotalBytes() {
+        long total = 0;
+        for (Endpoint endpoint : endpoints.values()) {
+            total += endpoint.bytes;
+        }
+        return total;
+    }
+
+    public synchronized void reset() {
+        endpoints.clear();
+    }
+
+    private synchronized void recordResponse(String name, long latencyMs, boolean successful) {
+        Endpoint endpoint = endpoint(name);
+        endpoint.calls++;
+        if (!successful) {
+            endpoint.failures++;
+        }
+        endpoint.latenciesMs[endpoint.next] = latencyMs;
+        endpoint.next = (endpoint.next + 1) % LATENCY_BUFFER_SIZE;
+        endpoint.filled = Math.min(endpoint.filled + 1, LATENCY_BUFFER_SIZE);
+    }
+
+    private synchronized void recordFailure(String name, boolean cancelled) {
+        Endpoint endpoint = endpoint(name);
+        endpoint.calls++;
+        if (cancelled) {
+            endpoint.cancelled++;
+        } else {
+            endpoint.failures++;
+        }
+    }
+
+    private synchronized void recordBytes(String name, long bytes) {
+        endpoint(name).bytes += bytes;
+    }
+
+    private Endpoint endpoint(String name) {
+        Endpoint endpoint = endpoints.get(name);
+        if (endpoint == null) {
+            endpoint = new Endpoint();
+            endpoints.put(name, endpoint);
+        }
+        return endpoint;
+    }
+
+    private static String endpointName(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        return invocation != null ? invocation.method().getName() : request.method() + " " + request.url().encodedPath();
+    }
+}
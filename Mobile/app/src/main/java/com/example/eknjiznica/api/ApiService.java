@@ -7,14 +7,19 @@ import com.example.eknjiznica.models.CreateLoanRequest;
 import com.example.eknjiznica.models.CreateReviewRequest;
 import com.example.eknjiznica.models.CreateUserRequest;
 import com.example.eknjiznica.models.Fine;
+import com.example.eknjiznica.models.LibrarianStatistics;
 import com.example.eknjiznica.models.Loan;
 import com.example.eknjiznica.models.LoginRequest;
 import com.example.eknjiznica.models.LoginResponse;
+import com.example.eknjiznica.models.MemberStatistics;
+import com.example.eknjiznica.models.RatingSummary;
 import com.example.eknjiznica.models.Reservation;
 import com.example.eknjiznica.models.Review;
+import com.example.eknjiznica.models.ReviewPage;
 
 import java.util.List;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
@@ -23,6 +28,7 @@ import retrofit2.http.Header;
 import retrofit2.http.POST;
 import retrofit2.http.PUT;
 import retrofit2.http.Path;
+import retrofit2.http.Streaming;
 
 public interface ApiService {
     // Auth endpoints
@@ -33,6 +39,11 @@ public interface ApiService {
     @GET("api/BooksApi")
     Call<ApiResponse<List<Book>>> getBooks(@retrofit2.http.Query("search") String search);
 
+    // The same catalog as a raw stream, parsed row by row into a CatalogStore
+    @Streaming
+    @GET("api/BooksApi")
+    Call<ResponseBody> getBooksStream();
+
     @GET("api/BooksApi/{id}")
     Call<ApiResponse<Book>> getBook(@Path("id") int id);
 
@@ -75,8 +86,19 @@ public interface ApiService {
     @GET("api/ReviewsApi/book/{bookId}")
     Call<ApiResponse<List<Review>>> getBookReviews(@Path("bookId") int bookId);
 
+    @GET("api/ReviewsApi/book/{bookId}/page")
+    Call<ApiResponse<ReviewPage>> getBookReviewsPage(@Path("bookId") int bookId,
+                                                     @retrofit2.http.Query("cursor") String cursor,
+                                                     @retrofit2.http.Query("limit") int limit);
+
+    @GET("api/ReviewsApi/{id}/comment")
+    Call<ApiResponse<String>> getReviewComment(@Path("id") int reviewId);
+
     @GET("api/ReviewsApi/book/{bookId}/rating")
-    Call<ApiResponse<Object>> getBookRating(@Path("bookId") int bookId);
+    Call<ApiResponse<RatingSummary>> getBookRating(@Path("bookId") int bookId);
+
+    @GET("api/ReviewsApi/ratings")
+    Call<ApiResponse<List<RatingSummary>>> getBookRatings(@retrofit2.http.Query("bookIds") List<Integer> bookIds);
 
     @POST("api/ReviewsApi")
     Call<ApiResponse<Review>> createReview(@Header("Authorization") String token, @Body CreateReviewRequest request);
@@ -115,8 +137,8 @@ public interface ApiService {
 
     // Statistics endpoints
     @GET("api/StatisticsApi/librarian")
-    Call<ApiResponse<Object>> getLibrarianStatistics(@Header("Authorization") String token);
+    Call<ApiResponse<LibrarianStatistics>> getLibrarianStatistics(@Header("Authorization") String token);
 
     @GET("api/StatisticsApi/member")
-    Call<ApiResponse<Object>> getMemberStatistics(@Header("Authorization") String token);
+    Call<ApiResponse<MemberStatistics>> getMemberStatistics(@Header("Authorization") String token);
 }
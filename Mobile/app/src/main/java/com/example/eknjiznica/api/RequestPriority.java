@@ -0,0 +1,15 @@
+package com.example.eknjiznica.api;
+
+/**
+ * Scheduling classes for API calls, most urgent first.
+ */
+public enum RequestPriority {
+    // A call the user is waiting on
+    INTERACTIVE,
+    // Speculative loads for what is on screen, e.g. the catalog prefetch
+    VISIBLE_PREFETCH,
+    // Keeping cached lists current, e.g. the login warm-up and MemberSync
+    BACKGROUND_SYNC,
+    // Large transfers nobody is waiting for
+    BULK
+}
@@ -0,0 +1,251 @@
+package com.example.eknjiznica.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Admits lower-priority calls so they never hold the connection slots a user is waiting on.
+ * Calls enqueued on Retrofit directly count as interactive: they bypass the queue, and while
+ * any of them is in flight lower-priority work is throttled to a single call. Queued work
+ * starts in priority order, and the time it spent queued is recorded per class. A queued call
+ * a user starts waiting on can be promoted to interactive.
+ */
+public class RequestScheduler {
+    // Below OkHttp's default of 5 requests per host, so interactive calls always find a slot
+    private static final int MAX_BACKGROUND_ACTIVE = 3;
+    private static final int MAX_BACKGROUND_ACTIVE_WHILE_INTERACTIVE = 1;
+
+    public static class QueueStats {
+        public final int count;
+        public final long averageWaitMs;
+        public final long maxWaitMs;
+
+        QueueStats(int count, long averageWaitMs, long maxWaitMs) {
+            this.count = count;
+            this.averageWaitMs = averageWaitMs;
+            this.maxWaitMs = maxWaitMs;
+        }
+    }
+
+    private static RequestScheduler instance;
+
+    private final PriorityQueue<Pending> queue = new PriorityQueue<>();
+    // Requests admitted by this scheduler; anything else reaching the interceptor is interactive
+    private final Set<Request> scheduled = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Calls taken out of the queue by promote(), which hold no background slot
+    private final Set<Call<?>> promoted = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final int[] waitCounts = new int[RequestPriority.values().length];
+    private final long[] waitTotalsMs = new long[RequestPriority.values().length];
+    private final long[] waitMaxMs = new long[RequestPriority.values().length];
+    private int backgroundActive;
+    private int interactiveActive;
+    private long sequence;
+
+    private RequestScheduler() {
+    }
+
+    public static synchronized RequestScheduler getInstance() {
+        if (instance == null) {
+            instance = new RequestScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Enqueues the call once a slot for its priority is free; the callback runs as with Call.enqueue.
+     */
+    public <T> void enqueue(RequestPriority priority, Call<T> call, Callback<T> callback) {
+        if (priority == RequestPriority.INTERACTIVE) {
+            call.enqueue(callback);
+            return;
+        }
+        synchronized (this) {
+            scheduled.add(call.request());
+            queue.add(new Pending(priority, sequence++, call, () -> call.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    finished(call);
+                    callback.onResponse(call, response);
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    finished(call);
+                    callback.onFailure(call, t);
+                }
+            })));
+        }
+        drain();
+    }
+
+    /**
+     * Blocking variant for worker threads: waits for a slot, then executes the call.
+     */
+    public <T> Response<T> execute(RequestPriority priority, Call<T> call) throws IOException {
+        if (priority == RequestPriority.INTERACTIVE) {
+            return call.execute();
+        }
+        CountDownLatch admitted = new CountDownLatch(1);
+        Pending pending;
+        synchronized (this) {
+            scheduled.add(call.request());
+            pending = new Pending(priority, sequence++, call, admitted::countDown);
+            queue.add(pending);
+        }
+        drain();
+
+        try {
+            admitted.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            boolean wasQueued;
+            synchronized (this) {
+                wasQueued = queue.remove(pending);
+                if (wasQueued) {
+                    scheduled.remove(call.request());
+                }
+            }
+            if (!wasQueued) {
+                finished(call);
+            }
+            throw new InterruptedIOException("Interrupted while waiting for a request slot");
+        }
+
+        try {
+            return call.execute();
+        } finally {
+            finished(call);
+        }
+    }
+
+    /**
+     * Starts a call that is still queued right away, as an interactive call, e.g. once a screen
+     * waits for it. Calls already started are left as they are.
+     *
+     * @return whether the call was still queued
+     */
+    public boolean promote(Call<?> call) {
+        Pending found = null;
+        synchronized (this) {
+            for (Pending pending : queue) {
+                if (pending.call == call) {
+                    found = pending;
+                    break;
+                }
+            }
+            if (found == null) {
+                return false;
+            }
+            queue.remove(found);
+            // From here on the interceptor counts it as interactive
+            scheduled.remove(call.request());
+            promoted.add(call);
+            recordWait(found.priority, System.currentTimeMillis() - found.enqueuedAt);
+        }
+        found.start.run();
+        return true;
+    }
+
+    /**
+     * Counts interactive calls in flight; must be the first application interceptor.
+     */
+    public Interceptor interceptor() {
+        return chain -> {
+            Request request = chain.request();
+            boolean interactive;
+            synchronized (this) {
+                interactive = !scheduled.contains(request);
+                if (interactive) {
+                    interactiveActive++;
+                }
+            }
+            if (!interactive) {
+                return chain.proceed(request);
+            }
+            try {
+                return chain.proceed(request);
+            } finally {
+                synchronized (this) {
+                    interactiveActive--;
+                }
+                drain();
+            }
+        };
+    }
+
+    public synchronized QueueStats getQueueStats(RequestPriority priority) {
+        int index = priority.ordinal();
+        int count = waitCounts[index];
+        return new QueueStats(count, count > 0 ? waitTotalsMs[index] / count : 0, waitMaxMs[index]);
+    }
+
+    private void drain() {
+        List<Runnable> toStart = new ArrayList<>();
+        synchronized (this) {
+            int limit = interactiveActive > 0 ? MAX_BACKGROUND_ACTIVE_WHILE_INTERACTIVE : MAX_BACKGROUND_ACTIVE;
+            long now = System.currentTimeMillis();
+            while (backgroundActive < limit && !queue.isEmpty()) {
+                Pending pending = queue.poll();
+                backgroundActive++;
+                recordWait(pending.priority, now - pending.enqueuedAt);
+                toStart.add(pending.start);
+            }
+        }
+        // Started outside the lock so a blocked worker thread can proceed right away
+        for (Runnable start : toStart) {
+            start.run();
+        }
+    }
+
+    private void finished(Call<?> call) {
+        synchronized (this) {
+            if (promoted.remove(call)) {
+                return;
+            }
+            scheduled.remove(call.request());
+            backgroundActive--;
+        }
+        drain();
+    }
+
+    private void recordWait(RequestPriority priority, long waitMs) {
+        int index = priority.ordinal();
+        waitCounts[index]++;
+        waitTotalsMs[index] += waitMs;
+        waitMaxMs[index] = Math.max(waitMaxMs[index], waitMs);
+    }
+
+    private static class Pending implements Comparable<Pending> {
+        final RequestPriority priority;
+        final Call<?> call;
+        final Runnable start;
+        final long sequence;
+        final long enqueuedAt = System.currentTimeMillis();
+
+        Pending(RequestPriority priority, long sequence, Call<?> call, Runnable start) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.call = call;
+            this.start = start;
+        }
+
+        @Override
+        public int compareTo(Pending other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.eknjiznica.api;
 
+import com.example.eknjiznica.BuildConfig;
+import com.example.eknjiznica.utils.NetworkMonitor;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
@@ -8,10 +10,14 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.Request;
 import okhttp3.logging.HttpLoggingInterceptor;
+import retrofit2.Invocation;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.http.Streaming;
 
 public class RetrofitClient {
 
@@ -22,10 +28,19 @@ public class RetrofitClient {
 
     private RetrofitClient() {
         HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+        // Logging bodies buffers every response; release builds only log the calls
+        loggingInterceptor.setLevel(BuildConfig.DEBUG ? HttpLoggingInterceptor.Level.BODY : HttpLoggingInterceptor.Level.BASIC);
+        // Streamed responses, e.g. the catalog, would be loaded whole just to be logged
+        HttpLoggingInterceptor streamLoggingInterceptor = new HttpLoggingInterceptor();
+        streamLoggingInterceptor.setLevel(BuildConfig.DEBUG ? HttpLoggingInterceptor.Level.HEADERS : HttpLoggingInterceptor.Level.BASIC);
+        Interceptor logging = chain -> isStreamed(chain.request())
+                ? streamLoggingInterceptor.intercept(chain) : loggingInterceptor.intercept(chain);
 
         OkHttpClient okHttpClient = new OkHttpClient.Builder()
-                .addInterceptor(loggingInterceptor)
+                .addInterceptor(RequestScheduler.getInstance().interceptor())
+                .addInterceptor(ApiMetrics.getInstance().interceptor())
+                .addInterceptor(logging)
+                .eventListenerFactory(NetworkMonitor.getInstance().eventListenerFactory())
                 .build();
 
         // Create Gson with date format support
@@ -37,12 +52,17 @@ public class RetrofitClient {
         Retrofit retrofit = new Retrofit.Builder()
                 .baseUrl(BASE_URL)
                 .client(okHttpClient)
-                .addConverterFactory(GsonConverterFactory.create(gson))
+                .addConverterFactory(new TracingConverterFactory(GsonConverterFactory.create(gson)))
                 .build();
 
         apiService = retrofit.create(ApiService.class);
     }
 
+    private static boolean isStreamed(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        return invocation != null && invocation.method().isAnnotationPresent(Streaming.class);
+    }
+
     public static synchronized RetrofitClient getInstance() {
         if (instance == null) {
             instance = new RetrofitClient();
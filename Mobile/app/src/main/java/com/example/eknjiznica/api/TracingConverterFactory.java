@@ -0,0 +1,53 @@
+package com.example.eknjiznica.api;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.eknjiznica.utils.Tracing;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Wraps another converter factory so parsing each response shows up as a "parse <type>"
+ * trace section.
+ */
+class TracingConverterFactory extends Converter.Factory {
+    private final Converter.Factory delegate;
+
+    TracingConverterFactory(Converter.Factory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Nullable
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(@NonNull Type type, @NonNull Annotation[] annotations,
+                                                            @NonNull Retrofit retrofit) {
+        Converter<ResponseBody, ?> converter = delegate.responseBodyConverter(type, annotations, retrofit);
+        if (converter == null) {
+            return null;
+        }
+        // e.g. "parse ApiResponse<List<Book>>"
+        String section = "parse " + type.getTypeName().replaceAll("[\\w$]+\\.", "");
+        return body -> {
+            Tracing.begin(section);
+            try {
+                return converter.convert(body);
+            } finally {
+                Tracing.end();
+            }
+        };
+    }
+
+    @Nullable
+    @Override
+    public Converter<?, RequestBody> requestBodyConverter(@NonNull Type type, @NonNull Annotation[] parameterAnnotations,
+                                                          @NonNull Annotation[] methodAnnotations, @NonNull Retrofit retrofit) {
+        return delegate.requestBodyConverter(type, parameterAnnotations, methodAnnotations, retrofit);
+    }
+}
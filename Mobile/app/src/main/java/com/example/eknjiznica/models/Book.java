@@ -1,8 +1,24 @@
 package com.example.eknjiznica.models;
 
-import java.io.Serializable;
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+
+public class Book implements Parcelable {
+    public static final Creator<Book> CREATOR = new Creator<Book>() {
+        @Override
+        public Book createFromParcel(Parcel in) {
+            return new Book(in.readInt(), in.readString(), in.readString(), in.readInt(), in.readString(),
+                    in.readInt() != 0);
+        }
+
+        @Override
+        public Book[] newArray(int size) {
+            return new Book[size];
+        }
+    };
 
-public class Book implements Serializable {
     private int id;
     private String title;
     private String author;
@@ -69,4 +85,23 @@ public class Book implements Serializable {
     public void setAvailable(boolean available) {
         isAvailable = available;
     }
+
+    public Book copy() {
+        return new Book(id, title, author, year, genre, isAvailable);
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(@NonNull Parcel dest, int flags) {
+        dest.writeInt(id);
+        dest.writeString(title);
+        dest.writeString(author);
+        dest.writeInt(year);
+        dest.writeString(genre);
+        dest.writeInt(isAvailable ? 1 : 0);
+    }
 }
@@ -69,4 +69,16 @@ public class Fine {
     public void setPaidDate(Date paidDate) {
         this.paidDate = paidDate;
     }
+
+    public Fine copy() {
+        Fine copy = new Fine();
+        copy.id = id;
+        copy.userId = userId;
+        copy.amount = amount;
+        copy.reason = reason;
+        copy.issueDate = issueDate;
+        copy.isPaid = isPaid;
+        copy.paidDate = paidDate;
+        return copy;
+    }
 }
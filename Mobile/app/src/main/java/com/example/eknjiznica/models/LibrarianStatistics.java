@@ -0,0 +1,70 @@
+package com.example.eknjiznica.models;
+
+public class LibrarianStatistics {
+    private int totalBooks;
+    private int availableBooks;
+    private int totalLoans;
+    private int activeLoans;
+    private int overdueLoans;
+    private int pendingReservations;
+    private int totalMembers;
+
+    public LibrarianStatistics() {
+    }
+
+    public int getTotalBooks() {
+        return totalBooks;
+    }
+
+    public void setTotalBooks(int totalBooks) {
+        this.totalBooks = totalBooks;
+    }
+
+    public int getAvailableBooks() {
+        return availableBooks;
+    }
+
+    public void setAvailableBooks(int availableBooks) {
+        this.availableBooks = availableBooks;
+    }
+
+    public int getTotalLoans() {
+        return totalLoans;
+    }
+
+    public void setTotalLoans(int totalLoans) {
+        this.totalLoans = totalLoans;
+    }
+
+    public int getActiveLoans() {
+        return activeLoans;
+    }
+
+    public void setActiveLoans(int activeLoans) {
+        this.activeLoans = activeLoans;
+    }
+
+    public int getOverdueLoans() {
+        return overdueLoans;
+    }
+
+    public void setOverdueLoans(int overdueLoans) {
+        this.overdueLoans = overdueLoans;
+    }
+
+    public int getPendingReservations() {
+        return pendingReservations;
+    }
+
+    public void setPendingReservations(int pendingReservations) {
+        this.pendingReservations = pendingReservations;
+    }
+
+    public int getTotalMembers() {
+        return totalMembers;
+    }
+
+    public void setTotalMembers(int totalMembers) {
+        this.totalMembers = totalMembers;
+    }
+}
@@ -80,6 +80,17 @@ public class Loan {
         this.status = status;
     }
 
+    /**
+     * Status as of now: an active loan past its due date is shown as overdue right away,
+     * without waiting for the server to recompute the stored status.
+     */
+    public String getEffectiveStatus() {
+        if ("Active".equals(status) && dueDate != null && dueDate.before(new Date())) {
+            return "Overdue";
+        }
+        return status;
+    }
+
     public Object getUser() {
         return user;
     }
@@ -87,4 +98,18 @@ public class Loan {
     public void setUser(Object user) {
         this.user = user;
     }
+
+    public Loan copy() {
+        Loan copy = new Loan();
+        copy.id = id;
+        copy.userId = userId;
+        copy.bookId = bookId;
+        copy.book = book;
+        copy.user = user;
+        copy.loanDate = loanDate;
+        copy.dueDate = dueDate;
+        copy.returnDate = returnDate;
+        copy.status = status;
+        return copy;
+    }
 }
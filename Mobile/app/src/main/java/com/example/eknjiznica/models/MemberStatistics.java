@@ -0,0 +1,34 @@
+package com.example.eknjiznica.models;
+
+public class MemberStatistics {
+    private int myActiveLoans;
+    private int myPendingReservations;
+    private int availableBooks;
+
+    public MemberStatistics() {
+    }
+
+    public int getMyActiveLoans() {
+        return myActiveLoans;
+    }
+
+    public void setMyActiveLoans(int myActiveLoans) {
+        this.myActiveLoans = myActiveLoans;
+    }
+
+    public int getMyPendingReservations() {
+        return myPendingReservations;
+    }
+
+    public void setMyPendingReservations(int myPendingReservations) {
+        this.myPendingReservations = myPendingReservations;
+    }
+
+    public int getAvailableBooks() {
+        return availableBooks;
+    }
+
+    public void setAvailableBooks(int availableBooks) {
+        this.availableBooks = availableBooks;
+    }
+}
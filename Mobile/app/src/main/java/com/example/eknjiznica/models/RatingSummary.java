@@ -0,0 +1,81 @@
+package com.example.eknjiznica.models;
+
+/**
+ * Rating of a book with its 1-5 star histogram, so a review added or removed on this
+ * device can be applied locally in constant time instead of refetching the rating.
+ */
+public class RatingSummary {
+    private int bookId;
+    private double averageRating;
+    private int reviewCount;
+    private int[] ratingCounts; // index 0 = one star
+
+    public RatingSummary() {
+    }
+
+    public int getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(int bookId) {
+        this.bookId = bookId;
+    }
+
+    public double getAverageRating() {
+        if (reviewCount == 0) {
+            return 0;
+        }
+        // The server's average is rounded, so prefer the exact one from the histogram
+        return ratingCounts != null ? (double) getRatingSum() / reviewCount : averageRating;
+    }
+
+    public void setAverageRating(double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(int reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public int[] getRatingCounts() {
+        return ratingCounts;
+    }
+
+    public void setRatingCounts(int[] ratingCounts) {
+        this.ratingCounts = ratingCounts;
+    }
+
+    public int getRatingSum() {
+        if (ratingCounts == null) {
+            return (int) Math.round(averageRating * reviewCount);
+        }
+        int sum = 0;
+        for (int i = 0; i < ratingCounts.length; i++) {
+            sum += ratingCounts[i] * (i + 1);
+        }
+        return sum;
+    }
+
+    public void addRating(int rating) {
+        applyRating(rating, 1);
+    }
+
+    public void removeRating(int rating) {
+        if (reviewCount > 0) {
+            applyRating(rating, -1);
+        }
+    }
+
+    private void applyRating(int rating, int delta) {
+        int sum = getRatingSum() + rating * delta;
+        reviewCount += delta;
+        if (ratingCounts != null && rating >= 1 && rating <= ratingCounts.length) {
+            ratingCounts[rating - 1] += delta;
+        }
+        averageRating = reviewCount > 0 ? (double) sum / reviewCount : 0;
+    }
+}
@@ -78,4 +78,17 @@ public class Reservation {
     public void setUser(Object user) {
         this.user = user;
     }
+
+    public Reservation copy() {
+        Reservation copy = new Reservation();
+        copy.id = id;
+        copy.userId = userId;
+        copy.bookId = bookId;
+        copy.book = book;
+        copy.user = user;
+        copy.reservationDate = reservationDate;
+        copy.expiryDate = expiryDate;
+        copy.isApproved = isApproved;
+        return copy;
+    }
 }
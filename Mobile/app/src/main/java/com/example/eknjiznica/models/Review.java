@@ -9,6 +9,7 @@ public class Review {
     private String userId;
     private int rating;
     private String comment;
+    private boolean commentTruncated; // comment is only a preview, see ApiService.getReviewComment
     private Date reviewDate;
     private Object user; // Can be Map<String, Object> when deserialized from JSON
 
@@ -55,6 +56,14 @@ public class Review {
         this.comment = comment;
     }
 
+    public boolean isCommentTruncated() {
+        return commentTruncated;
+    }
+
+    public void setCommentTruncated(boolean commentTruncated) {
+        this.commentTruncated = commentTruncated;
+    }
+
     public Date getReviewDate() {
         return reviewDate;
     }
@@ -0,0 +1,35 @@
+package com.example.eknjiznica.models;
+
+import java.util.List;
+
+/**
+ * One page of a book's reviews, newest first. nextCursor is null on the last page.
+ */
+public class ReviewPage {
+    private List<Review> items;
+    private String nextCursor;
+
+    public ReviewPage() {
+    }
+
+    public ReviewPage(List<Review> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Review> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Review> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
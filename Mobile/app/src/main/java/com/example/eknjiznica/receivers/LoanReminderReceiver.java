@@ -0,0 +1,71 @@
+package com.example.eknjiznica.receivers;
+
+import android.Manifest;
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.content.ContextCompat;
+
+import com.example.eknjiznica.activities.MyLoansActivity;
+import com.example.eknjiznica.utils.LoanReminders;
+import com.example.eknjiznica.utils.SharedPreferencesHelper;
+
+/**
+ * Posts a scheduled due-date reminder, and re-arms reminders after a reboot or app update.
+ */
+public class LoanReminderReceiver extends BroadcastReceiver {
+    public static final String ACTION_REMIND = "com.example.eknjiznica.action.LOAN_REMINDER";
+    public static final String EXTRA_LOAN_ID = "loan_id";
+    public static final String EXTRA_KIND = "kind";
+    public static final String EXTRA_TITLE = "title";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        if (Intent.ACTION_BOOT_COMPLETED.equals(action) || Intent.ACTION_MY_PACKAGE_REPLACED.equals(action)) {
+            if (new SharedPreferencesHelper(context).isMember()) {
+                PendingResult result = goAsync();
+                LoanReminders.getInstance().restore(result::finish);
+            }
+        } else if (ACTION_REMIND.equals(action)) {
+            showReminder(context, intent);
+        }
+    }
+
+    private void showReminder(Context context, Intent intent) {
+        if (!new SharedPreferencesHelper(context).isLoggedIn()) {
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(context, Manifest.permission.POST_NOTIFICATIONS)
+                != PackageManager.PERMISSION_GRANTED) {
+            return;
+        }
+
+        String title = intent.getStringExtra(EXTRA_TITLE);
+        String book = title != null ? "\"" + title + "\"" : "A borrowed book";
+        int kind = intent.getIntExtra(EXTRA_KIND, LoanReminders.KIND_DUE_DAY);
+        boolean dueToday = kind == LoanReminders.KIND_DUE_DAY;
+
+        Intent open = new Intent(context, MyLoansActivity.class)
+                .setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        PendingIntent contentIntent = PendingIntent.getActivity(context, 0, open,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, LoanReminders.CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.ic_popup_reminder)
+                .setContentTitle(dueToday ? "Book due today" : "Book due tomorrow")
+                .setContentText(book + (dueToday ? " is due today." : " is due tomorrow."))
+                .setContentIntent(contentIntent)
+                .setAutoCancel(true);
+
+        // The due-day reminder replaces the day-before one for the same loan
+        NotificationManagerCompat.from(context).notify(intent.getIntExtra(EXTRA_LOAN_ID, 0), builder.build());
+    }
+}
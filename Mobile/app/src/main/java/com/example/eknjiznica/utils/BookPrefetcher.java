@@ -0,0 +1,169 @@
+package com.example.eknjiznica.utils;
+
+import android.os.SystemClock;
+
+import com.example.eknjiznica.api.ApiService;
+import com.example.eknjiznica.api.RequestPriority;
+import com.example.eknjiznica.api.RequestScheduler;
+import com.example.eknjiznica.api.RetrofitClient;
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.ReviewPage;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Speculatively loads the first review page of the books visible in the catalog into the DataCache, so
+ * the details screen usually opens fully populated (their ratings already come from the
+ * RatingLoader that fills the rows). Runs a couple of books at a time within a request and
+ * byte budget over the last minute, queued behind calls the user is waiting on, and drops
+ * books that scrolled away; a request cancelled before its response arrived is not counted.
+ * Once the budget is spent the queue waits for the next call to prefetch(). Must be used from
+ * the main thread.
+ */
+public class BookPrefetcher {
+    // Prefetched data is only useful if the user opens the book soon
+    public static final long MAX_AGE_MS = 5 * 60 * 1000;
+
+    private static final int MAX_CONCURRENT = 2;
+    // Budget per sliding window, so a long browsing session keeps prefetching at a bounded rate
+    private static final long BUDGET_WINDOW_MS = 60 * 1000;
+    private static final int REQUEST_BUDGET = 30;
+    private static final long BYTE_BUDGET = 256 * 1024;
+    // Used when the server does not send a Content-Length
+    private static final long ESTIMATED_RESPONSE_BYTES = 2 * 1024;
+
+    private final ApiService apiService = RetrofitClient.getInstance().getApiService();
+    private final Deque<Integer> queue = new ArrayDeque<>();
+    private final Map<Integer, Prefetch> active = new HashMap<>();
+    // Requests started within the budget window, oldest first
+    private final Deque<Prefetch> spent = new ArrayDeque<>();
+
+    private static class Prefetch {
+        final Call<?> call;
+        final long startedAt;
+        long bytes;
+        boolean answered;
+
+        Prefetch(Call<?> call, long startedAt) {
+            this.call = call;
+            this.startedAt = startedAt;
+        }
+    }
+
+    /**
+     * Replaces the set of books worth prefetching with the currently visible ones.
+     */
+    public void prefetch(List<Integer> visibleBookIds) {
+        Set<Integer> visible = new HashSet<>(visibleBookIds);
+        queue.retainAll(visible);
+        Iterator<Map.Entry<Integer, Prefetch>> iterator = active.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Prefetch> entry = iterator.next();
+            if (!visible.contains(entry.getKey())) {
+                cancel(entry.getValue());
+                iterator.remove();
+            }
+        }
+
+        if (!NetworkMonitor.getInstance().shouldPrefetch()) {
+            return;
+        }
+        DataCache cache = DataCache.getInstance();
+        for (int bookId : visibleBookIds) {
+            if (!active.containsKey(bookId) && !queue.contains(bookId)
+                    && cache.getValue(DataCache.bookReviewsKey(bookId), MAX_AGE_MS) == null) {
+                queue.add(bookId);
+            }
+        }
+        startNext();
+    }
+
+    public void cancelAll() {
+        for (Prefetch prefetch : active.values()) {
+            cancel(prefetch);
+        }
+        active.clear();
+        queue.clear();
+    }
+
+    private void cancel(Prefetch prefetch) {
+        prefetch.call.cancel();
+        // Nothing was downloaded, so the request does not count against the budget
+        if (!prefetch.answered) {
+            spent.remove(prefetch);
+        }
+    }
+
+    private void startNext() {
+        while (active.size() < MAX_CONCURRENT && !queue.isEmpty() && withinBudget()) {
+            start(queue.poll());
+        }
+    }
+
+    private boolean withinBudget() {
+        long windowStart = SystemClock.uptimeMillis() - BUDGET_WINDOW_MS;
+        while (!spent.isEmpty() && spent.peekFirst().startedAt < windowStart) {
+            spent.pollFirst();
+        }
+        long bytes = 0;
+        for (Prefetch prefetch : spent) {
+            bytes += prefetch.bytes;
+        }
+        return spent.size() < REQUEST_BUDGET && bytes < BYTE_BUDGET;
+    }
+
+    private void start(int bookId) {
+        Call<ApiResponse<ReviewPage>> call = apiService.getBookReviewsPage(bookId, null,
+                NetworkMonitor.getInstance().getPageSize());
+        Prefetch prefetch = new Prefetch(call, SystemClock.uptimeMillis());
+        active.put(bookId, prefetch);
+        spent.addLast(prefetch);
+
+        RequestScheduler.getInstance().enqueue(RequestPriority.VISIBLE_PREFETCH, call, new Callback<ApiResponse<ReviewPage>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<ReviewPage>> call, Response<ApiResponse<ReviewPage>> response) {
+                if (call.isCanceled()) {
+                    return;
+                }
+                prefetch.answered = true;
+                prefetch.bytes = responseBytes(response);
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    DataCache.getInstance().putValue(DataCache.bookReviewsKey(bookId), response.body().getData());
+                }
+                finish(bookId);
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<ReviewPage>> call, Throwable t) {
+                if (!call.isCanceled()) {
+                    finish(bookId);
+                }
+            }
+        });
+    }
+
+    private static long responseBytes(Response<?> response) {
+        String contentLength = response.headers().get("Content-Length");
+        try {
+            return contentLength != null ? Long.parseLong(contentLength) : ESTIMATED_RESPONSE_BYTES;
+        } catch (NumberFormatException e) {
+            return ESTIMATED_RESPONSE_BYTES;
+        }
+    }
+
+    private void finish(int bookId) {
+        active.remove(bookId);
+        startNext();
+    }
+}
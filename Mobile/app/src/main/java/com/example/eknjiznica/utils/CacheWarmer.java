@@ -0,0 +1,173 @@
+package com.example.eknjiznica.utils;
+
+import com.example.eknjiznica.api.ApiService;
+import com.example.eknjiznica.api.RequestPriority;
+import com.example.eknjiznica.api.RequestScheduler;
+import com.example.eknjiznica.api.RetrofitClient;
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.LoginResponse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Prefetches the lists a user is most likely to open right after login into the DataCache,
+ * a few requests at a time so the home screen's own requests are not starved.
+ * Must be used from the main thread; Retrofit delivers its callbacks there as well.
+ */
+public class CacheWarmer {
+    private static final int MAX_CONCURRENT = 2;
+
+    private static CacheWarmer instance;
+    private final ApiService apiService = RetrofitClient.getInstance().getApiService();
+    private final Queue<Task<?>> queue = new ArrayDeque<>();
+    private final List<Task<?>> active = new ArrayList<>();
+    private final Map<String, List<Runnable>> pending = new HashMap<>();
+
+    private CacheWarmer() {
+    }
+
+    public static synchronized CacheWarmer getInstance() {
+        if (instance == null) {
+            instance = new CacheWarmer();
+        }
+        return instance;
+    }
+
+    /**
+     * Queues the role-relevant datasets: the member's own loans, reservations and fines,
+     * and for librarians the reservation queue and loan list they manage.
+     */
+    public void warmUp(LoginResponse login) {
+        String token = "Bearer " + login.getToken();
+        if (login.isMember()) {
+            enqueue(DataCache.KEY_MY_LOANS, apiService.getMyLoans(token), SnapshotCodecs.LOAN);
+            enqueue(DataCache.KEY_MY_RESERVATIONS, apiService.getMyReservations(token), SnapshotCodecs.RESERVATION);
+            enqueue(DataCache.KEY_MY_FINES, apiService.getMyFines(token), SnapshotCodecs.FINE);
+        }
+        if (login.isLibrarian()) {
+            enqueue(DataCache.KEY_ALL_RESERVATIONS, apiService.getAllReservations(token), null);
+            enqueue(DataCache.KEY_ALL_LOANS, apiService.getAllLoans(token), null);
+        }
+        startNext();
+    }
+
+    /**
+     * If the key is being fetched right now, promotes that call to interactive, runs the action
+     * once it finishes (whether or not it succeeded) and returns true, so the caller can wait
+     * instead of sending a duplicate request. A warm-up still queued here is dropped and false
+     * returned, so the caller sends its own call instead of waiting behind background work.
+     */
+    public boolean runWhenWarmed(String key, Runnable action) {
+        for (Task<?> task : active) {
+            if (task.key.equals(key)) {
+                RequestScheduler.getInstance().promote(task.call);
+                pending.get(key).add(action);
+                return true;
+            }
+        }
+        Iterator<Task<?>> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            Task<?> task = iterator.next();
+            if (task.key.equals(key)) {
+                task.call.cancel();
+                iterator.remove();
+                // Nobody can be waiting yet: waiters are only added to active tasks
+                pending.remove(key);
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops queued and in-flight work, e.g. on logout.
+     */
+    public void cancelAll() {
+        for (Task<?> task : active) {
+            task.call.cancel();
+        }
+        active.clear();
+        queue.clear();
+        pending.clear();
+    }
+
+    /**
+     * @param codec the codec of the screen's snapshot, written along with the cache, or null
+     */
+    private <T> void enqueue(String key, Call<ApiResponse<List<T>>> call, SnapshotStore.Codec<T> codec) {
+        if (pending.containsKey(key)) {
+            return;
+        }
+        pending.put(key, new ArrayList<>());
+        queue.add(new Task<>(key, call, codec));
+    }
+
+    private void startNext() {
+        while (active.size() < MAX_CONCURRENT && !queue.isEmpty()) {
+            Task<?> task = queue.poll();
+            active.add(task);
+            task.start();
+        }
+    }
+
+    private void finish(Task<?> task) {
+        active.remove(task);
+        List<Runnable> waiters = pending.remove(task.key);
+        if (waiters != null) {
+            for (Runnable waiter : waiters) {
+                waiter.run();
+            }
+        }
+        startNext();
+    }
+
+    private class Task<T> {
+        final String key;
+        final Call<ApiResponse<List<T>>> call;
+        final SnapshotStore.Codec<T> codec;
+
+        Task(String key, Call<ApiResponse<List<T>>> call, SnapshotStore.Codec<T> codec) {
+            this.key = key;
+            this.call = call;
+            this.codec = codec;
+        }
+
+        void start() {
+            RequestScheduler.getInstance().enqueue(RequestPriority.BACKGROUND_SYNC, call, new Callback<ApiResponse<List<T>>>() {
+                @Override
+                public void onResponse(Call<ApiResponse<List<T>>> call, Response<ApiResponse<List<T>>> response) {
+                    if (call.isCanceled()) {
+                        return;
+                    }
+                    if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                        List<T> items = response.body().getData();
+                        DataCache.getInstance().put(key, items);
+                        if (codec != null && items != null) {
+                            SnapshotStore.getInstance().write(key, items, codec, Integer.MAX_VALUE);
+                        }
+                    }
+                    finish(Task.this);
+                }
+
+                @Override
+                public void onFailure(Call<ApiResponse<List<T>>> call, Throwable t) {
+                    if (call.isCanceled()) {
+                        return;
+                    }
+                    // Silently fail - the screen loads the list itself when opened
+                    finish(Task.this);
+                }
+            });
+        }
+    }
+}
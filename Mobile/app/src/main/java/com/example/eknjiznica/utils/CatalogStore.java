@@ -0,0 +1,416 @@
+package com.example.eknjiznica.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.eknjiznica.api.ApiService;
+import com.example.eknjiznica.models.Book;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * The whole catalog in columns instead of one Book object per row: ids and years in int
+ * arrays, availability in a BitSet, and authors and genres dictionary-encoded, so each
+ * distinct string is held once and a row only stores its code. Only titles stay one String
+ * per row. Built on a background thread straight from the streamed API response, without
+ * creating a Book for every row; immutable once built.
+ */
+public class CatalogStore {
+    private static final String TAG = "CatalogStore";
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static volatile Stats lastStats;
+
+    public interface Callback {
+        /**
+         * Called on the main thread unless the call was cancelled; store is null on failure.
+         */
+        void onLoaded(CatalogStore store);
+    }
+
+    /**
+     * Size of the last catalog built, kept after the store itself is released. The byte
+     * figures are estimates computed from ART's object layout, not heap measurements.
+     */
+    public static class Stats {
+        public final int rows;
+        public final int authors;
+        public final int genres;
+        public final long estimatedRetainedBytes;
+        public final long estimatedBookListBytes;
+
+        Stats(int rows, int authors, int genres, long estimatedRetainedBytes, long estimatedBookListBytes) {
+            this.rows = rows;
+            this.authors = authors;
+            this.genres = genres;
+            this.estimatedRetainedBytes = estimatedRetainedBytes;
+            this.estimatedBookListBytes = estimatedBookListBytes;
+        }
+    }
+
+    private final int size;
+    private final int[] ids;
+    private final int[] years;
+    private final BitSet available;
+    private final String[] titles;
+    private final int[] authorCodes;
+    private final String[] authors;
+    private final int[] genreCodes;
+    private final String[] genres;
+    // Row positions ordered by id, for find()
+    private final int[] byId;
+    private final Stats stats;
+
+    private CatalogStore(Builder builder) {
+        size = builder.size;
+        ids = Arrays.copyOf(builder.ids, size);
+        years = Arrays.copyOf(builder.years, size);
+        available = (BitSet) builder.available.clone();
+        titles = Arrays.copyOf(builder.titles, size);
+        authorCodes = Arrays.copyOf(builder.authorCodes, size);
+        authors = builder.authors.toArray(new String[0]);
+        genreCodes = Arrays.copyOf(builder.genreCodes, size);
+        genres = builder.genres.toArray(new String[0]);
+        byId = sortedById(ids);
+        stats = new Stats(size, authors.length, genres.length, estimateRetainedBytes(), builder.bookListBytes);
+    }
+
+    /**
+     * Streams GET api/BooksApi into a new store on a background thread. The returned call
+     * can be cancelled to drop the result.
+     */
+    public static Call<ResponseBody> load(ApiService apiService, Callback callback) {
+        Call<ResponseBody> call = apiService.getBooksStream();
+        // Created here rather than statically, so local unit tests can load the class
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        executor.execute(() -> {
+            CatalogStore store = null;
+            try {
+                store = fetch(call);
+                lastStats = store.stats;
+                Log.d(TAG, store.size + " books in about " + store.stats.estimatedRetainedBytes / 1024 + " KB, "
+                        + store.stats.estimatedBookListBytes / 1024 + " KB as a List<Book>");
+            } catch (IOException | RuntimeException e) {
+                if (!call.isCanceled()) {
+                    Log.w(TAG, "Loading the catalog failed", e);
+                }
+            }
+            CatalogStore result = store;
+            mainHandler.post(() -> {
+                if (!call.isCanceled()) {
+                    callback.onLoaded(result);
+                }
+            });
+        });
+        return call;
+    }
+
+    public static Stats getLastStats() {
+        return lastStats;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public String getTitle(int row) {
+        return titles[row];
+    }
+
+    public String getAuthor(int row) {
+        return authors[authorCodes[row]];
+    }
+
+    public int getYear(int row) {
+        return years[row];
+    }
+
+    public String getGenre(int row) {
+        return genres[genreCodes[row]];
+    }
+
+    public boolean isAvailable(int row) {
+        return available.get(row);
+    }
+
+    public int countAvailable() {
+        return available.cardinality();
+    }
+
+    /**
+     * A new Book for the row; its strings are the store's own, so it costs one small object.
+     */
+    public Book getBook(int row) {
+        return new Book(ids[row], titles[row], getAuthor(row), years[row], getGenre(row), available.get(row));
+    }
+
+    /**
+     * The book with the given id as a new Book, or null if the catalog has no such book.
+     */
+    public Book find(int bookId) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = ids[byId[mid]];
+            if (id < bookId) {
+                low = mid + 1;
+            } else if (id > bookId) {
+                high = mid - 1;
+            } else {
+                return getBook(byId[mid]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read-only view for code that works with a List<Book>, such as BookAdapter. Each get()
+     * returns a fresh row Book that lives only as long as the caller keeps it, so the list
+     * never holds the rows as objects.
+     */
+    public List<Book> asBooks() {
+        return new BookList();
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    private static CatalogStore fetch(Call<ResponseBody> call) throws IOException {
+        Response<ResponseBody> response = call.execute();
+        if (!response.isSuccessful() || response.body() == null) {
+            if (response.errorBody() != null) {
+                response.errorBody().close();
+            }
+            throw new IOException("HTTP " + response.code());
+        }
+        Tracing.begin("CatalogStore.parse");
+        try (ResponseBody body = response.body(); JsonReader reader = new JsonReader(body.charStream())) {
+            reader.setLenient(true);
+            Builder builder = new Builder();
+            boolean success = false;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equalsIgnoreCase("success")) {
+                    success = reader.nextBoolean();
+                } else if (name.equalsIgnoreCase("data") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        readBook(reader, builder);
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (!success) {
+                throw new IOException("Request was not successful");
+            }
+            return builder.build();
+        } finally {
+            Tracing.end();
+        }
+    }
+
+    private static void readBook(JsonReader reader, Builder builder) throws IOException {
+        int id = 0;
+        int year = 0;
+        String title = null;
+        String author = null;
+        String genre = null;
+        boolean isAvailable = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+            } else if (name.equalsIgnoreCase("id")) {
+                id = reader.nextInt();
+            } else if (name.equalsIgnoreCase("title")) {
+                title = reader.nextString();
+            } else if (name.equalsIgnoreCase("author")) {
+                author = reader.nextString();
+            } else if (name.equalsIgnoreCase("year")) {
+                year = reader.nextInt();
+            } else if (name.equalsIgnoreCase("genre")) {
+                genre = reader.nextString();
+            } else if (name.equalsIgnoreCase("isAvailable")) {
+                isAvailable = reader.nextBoolean();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        builder.add(id, title, author, year, genre, isAvailable);
+    }
+
+    private static int[] sortedById(int[] ids) {
+        // Id in the high half and row in the low half, so a primitive sort orders rows by id
+        long[] keys = new long[ids.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (long) ids[i] << 32 | i;
+        }
+        Arrays.sort(keys);
+        int[] sorted = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = (int) keys[i];
+        }
+        return sorted;
+    }
+
+    private long estimateRetainedBytes() {
+        long bytes = HeapSize.align(HeapSize.OBJECT_HEADER + 4 + 10 * HeapSize.REFERENCE);
+        bytes += 5 * HeapSize.intArray(size);
+        // BitSet object plus its long[] words
+        bytes += HeapSize.align(HeapSize.OBJECT_HEADER + HeapSize.REFERENCE + 5) + HeapSize.longArray((size + 63) / 64);
+        bytes += HeapSize.referenceArray(size) + HeapSize.referenceArray(authors.length)
+                + HeapSize.referenceArray(genres.length);
+        for (String title : titles) {
+            bytes += HeapSize.string(title);
+        }
+        for (String author : authors) {
+            bytes += HeapSize.string(author);
+        }
+        for (String genre : genres) {
+            bytes += HeapSize.string(genre);
+        }
+        return bytes;
+    }
+
+    private class BookList extends AbstractList<Book> implements RandomAccess {
+        @Override
+        public Book get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return getBook(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Collects rows as they are parsed. Repeated authors and genres map to the first
+     * instance seen, which is how they are interned; the dictionaries are dropped after
+     * build() so only the arrays of distinct strings remain.
+     */
+    public static class Builder {
+        private int size;
+        private int[] ids = new int[INITIAL_CAPACITY];
+        private int[] years = new int[INITIAL_CAPACITY];
+        private final BitSet available = new BitSet();
+        private String[] titles = new String[INITIAL_CAPACITY];
+        private int[] authorCodes = new int[INITIAL_CAPACITY];
+        private int[] genreCodes = new int[INITIAL_CAPACITY];
+        private final List<String> authors = new ArrayList<>();
+        private final List<String> genres = new ArrayList<>();
+        private final Map<String, Integer> authorDictionary = new HashMap<>();
+        private final Map<String, Integer> genreDictionary = new HashMap<>();
+        // What the same rows would retain as an ArrayList of Book objects
+        private long bookListBytes = HeapSize.align(HeapSize.OBJECT_HEADER + 8 + HeapSize.REFERENCE)
+                + HeapSize.ARRAY_HEADER;
+
+        public Builder add(int id, String title, String author, int year, String genre, boolean isAvailable) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                years = Arrays.copyOf(years, capacity);
+                titles = Arrays.copyOf(titles, capacity);
+                authorCodes = Arrays.copyOf(authorCodes, capacity);
+                genreCodes = Arrays.copyOf(genreCodes, capacity);
+            }
+            ids[size] = id;
+            years[size] = year;
+            available.set(size, isAvailable);
+            titles[size] = title;
+            authorCodes[size] = encode(author, authors, authorDictionary);
+            genreCodes[size] = encode(genre, genres, genreDictionary);
+            size++;
+            bookListBytes += HeapSize.REFERENCE + HeapSize.BOOK + HeapSize.string(title)
+                    + HeapSize.string(author) + HeapSize.string(genre);
+            return this;
+        }
+
+        public CatalogStore build() {
+            return new CatalogStore(this);
+        }
+
+        private static int encode(String value, List<String> values, Map<String, Integer> dictionary) {
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                dictionary.put(value, code);
+            }
+            return code;
+        }
+    }
+
+    /**
+     * Shallow sizes on ART with compressed 32-bit references, used for the retained-heap
+     * estimates. Strings count ASCII text as one byte per character, as ART stores it.
+     */
+    static final class HeapSize {
+        static final int OBJECT_HEADER = 8;
+        static final int REFERENCE = 4;
+        static final int ARRAY_HEADER = 12;
+        // Book: header, id, year, three references, boolean
+        static final long BOOK = align(OBJECT_HEADER + 4 + 4 + 3 * REFERENCE + 1);
+
+        static long string(String value) {
+            if (value == null) {
+                return 0;
+            }
+            boolean latin1 = true;
+            for (int i = 0; i < value.length() && latin1; i++) {
+                latin1 = value.charAt(i) < 0x80;
+            }
+            // Header, count, hash, then the characters
+            return align(OBJECT_HEADER + 8 + (long) value.length() * (latin1 ? 1 : 2));
+        }
+
+        static long intArray(int length) {
+            return align(ARRAY_HEADER + 4L * length);
+        }
+
+        static long longArray(int length) {
+            return align(ARRAY_HEADER + 8L * length);
+        }
+
+        static long referenceArray(int length) {
+            return align(ARRAY_HEADER + (long) REFERENCE * length);
+        }
+
+        static long align(long bytes) {
+            return (bytes + 7) & ~7L;
+        }
+    }
+}
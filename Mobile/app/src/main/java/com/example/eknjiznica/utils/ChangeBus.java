@@ -0,0 +1,72 @@
+package com.example.eknjiznica.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process bus that tells screens which entities were changed by mutations or syncs,
+ * so they only refresh when their data was actually touched.
+ */
+public class ChangeBus {
+    public static final int ANY_ID = -1;
+
+    public enum Entity {
+        BOOK, LOAN, RESERVATION, FINE, REVIEW, USER
+    }
+
+    public interface Listener {
+        void onChanged(Entity entity, int id);
+    }
+
+    private static ChangeBus instance;
+    private final Map<Entity, List<Listener>> listeners = new EnumMap<>(Entity.class);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private ChangeBus() {
+        for (Entity entity : Entity.values()) {
+            listeners.put(entity, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    public static synchronized ChangeBus getInstance() {
+        if (instance == null) {
+            instance = new ChangeBus();
+        }
+        return instance;
+    }
+
+    public void subscribe(Listener listener, Entity... entities) {
+        for (Entity entity : entities) {
+            listeners.get(entity).add(listener);
+        }
+    }
+
+    public void unsubscribe(Listener listener) {
+        for (List<Listener> list : listeners.values()) {
+            list.remove(listener);
+        }
+    }
+
+    /**
+     * Notifies subscribers on the main thread. Use ANY_ID when the changed id is unknown,
+     * e.g. for newly created entities.
+     */
+    public void publish(Entity entity, int id) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            dispatch(entity, id);
+        } else {
+            mainHandler.post(() -> dispatch(entity, id));
+        }
+    }
+
+    private void dispatch(Entity entity, int id) {
+        for (Listener listener : listeners.get(entity)) {
+            listener.onChanged(entity, id);
+        }
+    }
+}
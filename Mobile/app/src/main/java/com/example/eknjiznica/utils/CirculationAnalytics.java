@@ -0,0 +1,302 @@
+package com.example.eknjiznica.utils;
+
+import com.example.eknjiznica.models.Book;
+import com.example.eknjiznica.models.Loan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.function.LongSupplier;
+
+/**
+ * On-device circulation counters for the librarian, built once from the loaded loan list and
+ * then updated per loan created or returned. Daily counts live in int ring buffers indexed by
+ * local epoch day, so any window up to MAX_WINDOW_DAYS is a short array sum with no rescan.
+ * The loans counted are remembered by id and status, so handing it the same loans again, e.g.
+ * from the DataCache, keeps the counters as they are. Must be used from the main thread.
+ */
+public class CirculationAnalytics {
+    public static final int MAX_WINDOW_DAYS = 366;
+
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    private static final String STATUS_RETURNED = "Returned";
+
+    public static class BookCount {
+        public final int bookId;
+        public final String title;
+        public final int count;
+
+        BookCount(int bookId, String title, int count) {
+            this.bookId = bookId;
+            this.title = title;
+            this.count = count;
+        }
+    }
+
+    private static CirculationAnalytics instance;
+
+    private final int[] loansPerDay = new int[MAX_WINDOW_DAYS];
+    private final int[] returnsPerDay = new int[MAX_WINDOW_DAYS];
+    // Open loans by due day, for days [today - MAX_WINDOW_DAYS + 1, today + MAX_WINDOW_DAYS]
+    private final int[] openDuePerDay = new int[2 * MAX_WINDOW_DAYS];
+    // Open loans due before that range; they stay overdue until returned
+    private int openDueBeforeWindow;
+    private final Map<Integer, Integer> borrowCounts = new HashMap<>();
+    private final Map<Integer, String> titles = new HashMap<>();
+    // Status each counted loan was last counted with, by loan id
+    private final Map<Integer, String> countedLoans = new HashMap<>();
+    // Open loans counted by due day; a return only uncounts these
+    private final Set<Integer> countedDue = new HashSet<>();
+    private final LongSupplier clock;
+    private long today = Long.MIN_VALUE;
+
+    private CirculationAnalytics() {
+        this(System::currentTimeMillis);
+    }
+
+    // For tests, to move between days
+    CirculationAnalytics(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public static synchronized CirculationAnalytics getInstance() {
+        if (instance == null) {
+            instance = new CirculationAnalytics();
+        }
+        return instance;
+    }
+
+    /**
+     * Resets all counters from a full loan list unless they already count exactly these loans,
+     * with the same statuses.
+     *
+     * @return whether the counters were rebuilt
+     */
+    public boolean rebuildIfChanged(List<Loan> loans) {
+        if (countsSameLoans(loans)) {
+            return false;
+        }
+        rebuild(loans);
+        return true;
+    }
+
+    /**
+     * Resets all counters from a full loan list.
+     */
+    public void rebuild(List<Loan> loans) {
+        clear();
+        today = epochDay(clock.getAsLong());
+        for (Loan loan : loans) {
+            onLoanCreated(loan);
+            if (STATUS_RETURNED.equals(loan.getStatus())) {
+                countReturn(loan, loan.getReturnDate());
+            }
+        }
+    }
+
+    public void onLoanCreated(Loan loan) {
+        advance();
+        addToDayRing(loansPerDay, loan.getLoanDate(), 1);
+        if (!STATUS_RETURNED.equals(loan.getStatus())) {
+            addOpenDue(loan, 1);
+        }
+
+        countedLoans.put(loan.getId(), loan.getStatus());
+        int bookId = loan.getBookId();
+        Integer count = borrowCounts.get(bookId);
+        borrowCounts.put(bookId, count == null ? 1 : count + 1);
+        Book book = loan.getBook();
+        if (book != null && book.getTitle() != null) {
+            titles.put(bookId, book.getTitle());
+        }
+    }
+
+    /**
+     * @param loan the loan as it was before the return, still open
+     */
+    public void onLoanReturned(Loan loan, Date returnDate) {
+        if (STATUS_RETURNED.equals(loan.getStatus())) {
+            return;
+        }
+        advance();
+        countReturn(loan, returnDate);
+        countedLoans.put(loan.getId(), STATUS_RETURNED);
+    }
+
+    public int loansInLastDays(int days) {
+        advance();
+        return sumLastDays(loansPerDay, days);
+    }
+
+    public int returnsInLastDays(int days) {
+        advance();
+        return sumLastDays(returnsPerDay, days);
+    }
+
+    /**
+     * Loans per day for the last days, oldest first, e.g. for a trend chart.
+     */
+    public int[] loansPerDay(int days) {
+        advance();
+        int window = clampWindow(days);
+        int[] series = new int[window];
+        for (int i = 0; i < window; i++) {
+            series[i] = loansPerDay[dayIndex(today - window + 1 + i, MAX_WINDOW_DAYS)];
+        }
+        return series;
+    }
+
+    /**
+     * Open loans whose due day is before today.
+     */
+    public int overdueCount() {
+        advance();
+        int count = openDueBeforeWindow;
+        for (long day = today - MAX_WINDOW_DAYS + 1; day < today; day++) {
+            count += openDuePerDay[dayIndex(day, openDuePerDay.length)];
+        }
+        return count;
+    }
+
+    public List<BookCount> topBorrowed(int limit) {
+        List<BookCount> counts = new ArrayList<>(borrowCounts.size());
+        for (Map.Entry<Integer, Integer> entry : borrowCounts.entrySet()) {
+            counts.add(new BookCount(entry.getKey(), titles.get(entry.getKey()), entry.getValue()));
+        }
+        Collections.sort(counts, (a, b) -> Integer.compare(b.count, a.count));
+        return counts.size() > limit ? new ArrayList<>(counts.subList(0, limit)) : counts;
+    }
+
+    /**
+     * Forgets every loan counted, e.g. on logout.
+     */
+    public void clear() {
+        today = Long.MIN_VALUE;
+        clearArrays();
+        openDueBeforeWindow = 0;
+        borrowCounts.clear();
+        titles.clear();
+        countedLoans.clear();
+        countedDue.clear();
+    }
+
+    private boolean countsSameLoans(List<Loan> loans) {
+        if (today == Long.MIN_VALUE || loans.size() != countedLoans.size()) {
+            return false;
+        }
+        for (Loan loan : loans) {
+            String status = countedLoans.get(loan.getId());
+            if (status == null && !countedLoans.containsKey(loan.getId()) || !Objects.equals(status, loan.getStatus())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void countReturn(Loan loan, Date returnDate) {
+        addToDayRing(returnsPerDay, returnDate, 1);
+        if (!STATUS_RETURNED.equals(loan.getStatus())) {
+            addOpenDue(loan, -1);
+        }
+    }
+
+    /**
+     * Moves the rings forward to the current day, clearing buckets that fall out of the window.
+     */
+    private void advance() {
+        long now = epochDay(clock.getAsLong());
+        if (today == Long.MIN_VALUE) {
+            today = now;
+            return;
+        }
+        if (now <= today) {
+            return;
+        }
+        if (now - today >= 2 * MAX_WINDOW_DAYS) {
+            for (int count : openDuePerDay) {
+                openDueBeforeWindow += count;
+            }
+            clearArrays();
+            today = now;
+            return;
+        }
+        for (long day = today + 1; day <= now; day++) {
+            int index = dayIndex(day, MAX_WINDOW_DAYS);
+            loansPerDay[index] = 0;
+            returnsPerDay[index] = 0;
+            // The oldest due day leaves the range and its slot is reused for a new future day
+            int dueIndex = dayIndex(day - MAX_WINDOW_DAYS, openDuePerDay.length);
+            openDueBeforeWindow += openDuePerDay[dueIndex];
+            openDuePerDay[dueIndex] = 0;
+        }
+        today = now;
+    }
+
+    private void addToDayRing(int[] ring, Date date, int delta) {
+        if (date == null) {
+            return;
+        }
+        long day = epochDay(date.getTime());
+        if (day > today - MAX_WINDOW_DAYS && day <= today) {
+            ring[dayIndex(day, ring.length)] += delta;
+        }
+    }
+
+    private void addOpenDue(Loan loan, int delta) {
+        Date dueDate = loan.getDueDate();
+        if (dueDate == null) {
+            return;
+        }
+        long day = epochDay(dueDate.getTime());
+        if (delta > 0) {
+            if (day > today + MAX_WINDOW_DAYS) {
+                // Due more than a year ahead: never overdue within this window, not tracked
+                return;
+            }
+            countedDue.add(loan.getId());
+        } else if (!countedDue.remove(loan.getId())) {
+            // Was not tracked when it was opened, even if its due day is within range by now
+            return;
+        }
+        if (day <= today - MAX_WINDOW_DAYS) {
+            openDueBeforeWindow += delta;
+        } else {
+            openDuePerDay[dayIndex(day, openDuePerDay.length)] += delta;
+        }
+    }
+
+    private int sumLastDays(int[] ring, int days) {
+        int window = clampWindow(days);
+        int sum = 0;
+        for (int i = 0; i < window; i++) {
+            sum += ring[dayIndex(today - i, ring.length)];
+        }
+        return sum;
+    }
+
+    private void clearArrays() {
+        Arrays.fill(loansPerDay, 0);
+        Arrays.fill(returnsPerDay, 0);
+        Arrays.fill(openDuePerDay, 0);
+    }
+
+    private static int clampWindow(int days) {
+        return Math.max(0, Math.min(days, MAX_WINDOW_DAYS));
+    }
+
+    private static int dayIndex(long day, int size) {
+        return (int) Math.floorMod(day, (long) size);
+    }
+
+    private static long epochDay(long millis) {
+        return Math.floorDiv(millis + TimeZone.getDefault().getOffset(millis), DAY_MS);
+    }
+}
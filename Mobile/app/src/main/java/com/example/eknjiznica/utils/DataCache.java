@@ -0,0 +1,209 @@
+package com.example.eknjiznica.utils;
+
+import com.example.eknjiznica.models.Book;
+import com.example.eknjiznica.models.ReviewPage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory cache of list queries, shared between screens.
+ * Mutations patch or invalidate only the keys they affect instead of forcing a full reload.
+ */
+public class DataCache {
+    public static final String KEY_BOOKS = "books";
+    // The unfiltered catalog as a CatalogStore; dropped together with KEY_BOOKS
+    public static final String KEY_CATALOG = "books/catalog";
+    public static final String KEY_ALL_LOANS = "loans/all";
+    public static final String KEY_MY_LOANS = "loans/my";
+    public static final String KEY_ALL_RESERVATIONS = "reservations/all";
+    public static final String KEY_MY_RESERVATIONS = "reservations/my";
+    public static final String KEY_ALL_FINES = "fines/all";
+    public static final String KEY_MY_FINES = "fines/my";
+    public static final String KEY_MY_REVIEWS = "reviews/my";
+    public static final String KEY_LIBRARIAN_STATISTICS = "statistics/librarian";
+    public static final String KEY_MEMBER_STATISTICS = "statistics/member";
+
+    private static final String KEY_BOOK_PREFIX = "book/";
+    private static final String KEY_BOOK_REVIEWS_PREFIX = "reviews/book/";
+    private static final String KEY_BOOK_RATING_PREFIX = "rating/book/";
+
+    public static final long DEFAULT_MAX_AGE_MS = 60 * 1000;
+
+    private static DataCache instance;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private int hits;
+    private int misses;
+
+    private DataCache() {
+    }
+
+    public static synchronized DataCache getInstance() {
+        if (instance == null) {
+            instance = new DataCache();
+        }
+        return instance;
+    }
+
+    public static String bookKey(int bookId) {
+        return KEY_BOOK_PREFIX + bookId;
+    }
+
+    public static String bookReviewsKey(int bookId) {
+        return KEY_BOOK_REVIEWS_PREFIX + bookId;
+    }
+
+    public static String bookRatingKey(int bookId) {
+        return KEY_BOOK_RATING_PREFIX + bookId;
+    }
+
+    /**
+     * Returns a copy of the cached list, or null if it is missing or older than maxAgeMs.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> List<T> get(String key, long maxAgeMs) {
+        Entry entry = entries.get(key);
+        if (entry == null || System.currentTimeMillis() - entry.timestamp > maxAgeMs) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return new ArrayList<>((List<T>) entry.data);
+    }
+
+    public <T> List<T> get(String key) {
+        return get(key, DEFAULT_MAX_AGE_MS);
+    }
+
+    public synchronized void put(String key, List<?> data) {
+        if (data == null) {
+            return;
+        }
+        entries.put(key, new Entry(new ArrayList<>(data), System.currentTimeMillis()));
+    }
+
+    /**
+     * Returns a cached single value (not a copy, so it can be patched in place),
+     * or null if it is missing or older than maxAgeMs.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T getValue(String key, long maxAgeMs) {
+        Entry entry = entries.get(key);
+        if (entry == null || System.currentTimeMillis() - entry.timestamp > maxAgeMs) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return (T) entry.data;
+    }
+
+    public synchronized void putValue(String key, Object value) {
+        if (value == null) {
+            return;
+        }
+        entries.put(key, new Entry(value, System.currentTimeMillis()));
+    }
+
+    /**
+     * Returns the book from its own entry or else from the cached catalog, or null if none
+     * has it within maxAgeMs. Not a copy, except for rows of a CatalogStore.
+     */
+    public synchronized Book findBook(int bookId, long maxAgeMs) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(bookKey(bookId));
+        if (entry != null && now - entry.timestamp <= maxAgeMs) {
+            hits++;
+            return (Book) entry.data;
+        }
+        entry = entries.get(KEY_BOOKS);
+        if (entry != null && now - entry.timestamp <= maxAgeMs) {
+            for (Object item : (List<?>) entry.data) {
+                if (((Book) item).getId() == bookId) {
+                    hits++;
+                    return (Book) item;
+                }
+            }
+        }
+        entry = entries.get(KEY_CATALOG);
+        if (entry != null && now - entry.timestamp <= maxAgeMs) {
+            Book book = ((CatalogStore) entry.data).find(bookId);
+            if (book != null) {
+                hits++;
+                return book;
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Adds an item created by a mutation to a cached list, if that list is cached.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> void append(String key, T item) {
+        Entry entry = entries.get(key);
+        if (entry != null && item != null) {
+            ((List<T>) entry.data).add(item);
+        }
+    }
+
+    public synchronized void invalidate(String... keys) {
+        for (String key : keys) {
+            entries.remove(key);
+            // Both hold the same catalog, so a change that makes one stale makes both stale
+            if (KEY_BOOKS.equals(key)) {
+                entries.remove(KEY_CATALOG);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int getHitCount() {
+        return hits;
+    }
+
+    public synchronized int getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Number of items held per key, with per-book keys grouped under their prefix, e.g. for
+     * the diagnostics screen. Single cached values count as one item.
+     */
+    public synchronized Map<String, Integer> getItemCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            String key = entry.getKey();
+            if (key.startsWith(KEY_BOOK_PREFIX)) {
+                key = KEY_BOOK_PREFIX + "*";
+            } else if (key.startsWith(KEY_BOOK_REVIEWS_PREFIX)) {
+                key = KEY_BOOK_REVIEWS_PREFIX + "*";
+            } else if (key.startsWith(KEY_BOOK_RATING_PREFIX)) {
+                key = KEY_BOOK_RATING_PREFIX + "*";
+            }
+            Object data = entry.getValue().data;
+            int size = data instanceof List ? ((List<?>) data).size()
+                    : data instanceof CatalogStore ? ((CatalogStore) data).size()
+                    : data instanceof ReviewPage ? ((ReviewPage) data).getItems().size() : 1;
+            Integer count = counts.get(key);
+            counts.put(key, count == null ? size : count + size);
+        }
+        return counts;
+    }
+
+    private static class Entry {
+        final Object data;
+        final long timestamp;
+
+        Entry(Object data, long timestamp) {
+            this.data = data;
+            this.timestamp = timestamp;
+        }
+    }
+}
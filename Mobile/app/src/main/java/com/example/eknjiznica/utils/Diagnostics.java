@@ -0,0 +1,188 @@
+package com.example.eknjiznica.utils;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Debug;
+
+import com.example.eknjiznica.adapters.RowPool;
+import com.example.eknjiznica.api.ApiMetrics;
+import com.example.eknjiznica.api.RequestPriority;
+import com.example.eknjiznica.api.RequestScheduler;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Gathers the runtime performance data of the app (network, API calls, caches, frames,
+ * memory) into one JSON report for the diagnostics screen and for support.
+ * Must be used from the main thread.
+ */
+public final class Diagnostics {
+    private static final long MB = 1024 * 1024;
+
+    private Diagnostics() {
+    }
+
+    public static JSONObject collect() throws JSONException {
+        JSONObject report = new JSONObject();
+        report.put("time", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US).format(new Date()));
+        report.put("device", Build.MANUFACTURER + " " + Build.MODEL + ", Android " + Build.VERSION.RELEASE);
+        report.put("coldStartMs", StartupTimer.getColdStartMs());
+        report.put("network", network());
+        report.put("endpoints", endpoints());
+        report.put("scheduler", scheduler());
+        report.put("cache", cache());
+        report.put("memory", memory());
+        report.put("frames", frames());
+        report.put("listFirstFrameMs", new JSONObject(RowPool.getInstance().getFirstFrameTimes()));
+        if (CatalogStore.getLastStats() != null) {
+            report.put("catalog", catalog(CatalogStore.getLastStats()));
+        }
+        if (StrictModeMonitor.getInstance() != null) {
+            report.put("strictMode", strictMode(StrictModeMonitor.getInstance()));
+        }
+        return report;
+    }
+
+    /**
+     * Writes a report from collect() into the app's files directory and returns the file. Does
+     * file I/O, so call it off the main thread; nothing else may use the report meanwhile.
+     */
+    public static File dump(Context context, JSONObject report) throws IOException, JSONException {
+        File dir = new File(context.getFilesDir(), "diagnostics");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date());
+        File file = new File(dir, "diagnostics-" + stamp + ".json");
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(report.toString(2));
+        }
+        return file;
+    }
+
+    private static JSONObject network() throws JSONException {
+        NetworkMonitor monitor = NetworkMonitor.getInstance();
+        JSONObject network = new JSONObject();
+        network.put("tier", monitor.getTier().name());
+        network.put("metered", monitor.isMetered());
+        network.put("bandwidthKbps", monitor.getBandwidthKbps());
+        network.put("latencyMs", monitor.getLatencyMs());
+        network.put("bytesReceived", ApiMetrics.getInstance().getTotalBytes());
+        return network;
+    }
+
+    private static JSONArray endpoints() throws JSONException {
+        JSONArray endpoints = new JSONArray();
+        for (ApiMetrics.EndpointStats stats : ApiMetrics.getInstance().getStats()) {
+            JSONObject endpoint = new JSONObject();
+            endpoint.put("endpoint", stats.endpoint);
+            endpoint.put("calls", stats.calls);
+            endpoint.put("failures", stats.failures);
+            endpoint.put("cancelled", stats.cancelled);
+            endpoint.put("bytes", stats.bytes);
+            endpoint.put("p50Ms", stats.p50Ms);
+            endpoint.put("p90Ms", stats.p90Ms);
+            endpoint.put("p99Ms", stats.p99Ms);
+            endpoints.put(endpoint);
+        }
+        return endpoints;
+    }
+
+    private static JSONObject scheduler() throws JSONException {
+        JSONObject scheduler = new JSONObject();
+        for (RequestPriority priority : RequestPriority.values()) {
+            RequestScheduler.QueueStats stats = RequestScheduler.getInstance().getQueueStats(priority);
+            JSONObject queue = new JSONObject();
+            queue.put("count", stats.count);
+            queue.put("averageWaitMs", stats.averageWaitMs);
+            queue.put("maxWaitMs", stats.maxWaitMs);
+            scheduler.put(priority.name(), queue);
+        }
+        scheduler.put("ratingRequestsSavedByBatching", RatingLoader.getInstance().getRequestsSaved());
+        scheduler.put("ratingCacheHits", RatingLoader.getInstance().getCacheHits());
+        return scheduler;
+    }
+
+    private static JSONObject cache() throws JSONException {
+        DataCache dataCache = DataCache.getInstance();
+        int hits = dataCache.getHitCount();
+        int lookups = hits + dataCache.getMissCount();
+        JSONObject cache = new JSONObject();
+        cache.put("hits", hits);
+        cache.put("misses", lookups - hits);
+        cache.put("hitRatio", lookups > 0 ? (double) hits / lookups : 0);
+        JSONObject items = new JSONObject();
+        for (Map.Entry<String, Integer> entry : dataCache.getItemCounts().entrySet()) {
+            items.put(entry.getKey(), entry.getValue());
+        }
+        cache.put("items", items);
+        return cache;
+    }
+
+    private static JSONObject catalog(CatalogStore.Stats stats) throws JSONException {
+        JSONObject catalog = new JSONObject();
+        catalog.put("rows", stats.rows);
+        catalog.put("distinctAuthors", stats.authors);
+        catalog.put("distinctGenres", stats.genres);
+        // Computed from the object layout, not measured on the heap
+        catalog.put("estimatedRetainedKb", stats.estimatedRetainedBytes / 1024);
+        catalog.put("estimatedAsBookListKb", stats.estimatedBookListBytes / 1024);
+        catalog.put("estimatedSavedPercent", stats.estimatedBookListBytes > 0
+                ? Math.round(100.0 * (stats.estimatedBookListBytes - stats.estimatedRetainedBytes)
+                / stats.estimatedBookListBytes) : 0);
+        return catalog;
+    }
+
+    private static JSONObject memory() throws JSONException {
+        Runtime runtime = Runtime.getRuntime();
+        JSONObject memory = new JSONObject();
+        memory.put("javaHeapUsedMb", (runtime.totalMemory() - runtime.freeMemory()) / MB);
+        memory.put("javaHeapMaxMb", runtime.maxMemory() / MB);
+        memory.put("nativeHeapUsedMb", Debug.getNativeHeapAllocatedSize() / MB);
+        return memory;
+    }
+
+    private static JSONObject strictMode(StrictModeMonitor monitor) throws JSONException {
+        JSONObject strictMode = new JSONObject();
+        strictMode.put("total", monitor.getTotal());
+        JSONArray groups = new JSONArray();
+        for (StrictModeMonitor.Group group : monitor.getGroups()) {
+            JSONObject entry = new JSONObject();
+            entry.put("violation", group.key);
+            entry.put("count", group.count);
+            entry.put("stackTrace", group.stackTrace);
+            groups.put(entry);
+        }
+        strictMode.put("groups", groups);
+        return strictMode;
+    }
+
+    private static JSONArray frames() throws JSONException {
+        JSONArray frames = new JSONArray();
+        for (JankMonitor.Stats stats : JankMonitor.getInstance().getStats()) {
+            JSONObject screen = new JSONObject();
+            screen.put("screen", stats.screen);
+            screen.put("state", stats.state);
+            screen.put("frames", stats.frames);
+            screen.put("janky", stats.jankyFrames);
+            screen.put("frozen", stats.frozenFrames);
+            screen.put("p50Ms", stats.p50Ms);
+            screen.put("p90Ms", stats.p90Ms);
+            screen.put("p95Ms", stats.p95Ms);
+            screen.put("p99Ms", stats.p99Ms);
+            frames.put(screen);
+        }
+        return frames;
+    }
+}
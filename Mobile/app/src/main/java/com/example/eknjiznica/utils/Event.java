@@ -0,0 +1,26 @@
+package com.example.eknjiznica.utils;
+
+/**
+ * LiveData payload that is handled only once, so toasts and navigation
+ * are not repeated when an observer is re-attached after rotation.
+ */
+public class Event<T> {
+    private final T content;
+    private boolean handled;
+
+    public Event(T content) {
+        this.content = content;
+    }
+
+    public T getContentIfNotHandled() {
+        if (handled) {
+            return null;
+        }
+        handled = true;
+        return content;
+    }
+
+    public T peekContent() {
+        return content;
+    }
+}
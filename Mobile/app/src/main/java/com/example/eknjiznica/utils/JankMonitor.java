@@ -0,0 +1,256 @@
+package com.example.eknjiznica.utils;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.view.FrameMetrics;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records the duration of every frame drawn by every screen from FrameMetrics, split by
+ * screen and by whether the screen was scrolling, so slow binding in a list shows up as a
+ * worse scrolling percentile for that screen. Each bucket keeps its most recent frames in a
+ * fixed-size buffer; percentiles are computed when asked for.
+ */
+public class JankMonitor {
+    public static final String STATE_SCROLLING = "scrolling";
+    public static final String STATE_IDLE = "idle";
+
+    // Frames kept per screen and scroll state for the percentiles
+    private static final int BUFFER_SIZE = 1024;
+    // A frame counts as scrolling if anything in its window scrolled this recently
+    private static final long SCROLL_WINDOW_NS = 100_000_000L;
+    // Android vitals' threshold for a frozen frame
+    private static final long FROZEN_FRAME_NS = 700_000_000L;
+
+    /**
+     * Frame statistics of one screen in one scroll state.
+     */
+    public static class Stats {
+        public final String screen;
+        public final String state;
+        public final long frames;
+        public final long jankyFrames;
+        public final long frozenFrames;
+        public final float p50Ms, p90Ms, p95Ms, p99Ms;
+
+        Stats(String screen, String state, long frames, long jankyFrames, long frozenFrames, int[] recentUs) {
+            this.screen = screen;
+            this.state = state;
+            this.frames = frames;
+            this.jankyFrames = jankyFrames;
+            this.frozenFrames = frozenFrames;
+            Arrays.sort(recentUs);
+            p50Ms = percentile(recentUs, 50);
+            p90Ms = percentile(recentUs, 90);
+            p95Ms = percentile(recentUs, 95);
+            p99Ms = percentile(recentUs, 99);
+        }
+
+        public float getJankPercent() {
+            return frames > 0 ? 100f * jankyFrames / frames : 0;
+        }
+
+        private static float percentile(int[] sortedUs, int percent) {
+            if (sortedUs.length == 0) {
+                return 0;
+            }
+            int index = Math.min(sortedUs.length - 1, (int) Math.ceil(percent / 100.0 * sortedUs.length) - 1);
+            return sortedUs[Math.max(0, index)] / 1000f;
+        }
+    }
+
+    private static class Bucket {
+        final int[] recentUs = new int[BUFFER_SIZE];
+        int next;
+        int filled;
+        long frames;
+        long janky;
+        long frozen;
+
+        void add(long durationNs, long deadlineNs) {
+            recentUs[next] = (int) Math.min(Integer.MAX_VALUE, durationNs / 1000);
+            next = (next + 1) % BUFFER_SIZE;
+            filled = Math.min(filled + 1, BUFFER_SIZE);
+            frames++;
+            if (durationNs > deadlineNs) {
+                janky++;
+            }
+            if (durationNs > FROZEN_FRAME_NS) {
+                frozen++;
+            }
+        }
+    }
+
+    private static JankMonitor instance;
+
+    private final Handler metricsHandler;
+    // Keyed by screen, then scroll state; guarded by this
+    private final Map<String, Map<String, Bucket>> buckets = new TreeMap<>();
+    private final Map<Activity, Window.OnFrameMetricsAvailableListener> listeners = new HashMap<>();
+    private final Map<Activity, ViewTreeObserver.OnScrollChangedListener> scrollListeners = new HashMap<>();
+    private volatile long lastScrollNs;
+
+    private JankMonitor() {
+        HandlerThread thread = new HandlerThread("frame-metrics");
+        thread.start();
+        metricsHandler = new Handler(thread.getLooper());
+    }
+
+    public static synchronized void init(Application application) {
+        if (instance == null) {
+            instance = new JankMonitor();
+            application.registerActivityLifecycleCallbacks(instance.new ScreenTracker());
+        }
+    }
+
+    public static synchronized JankMonitor getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("JankMonitor.init() was not called");
+        }
+        return instance;
+    }
+
+    public synchronized List<Stats> getStats() {
+        List<Stats> stats = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Bucket>> screen : buckets.entrySet()) {
+            for (Map.Entry<String, Bucket> state : screen.getValue().entrySet()) {
+                Bucket bucket = state.getValue();
+                stats.add(new Stats(screen.getKey(), state.getKey(), bucket.frames, bucket.janky,
+                        bucket.frozen, Arrays.copyOf(bucket.recentUs, bucket.filled)));
+            }
+        }
+        return stats;
+    }
+
+    public synchronized void reset() {
+        buckets.clear();
+    }
+
+    /**
+     * Writes the current statistics as CSV into the app's files directory and returns the file.
+     * Does file I/O, so call it off the main thread.
+     */
+    public File exportCsv(Context context) throws IOException {
+        File dir = new File(context.getFilesDir(), "diagnostics");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date());
+        File file = new File(dir, "jank-" + stamp + ".csv");
+        try (Writer writer = new FileWriter(file)) {
+            writer.write("screen,state,frames,janky,frozen,jank_percent,p50_ms,p90_ms,p95_ms,p99_ms\n");
+            for (Stats stats : getStats()) {
+                writer.write(String.format(Locale.US, "%s,%s,%d,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f\n",
+                        stats.screen, stats.state, stats.frames, stats.jankyFrames, stats.frozenFrames,
+                        stats.getJankPercent(), stats.p50Ms, stats.p90Ms, stats.p95Ms, stats.p99Ms));
+            }
+        }
+        return file;
+    }
+
+    private synchronized void record(String screen, boolean scrolling, long durationNs, long deadlineNs) {
+        Map<String, Bucket> states = buckets.get(screen);
+        if (states == null) {
+            states = new HashMap<>();
+            buckets.put(screen, states);
+        }
+        String state = scrolling ? STATE_SCROLLING : STATE_IDLE;
+        Bucket bucket = states.get(state);
+        if (bucket == null) {
+            bucket = new Bucket();
+            states.put(state, bucket);
+        }
+        bucket.add(durationNs, deadlineNs);
+    }
+
+    private void startTracking(Activity activity) {
+        String screen = activity.getClass().getSimpleName();
+        float refreshRate = activity.getWindowManager().getDefaultDisplay().getRefreshRate();
+        long refreshDeadlineNs = (long) (1_000_000_000L / (refreshRate > 0 ? refreshRate : 60));
+
+        Window.OnFrameMetricsAvailableListener listener = (window, metrics, dropCount) -> {
+            // The first frame of a window includes its whole setup; that is startup, not jank
+            if (metrics.getMetric(FrameMetrics.FIRST_DRAW_FRAME) == 1) {
+                return;
+            }
+            long deadlineNs = Build.VERSION.SDK_INT >= Build.VERSION_CODES.S
+                    ? metrics.getMetric(FrameMetrics.DEADLINE) : refreshDeadlineNs;
+            long vsyncNs = metrics.getMetric(FrameMetrics.INTENDED_VSYNC_TIMESTAMP);
+            boolean scrolling = lastScrollNs >= vsyncNs - SCROLL_WINDOW_NS;
+            record(screen, scrolling, metrics.getMetric(FrameMetrics.TOTAL_DURATION), deadlineNs);
+        };
+        activity.getWindow().addOnFrameMetricsAvailableListener(listener, metricsHandler);
+        listeners.put(activity, listener);
+
+        // Fired for any scrolling view in the window: lists, scroll views, nested lists
+        ViewTreeObserver.OnScrollChangedListener scrollListener = () -> lastScrollNs = System.nanoTime();
+        activity.getWindow().getDecorView().getViewTreeObserver().addOnScrollChangedListener(scrollListener);
+        scrollListeners.put(activity, scrollListener);
+    }
+
+    private void stopTracking(Activity activity) {
+        Window.OnFrameMetricsAvailableListener listener = listeners.remove(activity);
+        if (listener != null) {
+            activity.getWindow().removeOnFrameMetricsAvailableListener(listener);
+        }
+        ViewTreeObserver.OnScrollChangedListener scrollListener = scrollListeners.remove(activity);
+        if (scrollListener != null) {
+            activity.getWindow().getDecorView().getViewTreeObserver().removeOnScrollChangedListener(scrollListener);
+        }
+    }
+
+    private class ScreenTracker implements Application.ActivityLifecycleCallbacks {
+        @Override
+        public void onActivityResumed(@NonNull Activity activity) {
+            startTracking(activity);
+        }
+
+        @Override
+        public void onActivityPaused(@NonNull Activity activity) {
+            stopTracking(activity);
+        }
+
+        @Override
+        public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityStarted(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(@NonNull Activity activity) {
+        }
+    }
+}
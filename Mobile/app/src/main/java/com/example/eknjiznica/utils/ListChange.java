@@ -0,0 +1,68 @@
+package com.example.eknjiznica.utils;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * What changed in a list a screen shows: the whole list, one row, a range of inserted
+ * rows or a removed row. Emitted by ViewModels through ListChangeLiveData and applied to the adapter.
+ */
+public final class ListChange {
+    private static final int KIND_ALL = 0;
+    private static final int KIND_CHANGED = 1;
+    private static final int KIND_INSERTED = 2;
+    private static final int KIND_REMOVED = 3;
+
+    public static final ListChange ALL = new ListChange(KIND_ALL, 0, 0);
+
+    private final int kind;
+    public final int position;
+    public final int count;
+
+    private ListChange(int kind, int position, int count) {
+        this.kind = kind;
+        this.position = position;
+        this.count = count;
+    }
+
+    public static ListChange changed(int position) {
+        return new ListChange(KIND_CHANGED, position, 1);
+    }
+
+    public static ListChange inserted(int position, int count) {
+        return new ListChange(KIND_INSERTED, position, count);
+    }
+
+    public static ListChange removed(int position) {
+        return new ListChange(KIND_REMOVED, position, 1);
+    }
+
+    public boolean isAll() {
+        return kind == KIND_ALL;
+    }
+
+    public void dispatchTo(RecyclerView.Adapter<?> adapter) {
+        if (kind == KIND_CHANGED) {
+            adapter.notifyItemChanged(position);
+        } else if (kind == KIND_INSERTED) {
+            adapter.notifyItemRangeInserted(position, count);
+        } else if (kind == KIND_REMOVED) {
+            adapter.notifyItemRemoved(position);
+        } else {
+            adapter.notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * One change covering this one followed by the later one: the same row twice, or two
+     * adjacent inserts, stay precise; anything else becomes ALL.
+     */
+    ListChange merge(ListChange later) {
+        if (kind == KIND_CHANGED && later.kind == KIND_CHANGED && position == later.position) {
+            return this;
+        }
+        if (kind == KIND_INSERTED && later.kind == KIND_INSERTED && later.position == position + count) {
+            return inserted(position, count + later.count);
+        }
+        return ALL;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.eknjiznica.utils;
+
+import androidx.lifecycle.LiveData;
+
+/**
+ * LiveData of list changes that does not lose any while the screen is stopped. LiveData
+ * only keeps the latest value, so a row update arriving after a full replacement would hide
+ * the replacement from the adapter; changes set while no observer is active are merged
+ * instead, and a pending ALL always wins.
+ */
+public class ListChangeLiveData extends LiveData<ListChange> {
+    // Set while no observer was active and not delivered yet
+    private ListChange pending;
+
+    public void setChange(ListChange change) {
+        if (!hasActiveObservers()) {
+            pending = pending == null ? change : pending.merge(change);
+            change = pending;
+        }
+        setValue(change);
+    }
+
+    @Override
+    protected void onActive() {
+        // The current value, which includes everything pending, is dispatched right after this
+        pending = null;
+    }
+}
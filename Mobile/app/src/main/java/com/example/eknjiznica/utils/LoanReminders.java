@@ -0,0 +1,199 @@
+package com.example.eknjiznica.utils;
+
+import android.app.AlarmManager;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Build;
+
+import com.example.eknjiznica.models.Loan;
+import com.example.eknjiznica.receivers.LoanReminderReceiver;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Schedules local due-date reminders (the day before and on the due day) for the member's
+ * open loans. Alarms are only rebuilt when the set of open loans or their due dates change,
+ * so nothing polls the server for them. AlarmManager rather than WorkManager, because a
+ * reminder belongs at a wall-clock time: exact alarms fire at 09:00 even in Doze, whereas
+ * work may be deferred by hours.
+ */
+public class LoanReminders {
+    public static final String CHANNEL_ID = "loan_reminders";
+    public static final int KIND_DAY_BEFORE = 0;
+    public static final int KIND_DUE_DAY = 1;
+
+    private static final String PREFS_NAME = "LoanReminders";
+    private static final String KEY_SIGNATURE = "signature";
+    private static final String KEY_SCHEDULED = "scheduled";
+    // Kept across logout: the user's answer is about this device, not the account
+    private static final String KEY_PERMISSION_DECLINED = "permissionDeclined";
+    private static final int REMIND_HOUR = 9;
+    // Window used when exact alarms are not allowed on this device
+    private static final long INEXACT_WINDOW_MS = 15 * 60 * 1000;
+
+    private static LoanReminders instance;
+    private final Context context;
+    private final AlarmManager alarmManager;
+    private final SharedPreferences prefs;
+
+    private LoanReminders(Context context) {
+        this.context = context;
+        alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new LoanReminders(context.getApplicationContext());
+            instance.createChannel();
+        }
+    }
+
+    public static synchronized LoanReminders getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("LoanReminders.init() was not called");
+        }
+        return instance;
+    }
+
+    /**
+     * Reschedules reminders for the given loan list if its open loans differ from last time.
+     */
+    public void sync(List<Loan> loans) {
+        List<Loan> open = new ArrayList<>();
+        for (Loan loan : loans) {
+            if (!"Returned".equals(loan.getStatus()) && loan.getDueDate() != null) {
+                open.add(loan);
+            }
+        }
+        Collections.sort(open, (a, b) -> Integer.compare(a.getId(), b.getId()));
+
+        String signature = signature(open);
+        if (signature.equals(prefs.getString(KEY_SIGNATURE, null))) {
+            return;
+        }
+
+        cancelScheduled();
+        Set<String> scheduled = new HashSet<>();
+        long now = System.currentTimeMillis();
+        for (Loan loan : open) {
+            long dueDay = remindTimeOnDay(loan, 0);
+            long dayBefore = remindTimeOnDay(loan, -1);
+            if (dayBefore > now) {
+                scheduled.add(String.valueOf(schedule(loan, KIND_DAY_BEFORE, dayBefore)));
+            }
+            if (dueDay > now) {
+                scheduled.add(String.valueOf(schedule(loan, KIND_DUE_DAY, dueDay)));
+            }
+        }
+        prefs.edit()
+                .putString(KEY_SIGNATURE, signature)
+                .putStringSet(KEY_SCHEDULED, scheduled)
+                .apply();
+    }
+
+    /**
+     * Re-arms reminders from the persisted My Loans snapshot, since a reboot clears all alarms.
+     */
+    public void restore(Runnable done) {
+        prefs.edit().remove(KEY_SIGNATURE).apply();
+        SnapshotStore.getInstance().read(DataCache.KEY_MY_LOANS, SnapshotCodecs.LOAN, loans -> {
+            if (loans != null) {
+                sync(loans);
+            }
+            done.run();
+        });
+    }
+
+    public void cancelAll() {
+        cancelScheduled();
+        prefs.edit().remove(KEY_SIGNATURE).remove(KEY_SCHEDULED).apply();
+    }
+
+    public boolean hasScheduled() {
+        return !prefs.getStringSet(KEY_SCHEDULED, Collections.<String>emptySet()).isEmpty();
+    }
+
+    /**
+     * Whether the user turned down the explanation of why reminders need notifications.
+     */
+    public boolean isPermissionDeclined() {
+        return prefs.getBoolean(KEY_PERMISSION_DECLINED, false);
+    }
+
+    public void setPermissionDeclined() {
+        prefs.edit().putBoolean(KEY_PERMISSION_DECLINED, true).apply();
+    }
+
+    private int schedule(Loan loan, int kind, long triggerAt) {
+        int requestCode = requestCode(loan.getId(), kind);
+        Intent intent = new Intent(context, LoanReminderReceiver.class)
+                .setAction(LoanReminderReceiver.ACTION_REMIND)
+                .putExtra(LoanReminderReceiver.EXTRA_LOAN_ID, loan.getId())
+                .putExtra(LoanReminderReceiver.EXTRA_KIND, kind)
+                .putExtra(LoanReminderReceiver.EXTRA_TITLE,
+                        loan.getBook() != null ? loan.getBook().getTitle() : null);
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(context, requestCode, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.S || alarmManager.canScheduleExactAlarms()) {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerAt, pendingIntent);
+        } else {
+            alarmManager.setWindow(AlarmManager.RTC_WAKEUP, triggerAt, INEXACT_WINDOW_MS, pendingIntent);
+        }
+        return requestCode;
+    }
+
+    private void cancelScheduled() {
+        Set<String> scheduled = prefs.getStringSet(KEY_SCHEDULED, Collections.emptySet());
+        for (String code : scheduled) {
+            Intent intent = new Intent(context, LoanReminderReceiver.class)
+                    .setAction(LoanReminderReceiver.ACTION_REMIND);
+            PendingIntent pendingIntent = PendingIntent.getBroadcast(context, Integer.parseInt(code), intent,
+                    PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE);
+            if (pendingIntent != null) {
+                alarmManager.cancel(pendingIntent);
+                pendingIntent.cancel();
+            }
+        }
+    }
+
+    private void createChannel() {
+        NotificationChannel channel = new NotificationChannel(CHANNEL_ID, "Loan reminders",
+                NotificationManager.IMPORTANCE_DEFAULT);
+        channel.setDescription("Reminders before a borrowed book is due");
+        context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+    }
+
+    private static long remindTimeOnDay(Loan loan, int dayOffset) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(loan.getDueDate());
+        calendar.add(Calendar.DAY_OF_YEAR, dayOffset);
+        calendar.set(Calendar.HOUR_OF_DAY, REMIND_HOUR);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    private static int requestCode(int loanId, int kind) {
+        return loanId * 2 + kind;
+    }
+
+    private static String signature(List<Loan> open) {
+        StringBuilder builder = new StringBuilder();
+        for (Loan loan : open) {
+            builder.append(loan.getId()).append(':').append(loan.getDueDate().getTime()).append(';');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.eknjiznica.utils;
+
+import android.content.Context;
+
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+
+import com.example.eknjiznica.workers.MemberSyncWorker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules MemberSyncWorker, which refreshes all of a member's lists in one wake-up.
+ * Repeated requests coalesce into the sync that is already queued or running.
+ */
+public class MemberSync {
+    // Lists refreshed by a sync this recently are shown without asking the server again
+    public static final long FRESH_FOR_MS = 5 * 60 * 1000;
+
+    private static final String WORK_ONCE = "member-sync";
+    private static final String WORK_PERIODIC = "member-sync-periodic";
+    private static final long PERIOD_HOURS = 1;
+
+    private static MemberSync instance;
+    private final Context context;
+
+    private MemberSync(Context context) {
+        this.context = context;
+    }
+
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new MemberSync(context.getApplicationContext());
+        }
+    }
+
+    public static synchronized MemberSync getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("MemberSync.init() was not called");
+        }
+        return instance;
+    }
+
+    /**
+     * Syncs as soon as there is a connection, unless all member lists are still fresh.
+     */
+    public void requestSync() {
+        DataCache cache = DataCache.getInstance();
+        if (cache.get(DataCache.KEY_MY_LOANS, FRESH_FOR_MS) != null
+                && cache.get(DataCache.KEY_MY_RESERVATIONS, FRESH_FOR_MS) != null
+                && cache.get(DataCache.KEY_MY_FINES, FRESH_FOR_MS) != null) {
+            return;
+        }
+
+        // On metered or slow connections wait for a better one; the screens still load on demand
+        NetworkType networkType = NetworkMonitor.getInstance().shouldDeferBackgroundWork()
+                ? NetworkType.UNMETERED : NetworkType.CONNECTED;
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(networkType)
+                .setRequiresBatteryNotLow(true)
+                .build();
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(MemberSyncWorker.class)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_ONCE, ExistingWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Keeps the stored lists current in the background, only on unmetered networks while
+     * the device is idle and the battery is not low.
+     */
+    public void schedulePeriodic() {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresBatteryNotLow(true)
+                .setRequiresDeviceIdle(true)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(MemberSyncWorker.class,
+                PERIOD_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(WORK_PERIODIC,
+                ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    public void cancelAll() {
+        WorkManager workManager = WorkManager.getInstance(context);
+        workManager.cancelUniqueWork(WORK_ONCE);
+        workManager.cancelUniqueWork(WORK_PERIODIC);
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.eknjiznica.utils;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Response;
+
+/**
+ * Rates the current connection from ConnectivityManager callbacks and the throughput and
+ * latency measured on recent API calls, and turns that into the fetch settings other
+ * components use (page sizes, prefetching, search debounce, background sync).
+ * Safe to call from any thread.
+ */
+public class NetworkMonitor {
+    private static final String TAG = "NetworkMonitor";
+
+    public enum Tier {
+        OFFLINE, POOR, MODERATE, GOOD
+    }
+
+    // Bodies smaller than this say more about latency than about bandwidth
+    private static final long MIN_THROUGHPUT_BYTES = 4 * 1024;
+    // Weight of the newest sample in the moving averages
+    private static final double SAMPLE_WEIGHT = 0.3;
+
+    private static NetworkMonitor instance;
+
+    private Network network;
+    private boolean connected;
+    private boolean metered;
+    private int linkDownKbps;
+    private double measuredKbps = -1;
+    private double measuredLatencyMs = -1;
+    private Tier tier = Tier.OFFLINE;
+
+    private NetworkMonitor() {
+    }
+
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new NetworkMonitor();
+            instance.register(context.getApplicationContext());
+        }
+    }
+
+    public static synchronized NetworkMonitor getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("NetworkMonitor.init() was not called");
+        }
+        return instance;
+    }
+
+    public synchronized Tier getTier() {
+        return tier;
+    }
+
+    public synchronized boolean isMetered() {
+        return metered;
+    }
+
+    /**
+     * Estimated downstream bandwidth, measured when possible, otherwise the link's estimate.
+     */
+    public synchronized int getBandwidthKbps() {
+        return measuredKbps >= 0 ? (int) measuredKbps : linkDownKbps;
+    }
+
+    /**
+     * Average time to the response headers of recent calls, or -1 before the first call.
+     */
+    public synchronized int getLatencyMs() {
+        return (int) measuredLatencyMs;
+    }
+
+    public synchronized int getPageSize() {
+        switch (tier) {
+            case GOOD:
+                return 50;
+            case MODERATE:
+                return 25;
+            default:
+                return 10;
+        }
+    }
+
+    /**
+     * Whether data the user has not asked for yet (book details, reviews) is worth fetching.
+     */
+    public synchronized boolean shouldPrefetch() {
+        return tier == Tier.GOOD || (tier == Tier.MODERATE && !metered);
+    }
+
+    public synchronized long getSearchDebounceMs() {
+        switch (tier) {
+            case GOOD:
+                return 300;
+            case MODERATE:
+                return 500;
+            default:
+                return 900;
+        }
+    }
+
+    /**
+     * Whether background sync should wait for an unmetered, faster connection.
+     */
+    public synchronized boolean shouldDeferBackgroundWork() {
+        return metered || tier.compareTo(Tier.MODERATE) < 0;
+    }
+
+    /**
+     * OkHttp listener factory that feeds every call's timings into the monitor.
+     */
+    public EventListener.Factory eventListenerFactory() {
+        return call -> new CallTimer();
+    }
+
+    private void register(Context context) {
+        ConnectivityManager connectivityManager = context.getSystemService(ConnectivityManager.class);
+        connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onCapabilitiesChanged(@NonNull Network network, @NonNull NetworkCapabilities capabilities) {
+                synchronized (NetworkMonitor.this) {
+                    if (!network.equals(NetworkMonitor.this.network)) {
+                        // A different link: earlier measurements no longer apply
+                        NetworkMonitor.this.network = network;
+                        measuredKbps = -1;
+                        measuredLatencyMs = -1;
+                    }
+                    connected = capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+                    metered = !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+                    linkDownKbps = capabilities.getLinkDownstreamBandwidthKbps();
+                    updateTier();
+                }
+            }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                synchronized (NetworkMonitor.this) {
+                    NetworkMonitor.this.network = null;
+                    connected = false;
+                    updateTier();
+                }
+            }
+        });
+    }
+
+    private synchronized void addSample(long latencyMs, long bytes, long totalMs) {
+        measuredLatencyMs = average(measuredLatencyMs, latencyMs);
+        if (bytes >= MIN_THROUGHPUT_BYTES && totalMs > 0) {
+            measuredKbps = average(measuredKbps, bytes * 8.0 / totalMs);
+        }
+        updateTier();
+    }
+
+    private void updateTier() {
+        Tier updated;
+        int kbps = getBandwidthKbps();
+        if (!connected) {
+            updated = Tier.OFFLINE;
+        } else if (kbps < 150 || measuredLatencyMs > 1500) {
+            updated = Tier.POOR;
+        } else if (kbps < 1500 || measuredLatencyMs > 400) {
+            updated = Tier.MODERATE;
+        } else {
+            updated = Tier.GOOD;
+        }
+        if (updated != tier) {
+            tier = updated;
+            Log.i(TAG, "Network tier " + updated + " (" + kbps + " kbps, "
+                    + (int) measuredLatencyMs + " ms, metered=" + metered + ")");
+        }
+    }
+
+    private static double average(double current, double sample) {
+        return current < 0 ? sample : current + SAMPLE_WEIGHT * (sample - current);
+    }
+
+    private class CallTimer extends EventListener {
+        private long startNs;
+        private long headersNs;
+
+        @Override
+        public void callStart(@NonNull Call call) {
+            startNs = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersEnd(@NonNull Call call, @NonNull Response response) {
+            headersNs = System.nanoTime();
+        }
+
+        @Override
+        public void responseBodyEnd(@NonNull Call call, long byteCount) {
+            if (headersNs == 0) {
+                return;
+            }
+            long now = System.nanoTime();
+            addSample((headersNs - startNs) / 1_000_000, byteCount, (now - startNs) / 1_000_000);
+        }
+    }
+}
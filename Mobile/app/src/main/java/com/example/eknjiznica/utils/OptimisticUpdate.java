@@ -0,0 +1,53 @@
+package com.example.eknjiznica.utils;
+
+import java.util.List;
+
+/**
+ * Replaces one row with a locally patched copy before the server confirms the change.
+ * The row is swapped for the server's version on commit, or restored on rollback.
+ */
+public class OptimisticUpdate<T> {
+    public interface OnItemChangedListener {
+        void onItemChanged(int position);
+    }
+
+    private final List<T> list;
+    private final OnItemChangedListener listener;
+    private final T original;
+    private T current;
+
+    private OptimisticUpdate(List<T> list, OnItemChangedListener listener, T original, T patched) {
+        this.list = list;
+        this.listener = listener;
+        this.original = original;
+        this.current = patched;
+    }
+
+    public static <T> OptimisticUpdate<T> apply(List<T> list, OnItemChangedListener listener, T original, T patched) {
+        OptimisticUpdate<T> update = new OptimisticUpdate<>(list, listener, original, original);
+        update.replace(patched);
+        return update;
+    }
+
+    /**
+     * Keeps the optimistic row, replacing it with the server's copy when one was returned.
+     */
+    public void commit(T confirmed) {
+        if (confirmed != null) {
+            replace(confirmed);
+        }
+    }
+
+    public void rollback() {
+        replace(original);
+    }
+
+    private void replace(T item) {
+        int position = list.indexOf(current);
+        if (position >= 0) {
+            list.set(position, item);
+            listener.onItemChanged(position);
+        }
+        current = item;
+    }
+}
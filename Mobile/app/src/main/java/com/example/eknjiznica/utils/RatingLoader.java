@@ -0,0 +1,186 @@
+package com.example.eknjiznica.utils;
+
+import android.util.Log;
+import android.view.Choreographer;
+
+import com.example.eknjiznica.api.ApiService;
+import com.example.eknjiznica.api.RequestPriority;
+import com.example.eknjiznica.api.RequestScheduler;
+import com.example.eknjiznica.api.RetrofitClient;
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.RatingSummary;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Resolves book ratings for list rows. Lookups made during one frame are collected and
+ * sent as a single multi-id request; results are cached in the DataCache, and concurrent
+ * lookups of the same book share one request. Falls back to the per-book endpoint only when
+ * the server has no batch endpoint (404); any other failed batch is dropped, so rows stay
+ * without a rating until they are bound again. Must be used from the main thread.
+ */
+public class RatingLoader {
+    private static final String TAG = "RatingLoader";
+    // Matches the server's limit on the multi-id endpoint
+    private static final int MAX_BATCH = 100;
+
+    public interface Listener {
+        void onRating(RatingSummary rating);
+    }
+
+    private static RatingLoader instance;
+    private final ApiService apiService = RetrofitClient.getInstance().getApiService();
+    // Listeners of books that are queued or in flight
+    private final Map<Integer, List<Listener>> waiting = new HashMap<>();
+    private final List<Integer> queued = new ArrayList<>();
+    private boolean frameScheduled;
+    private boolean batchUnsupported;
+    private int cacheHits;
+    private int batchRequests;
+    // Books resolved by successful batch requests
+    private int batchedBooks;
+
+    private RatingLoader() {
+    }
+
+    public static synchronized RatingLoader getInstance() {
+        if (instance == null) {
+            instance = new RatingLoader();
+        }
+        return instance;
+    }
+
+    /**
+     * Calls the listener with the book's rating, right away if it is cached.
+     */
+    public void load(int bookId, Listener listener) {
+        RatingSummary cached = DataCache.getInstance().getValue(DataCache.bookRatingKey(bookId), BookPrefetcher.MAX_AGE_MS);
+        if (cached != null) {
+            cacheHits++;
+            listener.onRating(cached);
+            return;
+        }
+
+        List<Listener> listeners = waiting.get(bookId);
+        if (listeners != null) {
+            listeners.add(listener);
+            return;
+        }
+        listeners = new ArrayList<>();
+        listeners.add(listener);
+        waiting.put(bookId, listeners);
+        queued.add(bookId);
+
+        if (!frameScheduled) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(frameTimeNanos -> dispatch());
+        }
+    }
+
+    /**
+     * Per-book requests that batching replaced: books resolved by batches minus the batch
+     * requests themselves.
+     */
+    public int getRequestsSaved() {
+        return batchedBooks - batchRequests;
+    }
+
+    /**
+     * Lookups answered from the DataCache, e.g. when a row is bound again.
+     */
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    private void dispatch() {
+        frameScheduled = false;
+        List<Integer> bookIds = new ArrayList<>(queued);
+        queued.clear();
+        for (int start = 0; start < bookIds.size(); start += MAX_BATCH) {
+            List<Integer> chunk = new ArrayList<>(bookIds.subList(start, Math.min(start + MAX_BATCH, bookIds.size())));
+            if (batchUnsupported || chunk.size() == 1) {
+                loadEach(chunk);
+            } else {
+                loadBatch(chunk);
+            }
+        }
+    }
+
+    private void loadBatch(List<Integer> bookIds) {
+        Call<ApiResponse<List<RatingSummary>>> call = apiService.getBookRatings(bookIds);
+        RequestScheduler.getInstance().enqueue(RequestPriority.VISIBLE_PREFETCH, call, new Callback<ApiResponse<List<RatingSummary>>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<List<RatingSummary>>> call, Response<ApiResponse<List<RatingSummary>>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()
+                        && response.body().getData() != null) {
+                    List<RatingSummary> ratings = response.body().getData();
+                    batchRequests++;
+                    batchedBooks += ratings.size();
+                    for (RatingSummary rating : ratings) {
+                        resolve(rating.getBookId(), rating);
+                    }
+                    drop(bookIds);
+                    Log.d(TAG, ratings.size() + " ratings in one request; " + getRequestsSaved()
+                            + " requests saved by batching so far");
+                } else if (response.code() == 404) {
+                    // An older server without the batch endpoint
+                    batchUnsupported = true;
+                    loadEach(bookIds);
+                } else {
+                    // Retrying each id would turn one failed request into up to MAX_BATCH of them
+                    drop(bookIds);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<List<RatingSummary>>> call, Throwable t) {
+                // Offline - rows stay without a rating until they are bound again
+                drop(bookIds);
+            }
+        });
+    }
+
+    private void loadEach(List<Integer> bookIds) {
+        for (int bookId : bookIds) {
+            Call<ApiResponse<RatingSummary>> call = apiService.getBookRating(bookId);
+            RequestScheduler.getInstance().enqueue(RequestPriority.VISIBLE_PREFETCH, call, new Callback<ApiResponse<RatingSummary>>() {
+                @Override
+                public void onResponse(Call<ApiResponse<RatingSummary>> call, Response<ApiResponse<RatingSummary>> response) {
+                    if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                        resolve(bookId, response.body().getData());
+                    } else {
+                        waiting.remove(bookId);
+                    }
+                }
+
+                @Override
+                public void onFailure(Call<ApiResponse<RatingSummary>> call, Throwable t) {
+                    waiting.remove(bookId);
+                }
+            });
+        }
+    }
+
+    private void resolve(int bookId, RatingSummary rating) {
+        DataCache.getInstance().putValue(DataCache.bookRatingKey(bookId), rating);
+        List<Listener> listeners = waiting.remove(bookId);
+        if (listeners != null) {
+            for (Listener listener : listeners) {
+                listener.onRating(rating);
+            }
+        }
+    }
+
+    private void drop(List<Integer> bookIds) {
+        for (int bookId : bookIds) {
+            waiting.remove(bookId);
+        }
+    }
+}
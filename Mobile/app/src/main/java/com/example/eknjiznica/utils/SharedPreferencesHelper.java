@@ -12,21 +12,42 @@ import java.util.List;
 
 public class SharedPreferencesHelper {
     private static final String PREFS_NAME = "EKnjiznicaPrefs";
+    // UI settings of this device, which outlive the session and are not cleared on logout
+    private static final String DEVICE_PREFS_NAME = "EKnjiznicaDevicePrefs";
     private static final String KEY_TOKEN = "token";
     private static final String KEY_EMAIL = "email";
     private static final String KEY_USER_ID = "userId";
     private static final String KEY_ROLES = "roles";
     private static final String KEY_IS_LOGGED_IN = "isLoggedIn";
+    private static final String KEY_DRAWN_BOOK_ROWS = "drawnBookRows";
+    private static final String KEY_COMPACT_CATALOG = "compactCatalog";
 
     private SharedPreferences prefs;
+    private SharedPreferences devicePrefs;
     private Gson gson;
 
     public SharedPreferencesHelper(Context context) {
-        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        // The first access in a process loads the file from disk
+        Tracing.begin("prefs.open");
+        try {
+            prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+            devicePrefs = context.getSharedPreferences(DEVICE_PREFS_NAME, Context.MODE_PRIVATE);
+        } finally {
+            Tracing.end();
+        }
         gson = new Gson();
     }
 
     public void saveLoginResponse(LoginResponse response) {
+        Tracing.begin("prefs.saveLogin");
+        try {
+            saveLogin(response);
+        } finally {
+            Tracing.end();
+        }
+    }
+
+    private void saveLogin(LoginResponse response) {
         SharedPreferences.Editor editor = prefs.edit();
         editor.putString(KEY_TOKEN, response.getToken());
         editor.putString(KEY_EMAIL, response.getEmail());
@@ -41,29 +62,56 @@ public class SharedPreferencesHelper {
         editor.apply();
     }
 
+    // The reads below run on the main thread of nearly every screen; the first one in a
+    // process waits for the file load started by the constructor
     public String getToken() {
-        return prefs.getString(KEY_TOKEN, null);
+        Tracing.begin("prefs.getToken");
+        try {
+            return prefs.getString(KEY_TOKEN, null);
+        } finally {
+            Tracing.end();
+        }
     }
 
     public String getEmail() {
-        return prefs.getString(KEY_EMAIL, null);
+        Tracing.begin("prefs.getEmail");
+        try {
+            return prefs.getString(KEY_EMAIL, null);
+        } finally {
+            Tracing.end();
+        }
     }
 
     public String getUserId() {
-        return prefs.getString(KEY_USER_ID, null);
+        Tracing.begin("prefs.getUserId");
+        try {
+            return prefs.getString(KEY_USER_ID, null);
+        } finally {
+            Tracing.end();
+        }
     }
 
     public List<String> getRoles() {
-        String rolesJson = prefs.getString(KEY_ROLES, null);
-        if (rolesJson == null) {
-            return null;
+        Tracing.begin("prefs.getRoles");
+        try {
+            String rolesJson = prefs.getString(KEY_ROLES, null);
+            if (rolesJson == null) {
+                return null;
+            }
+            Type type = new TypeToken<List<String>>(){}.getType();
+            return gson.fromJson(rolesJson, type);
+        } finally {
+            Tracing.end();
         }
-        Type type = new TypeToken<List<String>>(){}.getType();
-        return gson.fromJson(rolesJson, type);
     }
 
     public boolean isLoggedIn() {
-        return prefs.getBoolean(KEY_IS_LOGGED_IN, false);
+        Tracing.begin("prefs.isLoggedIn");
+        try {
+            return prefs.getBoolean(KEY_IS_LOGGED_IN, false);
+        } finally {
+            Tracing.end();
+        }
     }
 
     public boolean isLibrarian() {
@@ -76,14 +124,52 @@ public class SharedPreferencesHelper {
         return roles != null && roles.contains("Member");
     }
 
+    /**
+     * Whether the catalog uses the custom-drawn BookRowView instead of item_book.xml.
+     */
+    public boolean useDrawnBookRows() {
+        // Falls back to where the setting was kept before it moved to the device prefs
+        return devicePrefs.getBoolean(KEY_DRAWN_BOOK_ROWS, prefs.getBoolean(KEY_DRAWN_BOOK_ROWS, false));
+    }
+
+    public void setDrawnBookRows(boolean drawn) {
+        devicePrefs.edit().putBoolean(KEY_DRAWN_BOOK_ROWS, drawn).apply();
+    }
+
+    /**
+     * Whether the catalog is held in a CatalogStore instead of a list of Book objects.
+     */
+    public boolean useCompactCatalog() {
+        return devicePrefs.getBoolean(KEY_COMPACT_CATALOG, prefs.getBoolean(KEY_COMPACT_CATALOG, false));
+    }
+
+    public void setCompactCatalog(boolean compact) {
+        devicePrefs.edit().putBoolean(KEY_COMPACT_CATALOG, compact).apply();
+    }
+
+    /**
+     * Logs out: drops the session and every cache of account data. Device UI settings stay.
+     */
     public void clear() {
         SharedPreferences.Editor editor = prefs.edit();
         editor.clear();
         editor.apply();
+        CacheWarmer.getInstance().cancelAll();
+        DataCache.getInstance().clear();
+        SnapshotStore.getInstance().clear();
+        CirculationAnalytics.getInstance().clear();
+        TextPrecomputer.getInstance().clear();
+        LoanReminders.getInstance().cancelAll();
+        MemberSync.getInstance().cancelAll();
     }
 
     public String getAuthHeader() {
-        String token = getToken();
-        return token != null ? "Bearer " + token : null;
+        Tracing.begin("prefs.getAuthHeader");
+        try {
+            String token = getToken();
+            return token != null ? "Bearer " + token : null;
+        } finally {
+            Tracing.end();
+        }
     }
 }
@@ -0,0 +1,134 @@
+package com.example.eknjiznica.utils;
+
+import com.example.eknjiznica.models.Book;
+import com.example.eknjiznica.models.Fine;
+import com.example.eknjiznica.models.Loan;
+import com.example.eknjiznica.models.Reservation;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Binary layouts of the models stored in snapshots. Only fields the list rows render are
+ * kept; nested users are dropped. Bump SnapshotStore.FORMAT_VERSION when a layout changes.
+ */
+public final class SnapshotCodecs {
+
+    private SnapshotCodecs() {
+    }
+
+    public static final SnapshotStore.Codec<Book> BOOK = new SnapshotStore.Codec<Book>() {
+        @Override
+        public void write(DataOutputStream out, Book book) throws IOException {
+            out.writeInt(book.getId());
+            SnapshotStore.writeString(out, book.getTitle());
+            SnapshotStore.writeString(out, book.getAuthor());
+            out.writeInt(book.getYear());
+            SnapshotStore.writeString(out, book.getGenre());
+            out.writeBoolean(book.isAvailable());
+        }
+
+        @Override
+        public Book read(DataInputStream in) throws IOException {
+            int id = in.readInt();
+            String title = SnapshotStore.readString(in);
+            String author = SnapshotStore.readString(in);
+            int year = in.readInt();
+            String genre = SnapshotStore.readString(in);
+            boolean available = in.readBoolean();
+            return new Book(id, title, author, year, genre, available);
+        }
+    };
+
+    public static final SnapshotStore.Codec<Loan> LOAN = new SnapshotStore.Codec<Loan>() {
+        @Override
+        public void write(DataOutputStream out, Loan loan) throws IOException {
+            out.writeInt(loan.getId());
+            SnapshotStore.writeString(out, loan.getUserId());
+            out.writeInt(loan.getBookId());
+            writeBook(out, loan.getBook());
+            SnapshotStore.writeDate(out, loan.getLoanDate());
+            SnapshotStore.writeDate(out, loan.getDueDate());
+            SnapshotStore.writeDate(out, loan.getReturnDate());
+            SnapshotStore.writeString(out, loan.getStatus());
+        }
+
+        @Override
+        public Loan read(DataInputStream in) throws IOException {
+            Loan loan = new Loan();
+            loan.setId(in.readInt());
+            loan.setUserId(SnapshotStore.readString(in));
+            loan.setBookId(in.readInt());
+            loan.setBook(readBook(in));
+            loan.setLoanDate(SnapshotStore.readDate(in));
+            loan.setDueDate(SnapshotStore.readDate(in));
+            loan.setReturnDate(SnapshotStore.readDate(in));
+            loan.setStatus(SnapshotStore.readString(in));
+            return loan;
+        }
+    };
+
+    public static final SnapshotStore.Codec<Reservation> RESERVATION = new SnapshotStore.Codec<Reservation>() {
+        @Override
+        public void write(DataOutputStream out, Reservation reservation) throws IOException {
+            out.writeInt(reservation.getId());
+            SnapshotStore.writeString(out, reservation.getUserId());
+            out.writeInt(reservation.getBookId());
+            writeBook(out, reservation.getBook());
+            SnapshotStore.writeDate(out, reservation.getReservationDate());
+            SnapshotStore.writeDate(out, reservation.getExpiryDate());
+            out.writeBoolean(reservation.isApproved());
+        }
+
+        @Override
+        public Reservation read(DataInputStream in) throws IOException {
+            Reservation reservation = new Reservation();
+            reservation.setId(in.readInt());
+            reservation.setUserId(SnapshotStore.readString(in));
+            reservation.setBookId(in.readInt());
+            reservation.setBook(readBook(in));
+            reservation.setReservationDate(SnapshotStore.readDate(in));
+            reservation.setExpiryDate(SnapshotStore.readDate(in));
+            reservation.setApproved(in.readBoolean());
+            return reservation;
+        }
+    };
+
+    public static final SnapshotStore.Codec<Fine> FINE = new SnapshotStore.Codec<Fine>() {
+        @Override
+        public void write(DataOutputStream out, Fine fine) throws IOException {
+            out.writeInt(fine.getId());
+            SnapshotStore.writeString(out, fine.getUserId());
+            out.writeDouble(fine.getAmount());
+            SnapshotStore.writeString(out, fine.getReason());
+            SnapshotStore.writeDate(out, fine.getIssueDate());
+            out.writeBoolean(fine.isPaid());
+            SnapshotStore.writeDate(out, fine.getPaidDate());
+        }
+
+        @Override
+        public Fine read(DataInputStream in) throws IOException {
+            Fine fine = new Fine();
+            fine.setId(in.readInt());
+            fine.setUserId(SnapshotStore.readString(in));
+            fine.setAmount(in.readDouble());
+            fine.setReason(SnapshotStore.readString(in));
+            fine.setIssueDate(SnapshotStore.readDate(in));
+            fine.setPaid(in.readBoolean());
+            fine.setPaidDate(SnapshotStore.readDate(in));
+            return fine;
+        }
+    };
+
+    private static void writeBook(DataOutputStream out, Book book) throws IOException {
+        out.writeBoolean(book != null);
+        if (book != null) {
+            BOOK.write(out, book);
+        }
+    }
+
+    private static Book readBook(DataInputStream in) throws IOException {
+        return in.readBoolean() ? BOOK.read(in) : null;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.eknjiznica.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.AtomicFile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Last-known contents of the key list screens, persisted in a compact binary format so a
+ * cold start can render them from disk before the first network response arrives.
+ * Files are keyed by the DataCache key and read and written on a single background thread.
+ */
+public class SnapshotStore {
+    private static final int MAGIC = 0x454B534E; // "EKSN"
+    private static final int FORMAT_VERSION = 1;
+    private static final String DIR_NAME = "snapshots";
+    // Far above any list the server returns; a larger count means the file is corrupt
+    static final int MAX_ITEMS = 100_000;
+
+    public interface Codec<T> {
+        void write(DataOutputStream out, T item) throws IOException;
+
+        T read(DataInputStream in) throws IOException;
+    }
+
+    public interface Callback<T> {
+        /**
+         * Called on the main thread; items is null when there is no usable snapshot.
+         */
+        void onLoaded(List<T> items);
+    }
+
+    private static SnapshotStore instance;
+    private final File dir;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private SnapshotStore(Context context) {
+        dir = new File(context.getFilesDir(), DIR_NAME);
+    }
+
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new SnapshotStore(context.getApplicationContext());
+        }
+    }
+
+    public static synchronized SnapshotStore getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("SnapshotStore.init() was not called");
+        }
+        return instance;
+    }
+
+    /**
+     * Persists at most maxItems rows of the list, and never more than MAX_ITEMS. The list is
+     * copied before returning.
+     */
+    public <T> void write(String key, List<T> items, Codec<T> codec, int maxItems) {
+        int count = Math.min(items.size(), Math.min(maxItems, MAX_ITEMS));
+        List<T> copy = new ArrayList<>(items.subList(0, count));
+        executor.execute(() -> {
+            AtomicFile file = fileFor(key);
+            FileOutputStream stream = null;
+            try {
+                if (!dir.exists()) {
+                    dir.mkdirs();
+                }
+                stream = file.startWrite();
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(copy.size());
+                for (T item : copy) {
+                    codec.write(out, item);
+                }
+                out.flush();
+                file.finishWrite(stream);
+            } catch (IOException e) {
+                if (stream != null) {
+                    file.failWrite(stream);
+                }
+            }
+        });
+    }
+
+    public <T> void read(String key, Codec<T> codec, Callback<T> callback) {
+        executor.execute(() -> {
+            List<T> items = readNow(key, codec);
+            mainHandler.post(() -> callback.onLoaded(items));
+        });
+    }
+
+    private <T> List<T> readNow(String key, Codec<T> codec) {
+        AtomicFile file = fileFor(key);
+        if (!file.getBaseFile().exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.openRead()))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                file.delete();
+                return null;
+            }
+            in.readLong(); // saved at
+            int count = in.readInt();
+            if (count < 0 || count > MAX_ITEMS) {
+                // Sizing the list from it could run out of memory and take the executor down
+                file.delete();
+                return null;
+            }
+            List<T> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                items.add(codec.read(in));
+            }
+            return items;
+        } catch (IOException e) {
+            // Truncated or written by an older build - drop it and wait for the network
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Deletes all snapshots, e.g. on logout so the next user never sees them.
+     */
+    public void clear() {
+        executor.execute(() -> {
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+        });
+    }
+
+    private AtomicFile fileFor(String key) {
+        return new AtomicFile(new File(dir, key.replace('/', '_') + ".bin"));
+    }
+
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    public static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    public static void writeDate(DataOutputStream out, Date value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getTime());
+        }
+    }
+
+    public static Date readDate(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new Date(in.readLong()) : null;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.eknjiznica.utils;
+
+import android.app.Activity;
+import android.app.ActivityManager;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+/**
+ * Measures cold start from process creation to the first frame of real content and
+ * reports it via logcat and reportFullyDrawn(), so it also shows in "Fully drawn" logs.
+ * Only a process started to show an activity is measured: one started in the background,
+ * e.g. by a loan reminder or a sync job, may sit idle for hours before the first screen.
+ */
+public final class StartupTimer {
+    private static final String TAG = "StartupTimer";
+
+    private static boolean reported;
+    private static boolean launchedForActivity;
+    private static long coldStartMs = -1;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Call first thing in Application.onCreate(), to tell whether the process was started
+     * for an activity: only then is it in the foreground at that point.
+     */
+    public static void onApplicationCreate() {
+        ActivityManager.RunningAppProcessInfo info = new ActivityManager.RunningAppProcessInfo();
+        ActivityManager.getMyMemoryState(info);
+        launchedForActivity = info.importance == ActivityManager.RunningAppProcessInfo.IMPORTANCE_FOREGROUND;
+    }
+
+    /**
+     * Cold start time of this process, or -1 before the first frame was drawn or when the
+     * process was not started for an activity.
+     */
+    public static long getColdStartMs() {
+        return coldStartMs;
+    }
+
+    /**
+     * Call once a screen reachable from launch (home or login) has set its content. Only
+     * the first call per process is measured; later navigation and rotation are ignored.
+     */
+    public static void reportFirstFrame(Activity activity) {
+        if (reported) {
+            return;
+        }
+        reported = true;
+
+        View content = activity.findViewById(android.R.id.content);
+        content.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                content.getViewTreeObserver().removeOnPreDrawListener(this);
+                if (launchedForActivity) {
+                    long elapsed = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+                    coldStartMs = elapsed;
+                    Log.i(TAG, "Cold start to first frame: " + elapsed + " ms");
+                }
+                activity.reportFullyDrawn();
+                return true;
+            }
+        });
+    }
+}
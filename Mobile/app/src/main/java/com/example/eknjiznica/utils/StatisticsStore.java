@@ -0,0 +1,225 @@
+package com.example.eknjiznica.utils;
+
+import com.example.eknjiznica.models.Book;
+import com.example.eknjiznica.models.LibrarianStatistics;
+import com.example.eknjiznica.models.Loan;
+import com.example.eknjiznica.models.MemberStatistics;
+import com.example.eknjiznica.models.Reservation;
+
+import java.util.List;
+
+/**
+ * Dashboard statistics kept in the DataCache. Mutations patch the cached counts instead of
+ * invalidating them, and when no counts are cached they are derived from fresh cached lists,
+ * so the dashboard only asks the server when neither is possible.
+ */
+public class StatisticsStore {
+    // Counts are kept accurate by the patches below, so they can live longer than lists
+    public static final long MAX_AGE_MS = 5 * 60 * 1000;
+
+    private static final String STATUS_ACTIVE = "Active";
+    private static final String STATUS_OVERDUE = "Overdue";
+
+    private static StatisticsStore instance;
+    private final DataCache cache = DataCache.getInstance();
+
+    private StatisticsStore() {
+    }
+
+    public static synchronized StatisticsStore getInstance() {
+        if (instance == null) {
+            instance = new StatisticsStore();
+        }
+        return instance;
+    }
+
+    public LibrarianStatistics getLibrarian() {
+        LibrarianStatistics cached = cache.getValue(DataCache.KEY_LIBRARIAN_STATISTICS, MAX_AGE_MS);
+        if (cached != null) {
+            return cached;
+        }
+
+        // The member count only comes from the server, so an older snapshot must supply it
+        LibrarianStatistics previous = cache.getValue(DataCache.KEY_LIBRARIAN_STATISTICS, Long.MAX_VALUE);
+        List<Book> books = cache.get(DataCache.KEY_BOOKS);
+        List<Loan> loans = cache.get(DataCache.KEY_ALL_LOANS);
+        List<Reservation> reservations = cache.get(DataCache.KEY_ALL_RESERVATIONS);
+        if (previous == null || books == null || loans == null || reservations == null) {
+            return null;
+        }
+
+        LibrarianStatistics derived = new LibrarianStatistics();
+        derived.setTotalBooks(books.size());
+        derived.setAvailableBooks(countAvailable(books));
+        derived.setTotalLoans(loans.size());
+        derived.setActiveLoans(countLoans(loans, STATUS_ACTIVE));
+        derived.setOverdueLoans(countLoans(loans, STATUS_OVERDUE));
+        derived.setPendingReservations(countPending(reservations));
+        derived.setTotalMembers(previous.getTotalMembers());
+        putLibrarian(derived);
+        return derived;
+    }
+
+    public MemberStatistics getMember() {
+        MemberStatistics cached = cache.getValue(DataCache.KEY_MEMBER_STATISTICS, MAX_AGE_MS);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Book> books = cache.get(DataCache.KEY_BOOKS);
+        List<Loan> loans = cache.get(DataCache.KEY_MY_LOANS);
+        List<Reservation> reservations = cache.get(DataCache.KEY_MY_RESERVATIONS);
+        if (books == null || loans == null || reservations == null) {
+            return null;
+        }
+
+        MemberStatistics derived = new MemberStatistics();
+        derived.setMyActiveLoans(countLoans(loans, STATUS_ACTIVE));
+        derived.setMyPendingReservations(countPending(reservations));
+        derived.setAvailableBooks(countAvailable(books));
+        putMember(derived);
+        return derived;
+    }
+
+    public void putLibrarian(LibrarianStatistics statistics) {
+        cache.putValue(DataCache.KEY_LIBRARIAN_STATISTICS, statistics);
+    }
+
+    public void putMember(MemberStatistics statistics) {
+        cache.putValue(DataCache.KEY_MEMBER_STATISTICS, statistics);
+    }
+
+    public void onBookAdded(boolean available) {
+        LibrarianStatistics librarian = cachedLibrarian();
+        if (librarian != null) {
+            librarian.setTotalBooks(librarian.getTotalBooks() + 1);
+            if (available) {
+                librarian.setAvailableBooks(librarian.getAvailableBooks() + 1);
+            }
+        }
+        if (available) {
+            adjustMemberAvailableBooks(1);
+        }
+    }
+
+    /**
+     * Availability may have been edited, which can't be told from here; drop the counts.
+     */
+    public void onBookEdited() {
+        invalidate();
+    }
+
+    public void onBookDeleted(boolean wasAvailable) {
+        LibrarianStatistics librarian = cachedLibrarian();
+        if (librarian != null) {
+            librarian.setTotalBooks(librarian.getTotalBooks() - 1);
+            if (wasAvailable) {
+                librarian.setAvailableBooks(librarian.getAvailableBooks() - 1);
+            }
+        }
+        if (wasAvailable) {
+            adjustMemberAvailableBooks(-1);
+        }
+    }
+
+    public void onBookReserved() {
+        MemberStatistics member = cachedMember();
+        if (member != null) {
+            member.setMyPendingReservations(member.getMyPendingReservations() + 1);
+        }
+        LibrarianStatistics librarian = cachedLibrarian();
+        if (librarian != null) {
+            librarian.setPendingReservations(librarian.getPendingReservations() + 1);
+        }
+    }
+
+    /**
+     * Approving turns a pending reservation into an active loan of a now unavailable book.
+     */
+    public void onReservationApproved() {
+        LibrarianStatistics librarian = cachedLibrarian();
+        if (librarian != null) {
+            librarian.setPendingReservations(librarian.getPendingReservations() - 1);
+            librarian.setTotalLoans(librarian.getTotalLoans() + 1);
+            librarian.setActiveLoans(librarian.getActiveLoans() + 1);
+            librarian.setAvailableBooks(librarian.getAvailableBooks() - 1);
+        }
+        adjustMemberAvailableBooks(-1);
+    }
+
+    public void onLoanReturned(String previousStatus) {
+        LibrarianStatistics librarian = cachedLibrarian();
+        if (librarian != null) {
+            if (STATUS_ACTIVE.equals(previousStatus)) {
+                librarian.setActiveLoans(librarian.getActiveLoans() - 1);
+            } else if (STATUS_OVERDUE.equals(previousStatus)) {
+                librarian.setOverdueLoans(librarian.getOverdueLoans() - 1);
+            }
+            librarian.setAvailableBooks(librarian.getAvailableBooks() + 1);
+        }
+        adjustMemberAvailableBooks(1);
+    }
+
+    public void onMemberCreated() {
+        LibrarianStatistics librarian = cachedLibrarian();
+        if (librarian != null) {
+            librarian.setTotalMembers(librarian.getTotalMembers() + 1);
+        }
+    }
+
+    /**
+     * The deleted user's role and loans are unknown here, so the counts are refetched.
+     */
+    public void onUserDeleted() {
+        cache.invalidate(DataCache.KEY_LIBRARIAN_STATISTICS);
+    }
+
+    public void invalidate() {
+        cache.invalidate(DataCache.KEY_LIBRARIAN_STATISTICS, DataCache.KEY_MEMBER_STATISTICS);
+    }
+
+    private LibrarianStatistics cachedLibrarian() {
+        return cache.getValue(DataCache.KEY_LIBRARIAN_STATISTICS, Long.MAX_VALUE);
+    }
+
+    private MemberStatistics cachedMember() {
+        return cache.getValue(DataCache.KEY_MEMBER_STATISTICS, Long.MAX_VALUE);
+    }
+
+    private void adjustMemberAvailableBooks(int delta) {
+        MemberStatistics member = cachedMember();
+        if (member != null) {
+            member.setAvailableBooks(member.getAvailableBooks() + delta);
+        }
+    }
+
+    private static int countAvailable(List<Book> books) {
+        int count = 0;
+        for (Book book : books) {
+            if (book.isAvailable()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int countLoans(List<Loan> loans, String status) {
+        int count = 0;
+        for (Loan loan : loans) {
+            if (status.equals(loan.getStatus())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int countPending(List<Reservation> reservations) {
+        int count = 0;
+        for (Reservation reservation : reservations) {
+            if (!reservation.isApproved()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.eknjiznica.utils;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+import android.util.Log;
+
+import androidx.core.app.NotificationCompat;
+
+import com.example.eknjiznica.BuildConfig;
+import com.example.eknjiznica.activities.DiagnosticsActivity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Debug builds only: turns on StrictMode's thread and VM policies and, instead of crashing
+ * or only logging, groups the violations by type and by the app code that caused them, so
+ * main-thread disk and network work and leaks can be worked off one by one. A silent
+ * notification keeps a running summary and opens the diagnostics screen.
+ */
+public class StrictModeMonitor {
+    private static final String TAG = "StrictModeMonitor";
+    private static final String CHANNEL_ID = "strict_mode";
+    private static final int NOTIFICATION_ID = 0x5747;
+    private static final String APP_PACKAGE = "com.example.eknjiznica";
+    // At most one notification update per this interval
+    private static final long NOTIFY_INTERVAL_MS = 5000;
+    private static final int SUMMARY_LINES = 5;
+
+    public static class Group {
+        public final String key;
+        public final String stackTrace;
+        public int count;
+
+        Group(String key, String stackTrace) {
+            this.key = key;
+            this.stackTrace = stackTrace;
+        }
+    }
+
+    private static StrictModeMonitor instance;
+
+    private final Context context;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Keyed by violation type and first app frame; guarded by this
+    private final Map<String, Group> groups = new HashMap<>();
+    private int total;
+    private boolean notifyPending;
+
+    private StrictModeMonitor(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Installs the policies; does nothing in release builds.
+     */
+    public static synchronized void install(Context context) {
+        if (!BuildConfig.DEBUG || instance != null) {
+            return;
+        }
+        instance = new StrictModeMonitor(context.getApplicationContext());
+        instance.createChannel();
+        Executor executor = Executors.newSingleThreadExecutor();
+        StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                .detectDiskReads()
+                .detectDiskWrites()
+                .detectNetwork()
+                .detectCustomSlowCalls()
+                .detectResourceMismatches()
+                .detectUnbufferedIo()
+                .penaltyListener(executor, instance::onViolation)
+                .build());
+        StrictMode.VmPolicy.Builder vmPolicy = new StrictMode.VmPolicy.Builder()
+                .detectActivityLeaks()
+                .detectLeakedClosableObjects()
+                .detectLeakedRegistrationObjects()
+                .detectLeakedSqlLiteObjects()
+                .detectFileUriExposure()
+                .detectContentUriWithoutPermission()
+                .penaltyListener(executor, instance::onViolation);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            vmPolicy.detectIncorrectContextUse();
+        }
+        StrictMode.setVmPolicy(vmPolicy.build());
+    }
+
+    /**
+     * Null in release builds.
+     */
+    public static synchronized StrictModeMonitor getInstance() {
+        return instance;
+    }
+
+    /**
+     * Copies of the violation groups, most frequent first.
+     */
+    public synchronized List<Group> getGroups() {
+        List<Group> sorted = new ArrayList<>(groups.size());
+        for (Group group : groups.values()) {
+            Group copy = new Group(group.key, group.stackTrace);
+            copy.count = group.count;
+            sorted.add(copy);
+        }
+        Collections.sort(sorted, (a, b) -> Integer.compare(b.count, a.count));
+        return sorted;
+    }
+
+    public synchronized int getTotal() {
+        return total;
+    }
+
+    public synchronized void reset() {
+        groups.clear();
+        total = 0;
+        context.getSystemService(NotificationManager.class).cancel(NOTIFICATION_ID);
+    }
+
+    private void onViolation(Violation violation) {
+        String key = violation.getClass().getSimpleName() + " @ " + firstAppFrame(violation);
+        synchronized (this) {
+            Group group = groups.get(key);
+            if (group == null) {
+                group = new Group(key, Log.getStackTraceString(violation));
+                groups.put(key, group);
+                Log.w(TAG, "New violation: " + key, violation);
+            }
+            group.count++;
+            total++;
+            if (notifyPending) {
+                return;
+            }
+            notifyPending = true;
+        }
+        mainHandler.postDelayed(this::showSummary, NOTIFY_INTERVAL_MS);
+    }
+
+    private void showSummary() {
+        List<Group> sorted;
+        int count;
+        synchronized (this) {
+            notifyPending = false;
+            sorted = getGroups();
+            count = total;
+        }
+        if (sorted.isEmpty()) {
+            return;
+        }
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle();
+        for (int i = 0; i < Math.min(SUMMARY_LINES, sorted.size()); i++) {
+            style.addLine(sorted.get(i).count + "× " + sorted.get(i).key);
+        }
+        PendingIntent openDiagnostics = PendingIntent.getActivity(context, 0,
+                new Intent(context, DiagnosticsActivity.class).addFlags(Intent.FLAG_ACTIVITY_NEW_TASK),
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        NotificationCompat.Builder notification = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.stat_sys_warning)
+                .setContentTitle("StrictMode: " + count + " violations in " + sorted.size() + " places")
+                .setContentText(sorted.get(0).key)
+                .setStyle(style)
+                .setContentIntent(openDiagnostics)
+                .setOnlyAlertOnce(true)
+                .setPriority(NotificationCompat.PRIORITY_LOW);
+        try {
+            context.getSystemService(NotificationManager.class).notify(NOTIFICATION_ID, notification.build());
+        } catch (SecurityException e) {
+            // Notifications not allowed; the groups are still on the diagnostics screen
+        }
+    }
+
+    private void createChannel() {
+        NotificationChannel channel = new NotificationChannel(CHANNEL_ID, "StrictMode (debug)",
+                NotificationManager.IMPORTANCE_LOW);
+        channel.setDescription("Summary of StrictMode violations in debug builds");
+        context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+    }
+
+    /**
+     * The innermost frame in the app's own code, which is where a fix usually goes.
+     */
+    private static String firstAppFrame(Violation violation) {
+        for (StackTraceElement frame : violation.getStackTrace()) {
+            if (frame.getClassName().startsWith(APP_PACKAGE)
+                    && !frame.getClassName().equals(StrictModeMonitor.class.getName())) {
+                return frame.getClassName().substring(APP_PACKAGE.length() + 1) + "." + frame.getMethodName()
+                        + ":" + frame.getLineNumber();
+            }
+        }
+        return "framework";
+    }
+}
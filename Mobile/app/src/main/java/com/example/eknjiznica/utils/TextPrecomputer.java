@@ -0,0 +1,187 @@
+package com.example.eknjiznica.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.widget.TextView;
+
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import com.example.eknjiznica.R;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Measures list row text on a background thread as PrecomputedTextCompat and caches it per
+ * entity key (e.g. "book/12/title"), so binding a row only hands finished layouts to its
+ * TextViews. A cached entry or a measurement in flight is only reused while both the text and
+ * the view's text params (font, size, break strategy) are unchanged. The main thread never
+ * measures: a row bound before its text is ready stays empty until the layout arrives, which
+ * is measured on a thread of its own rather than behind the prefetches of other rows.
+ * Must be used from the main thread.
+ */
+public class TextPrecomputer {
+    private static final int MAX_ENTRIES = 500;
+
+    private static class Entry {
+        final CharSequence text;
+        final PrecomputedTextCompat.Params params;
+        final PrecomputedTextCompat precomputed;
+
+        Entry(CharSequence text, PrecomputedTextCompat.Params params, PrecomputedTextCompat precomputed) {
+            this.text = text;
+            this.params = params;
+            this.precomputed = precomputed;
+        }
+    }
+
+    private static class Pending {
+        final PrecomputedTextCompat.Params params;
+        final boolean forBind;
+        // Views bound to this text that wait for it
+        final List<TextView> views = new ArrayList<>();
+        FutureTask<Void> task;
+
+        Pending(PrecomputedTextCompat.Params params, boolean forBind) {
+            this.params = params;
+            this.forBind = forBind;
+        }
+    }
+
+    private static TextPrecomputer instance;
+
+    private final LruCache<String, Entry> cache = new LruCache<>(MAX_ENTRIES);
+    // Keyed by entity key and text; the params are checked before a measurement is shared
+    private final Map<String, Pending> pending = new HashMap<>();
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "text-prefetch"));
+    private final ExecutorService bindExecutor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "text-bind"));
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private TextPrecomputer() {
+    }
+
+    public static synchronized TextPrecomputer getInstance() {
+        if (instance == null) {
+            instance = new TextPrecomputer();
+        }
+        return instance;
+    }
+
+    /**
+     * Sets the text on a row's TextView: the cached layout when there is one, otherwise the
+     * view is cleared and gets the layout once it has been measured in the background. A
+     * prefetch of the same text that has not started yet is moved ahead of the other
+     * prefetches; one that is running is waited for rather than measured again.
+     */
+    public void bind(TextView view, String key, CharSequence text) {
+        PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(view);
+        PrecomputedTextCompat precomputed = get(key, text, params);
+        if (precomputed != null) {
+            view.setTag(R.id.precomputed_text_key, null);
+            TextViewCompat.setPrecomputedText(view, precomputed);
+            return;
+        }
+
+        String pendingKey = key + '\n' + text;
+        view.setTag(R.id.precomputed_text_key, pendingKey);
+        // Empty text costs nothing to measure
+        view.setText(null);
+        Pending entry = pending.get(pendingKey);
+        if (entry != null && !entry.params.equals(params)) {
+            // Measured for other params; still delivered to the views that wait for it
+            if (entry.views.isEmpty()) {
+                entry.task.cancel(false);
+            }
+            pending.remove(pendingKey);
+            entry = null;
+        } else if (entry != null && !entry.forBind && entry.task.cancel(false)) {
+            // A prefetch still queued behind other rows
+            pending.remove(pendingKey);
+            entry = null;
+        }
+        if (entry == null) {
+            entry = submit(key, text, params, true);
+        }
+        entry.views.add(view);
+    }
+
+    /**
+     * Starts measuring text for a row that is about to be bound, using the params of a view
+     * from the same layout.
+     */
+    public void prefetch(TextView template, String key, CharSequence text) {
+        PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(template);
+        if (get(key, text, params) != null) {
+            return;
+        }
+        Pending entry = pending.get(key + '\n' + text);
+        if (entry == null || !entry.params.equals(params) && entry.views.isEmpty()) {
+            if (entry != null) {
+                entry.task.cancel(false);
+            }
+            submit(key, text, params, false);
+        }
+    }
+
+    /**
+     * Drops the cached layouts and queued prefetches, e.g. on logout or low memory. Text a
+     * bound view is waiting for is still delivered.
+     */
+    public void clear() {
+        Iterator<Pending> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            Pending entry = iterator.next();
+            if (entry.views.isEmpty()) {
+                entry.task.cancel(false);
+                iterator.remove();
+            }
+        }
+        cache.evictAll();
+    }
+
+    private PrecomputedTextCompat get(String key, CharSequence text, PrecomputedTextCompat.Params params) {
+        Entry entry = cache.get(key);
+        if (entry != null && entry.params.equals(params) && entry.text.toString().contentEquals(text)) {
+            return entry.precomputed;
+        }
+        return null;
+    }
+
+    private Pending submit(String key, CharSequence text, PrecomputedTextCompat.Params params, boolean forBind) {
+        String pendingKey = key + '\n' + text;
+        Pending entry = new Pending(params, forBind);
+        entry.task = new FutureTask<>(() -> {
+            PrecomputedTextCompat precomputed = PrecomputedTextCompat.create(text, params);
+            mainHandler.post(() -> deliver(key, pendingKey, text, entry, precomputed));
+            return null;
+        });
+        pending.put(pendingKey, entry);
+        (forBind ? bindExecutor : prefetchExecutor).execute(entry.task);
+        return entry;
+    }
+
+    private void deliver(String key, String pendingKey, CharSequence text, Pending entry,
+                         PrecomputedTextCompat precomputed) {
+        // Not cached if it was replaced or cleared meanwhile
+        if (pending.remove(pendingKey, entry)) {
+            cache.put(key, new Entry(text, entry.params, precomputed));
+        }
+        for (TextView view : entry.views) {
+            // Skip views rebound to other text since
+            if (pendingKey.equals(view.getTag(R.id.precomputed_text_key))) {
+                view.setTag(R.id.precomputed_text_key, null);
+                TextViewCompat.setPrecomputedText(view, precomputed);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.eknjiznica.utils;
+
+import android.os.Build;
+import android.os.Trace;
+
+import com.example.eknjiznica.BuildConfig;
+
+/**
+ * Thin facade over android.os.Trace for the app's hot paths, so they show up by name in
+ * system traces (Perfetto, Android Studio profiler). In release builds ENABLED is false and
+ * every call compiles to nothing. Tests on the JVM, where android.os.Trace is not available,
+ * can install their own Backend.
+ */
+public final class Tracing {
+    public interface Backend {
+        void beginSection(String name);
+
+        void endSection();
+
+        void beginAsyncSection(String name, int cookie);
+
+        void endAsyncSection(String name, int cookie);
+    }
+
+    private static final boolean ENABLED = BuildConfig.DEBUG;
+    // Longer section names are rejected by the platform
+    private static final int MAX_NAME_LENGTH = 127;
+
+    private static volatile Backend backend = new AndroidBackend();
+
+    private Tracing() {
+    }
+
+    public static void setBackend(Backend backend) {
+        Tracing.backend = backend;
+    }
+
+    /**
+     * Starts a section on the current thread; always close it with end() in a finally block.
+     */
+    public static void begin(String name) {
+        if (ENABLED) {
+            backend.beginSection(truncate(name));
+        }
+    }
+
+    public static void end() {
+        if (ENABLED) {
+            backend.endSection();
+        }
+    }
+
+    /**
+     * Starts a section that may end on another thread, e.g. a network call. The same name
+     * and cookie must be passed to endAsync().
+     */
+    public static void beginAsync(String name, int cookie) {
+        if (ENABLED) {
+            backend.beginAsyncSection(truncate(name), cookie);
+        }
+    }
+
+    public static void endAsync(String name, int cookie) {
+        if (ENABLED) {
+            backend.endAsyncSection(truncate(name), cookie);
+        }
+    }
+
+    private static String truncate(String name) {
+        return name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+    }
+
+    private static class AndroidBackend implements Backend {
+        @Override
+        public void beginSection(String name) {
+            Trace.beginSection(name);
+        }
+
+        @Override
+        public void endSection() {
+            Trace.endSection();
+        }
+
+        // Async sections need Android 10; on 9 network calls are simply not traced
+        @Override
+        public void beginAsyncSection(String name, int cookie) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                Trace.beginAsyncSection(name, cookie);
+            }
+        }
+
+        @Override
+        public void endAsyncSection(String name, int cookie) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                Trace.endAsyncSection(name, cookie);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.eknjiznica.viewmodels;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.example.eknjiznica.api.ApiService;
+import com.example.eknjiznica.api.RetrofitClient;
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.Book;
+import com.example.eknjiznica.utils.ChangeBus;
+import com.example.eknjiznica.utils.DataCache;
+import com.example.eknjiznica.utils.Event;
+import com.example.eknjiznica.utils.StatisticsStore;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+public class AddEditBookViewModel extends ViewModel {
+    private final ApiService apiService = RetrofitClient.getInstance().getApiService();
+    private final MutableLiveData<Boolean> saving = new MutableLiveData<>(false);
+    private final MutableLiveData<Event<Boolean>> saved = new MutableLiveData<>();
+    private final MutableLiveData<Event<String>> messages = new MutableLiveData<>();
+
+    public LiveData<Boolean> isSaving() {
+        return saving;
+    }
+
+    public LiveData<Event<Boolean>> getSaved() {
+        return saved;
+    }
+
+    public LiveData<Event<String>> getMessages() {
+        return messages;
+    }
+
+    public void saveBook(String token, Book bookToSave, boolean isEditMode) {
+        if (Boolean.TRUE.equals(saving.getValue())) {
+            return;
+        }
+        saving.setValue(true);
+
+        Call<ApiResponse<Book>> call;
+        if (isEditMode) {
+            call = apiService.updateBook(token, bookToSave.getId(), bookToSave);
+        } else {
+            call = apiService.addBook(token, bookToSave);
+        }
+
+        call.enqueue(new Callback<ApiResponse<Book>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<Book>> call, Response<ApiResponse<Book>> response) {
+                saving.setValue(false);
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    messages.setValue(new Event<>(isEditMode ? "Book updated successfully" : "Book added successfully"));
+                    DataCache cache = DataCache.getInstance();
+                    cache.invalidate(DataCache.KEY_BOOKS);
+                    if (isEditMode) {
+                        cache.invalidate(DataCache.bookKey(bookToSave.getId()));
+                    }
+                    if (isEditMode) {
+                        StatisticsStore.getInstance().onBookEdited();
+                    } else {
+                        StatisticsStore.getInstance().onBookAdded(bookToSave.isAvailable());
+                    }
+                    ChangeBus.getInstance().publish(ChangeBus.Entity.BOOK, isEditMode ? bookToSave.getId() : ChangeBus.ANY_ID);
+                    saved.setValue(new Event<>(true));
+                } else {
+                    String message = response.body() != null ? response.body().getMessage() : "Failed to save book";
+                    messages.setValue(new Event<>(message));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<Book>> call, Throwable t) {
+                saving.setValue(false);
+                messages.setValue(new Event<>("Error: " + t.getMessage()));
+            }
+        });
+    }
+}
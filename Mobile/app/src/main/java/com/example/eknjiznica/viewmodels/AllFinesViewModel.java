@@ -0,0 +1,123 @@
+package com.example.eknjiznica.viewmodels;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.CreateFineRequest;
+import com.example.eknjiznica.models.Fine;
+import com.example.eknjiznica.utils.ChangeBus;
+import com.example.eknjiznica.utils.DataCache;
+import com.example.eknjiznica.utils.Event;
+import com.example.eknjiznica.utils.OptimisticUpdate;
+
+import java.util.Date;
+import java.util.List;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+public class AllFinesViewModel extends ListViewModel<Fine> {
+    private final MutableLiveData<Event<List<Object>>> members = new MutableLiveData<>();
+
+    public AllFinesViewModel() {
+        super(ChangeBus.Entity.FINE);
+    }
+
+    @Override
+    protected Call<ApiResponse<List<Fine>>> createCall(String token) {
+        return apiService.getAllFines(token);
+    }
+
+    @Override
+    protected String getCacheKey() {
+        return DataCache.KEY_ALL_FINES;
+    }
+
+    @Override
+    protected String getLoadErrorMessage() {
+        return "Failed to load fines";
+    }
+
+    /**
+     * Members for the create fine dialog.
+     */
+    public LiveData<Event<List<Object>>> getMembers() {
+        return members;
+    }
+
+    public void loadMembers(String token) {
+        Call<ApiResponse<List<Object>>> call = apiService.getMembers(token);
+        call.enqueue(new Callback<ApiResponse<List<Object>>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<List<Object>>> call, Response<ApiResponse<List<Object>>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    members.setValue(new Event<>(response.body().getData()));
+                } else {
+                    showMessage("Failed to load members");
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<List<Object>>> call, Throwable t) {
+                showMessage("Error loading members: " + t.getMessage());
+            }
+        });
+    }
+
+    public void createFine(String token, String userId, double amount, String reason) {
+        CreateFineRequest request = new CreateFineRequest(userId, amount, reason);
+        Call<ApiResponse<Fine>> call = apiService.createFine(token, request);
+        call.enqueue(new Callback<ApiResponse<Fine>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<Fine>> call, Response<ApiResponse<Fine>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    showMessage("Fine created successfully!");
+                    DataCache.getInstance().invalidate(DataCache.KEY_ALL_FINES, DataCache.KEY_MY_FINES);
+                    ChangeBus.getInstance().publish(ChangeBus.Entity.FINE, ChangeBus.ANY_ID);
+                    load(token);
+                } else {
+                    String message = response.body() != null ? response.body().getMessage() : "Failed to create fine";
+                    showMessage(message);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<Fine>> call, Throwable t) {
+                showMessage("Error: " + t.getMessage());
+            }
+        });
+    }
+
+    public void markFineAsPaid(String token, Fine fine) {
+        Fine patched = fine.copy();
+        patched.setPaid(true);
+        patched.setPaidDate(new Date());
+        OptimisticUpdate<Fine> update = OptimisticUpdate.apply(getItems(), this::notifyItemChanged, fine, patched);
+
+        Call<ApiResponse<Fine>> call = apiService.markFineAsPaid(token, fine.getId());
+        call.enqueue(new Callback<ApiResponse<Fine>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<Fine>> call, Response<ApiResponse<Fine>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    update.commit(response.body().getData());
+                    cacheItems();
+                    DataCache.getInstance().invalidate(DataCache.KEY_MY_FINES);
+                    ChangeBus.getInstance().publish(ChangeBus.Entity.FINE, fine.getId());
+                    showMessage("Fine marked as paid!");
+                } else {
+                    update.rollback();
+                    String message = response.body() != null ? response.body().getMessage() : "Failed to mark fine as paid";
+                    showMessage(message);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<Fine>> call, Throwable t) {
+                update.rollback();
+                showMessage("Error: " + t.getMessage());
+            }
+        });
+    }
+}
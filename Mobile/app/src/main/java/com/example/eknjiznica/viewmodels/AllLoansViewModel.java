@@ -0,0 +1,88 @@
+package com.example.eknjiznica.viewmodels;
+
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.Loan;
+import com.example.eknjiznica.utils.ChangeBus;
+import com.example.eknjiznica.utils.CirculationAnalytics;
+import com.example.eknjiznica.utils.DataCache;
+import com.example.eknjiznica.utils.OptimisticUpdate;
+import com.example.eknjiznica.utils.StatisticsStore;
+
+import java.util.Date;
+import java.util.List;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+public class AllLoansViewModel extends ListViewModel<Loan> {
+
+    public AllLoansViewModel() {
+        super(ChangeBus.Entity.LOAN);
+    }
+
+    @Override
+    protected Call<ApiResponse<List<Loan>>> createCall(String token) {
+        return apiService.getAllLoans(token);
+    }
+
+    @Override
+    protected String getCacheKey() {
+        return DataCache.KEY_ALL_LOANS;
+    }
+
+    @Override
+    protected String getLoadErrorMessage() {
+        return "Failed to load loans";
+    }
+
+    @Override
+    protected void setItems(List<Loan> data) {
+        super.setItems(data);
+        // A cache hit usually hands back the loans the counters were built from
+        CirculationAnalytics.getInstance().rebuildIfChanged(getItems());
+    }
+
+    public void returnLoan(String token, Loan loan) {
+        Loan patched = loan.copy();
+        patched.setStatus("Returned");
+        patched.setReturnDate(new Date());
+        OptimisticUpdate<Loan> update = OptimisticUpdate.apply(getItems(), this::notifyItemChanged, loan, patched);
+
+        Call<ApiResponse<Loan>> call = apiService.returnLoan(token, loan.getId());
+        call.enqueue(new Callback<ApiResponse<Loan>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<Loan>> call, Response<ApiResponse<Loan>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    Loan confirmed = response.body().getData();
+                    if (confirmed != null && confirmed.getUser() == null) {
+                        // The return endpoint does not include the borrower
+                        confirmed.setUser(loan.getUser());
+                    }
+                    // Update the counters first so the row refresh below also shows them
+                    CirculationAnalytics.getInstance().onLoanReturned(loan,
+                            confirmed != null && confirmed.getReturnDate() != null ? confirmed.getReturnDate() : new Date());
+                    update.commit(confirmed);
+                    cacheItems();
+                    DataCache cache = DataCache.getInstance();
+                    cache.invalidate(DataCache.KEY_BOOKS, DataCache.bookKey(loan.getBookId()), DataCache.KEY_MY_LOANS);
+                    StatisticsStore.getInstance().onLoanReturned(loan.getStatus());
+                    ChangeBus bus = ChangeBus.getInstance();
+                    bus.publish(ChangeBus.Entity.LOAN, loan.getId());
+                    bus.publish(ChangeBus.Entity.BOOK, loan.getBookId());
+                    showMessage("Loan returned successfully!");
+                } else {
+                    update.rollback();
+                    String message = response.body() != null ? response.body().getMessage() : "Failed to return loan";
+                    showMessage(message);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<Loan>> call, Throwable t) {
+                update.rollback();
+                showMessage("Error: " + t.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.eknjiznica.viewmodels;
+
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.Loan;
+import com.example.eknjiznica.models.Reservation;
+import com.example.eknjiznica.utils.ChangeBus;
+import com.example.eknjiznica.utils.CirculationAnalytics;
+import com.example.eknjiznica.utils.DataCache;
+import com.example.eknjiznica.utils.OptimisticUpdate;
+import com.example.eknjiznica.utils.StatisticsStore;
+
+import java.util.List;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+public class AllReservationsViewModel extends ListViewModel<Reservation> {
+
+    public AllReservationsViewModel() {
+        super(ChangeBus.Entity.RESERVATION);
+    }
+
+    @Override
+    protected Call<ApiResponse<List<Reservation>>> createCall(String token) {
+        return apiService.getAllReservations(token);
+    }
+
+    @Override
+    protected String getCacheKey() {
+        return DataCache.KEY_ALL_RESERVATIONS;
+    }
+
+    @Override
+    protected String getLoadErrorMessage() {
+        return "Failed to load reservations";
+    }
+
+    public void approveReservation(String token, Reservation reservation) {
+        Reservation patched = reservation.copy();
+        patched.setApproved(true);
+        OptimisticUpdate<Reservation> update = OptimisticUpdate.apply(getItems(), this::notifyItemChanged, reservation, patched);
+
+        Call<ApiResponse<Loan>> call = apiService.approveReservation(token, reservation.getId());
+        call.enqueue(new Callback<ApiResponse<Loan>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<Loan>> call, Response<ApiResponse<Loan>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    // The endpoint returns the new loan, so the patched reservation is kept as is
+                    update.commit(null);
+                    cacheItems();
+                    DataCache cache = DataCache.getInstance();
+                    cache.append(DataCache.KEY_ALL_LOANS, response.body().getData());
+                    if (response.body().getData() != null) {
+                        CirculationAnalytics.getInstance().onLoanCreated(response.body().getData());
+                    }
+                    cache.invalidate(DataCache.KEY_BOOKS, DataCache.bookKey(reservation.getBookId()),
+                            DataCache.KEY_MY_LOANS, DataCache.KEY_MY_RESERVATIONS);
+                    StatisticsStore.getInstance().onReservationApproved();
+                    ChangeBus bus = ChangeBus.getInstance();
+                    bus.publish(ChangeBus.Entity.RESERVATION, reservation.getId());
+                    bus.publish(ChangeBus.Entity.LOAN, ChangeBus.ANY_ID);
+                    bus.publish(ChangeBus.Entity.BOOK, reservation.getBookId());
+                    showMessage("Reservation approved and loan created!");
+                } else {
+                    update.rollback();
+                    String message = response.body() != null ? response.body().getMessage() : "Failed to approve reservation";
+                    showMessage(message);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<Loan>> call, Throwable t) {
+                update.rollback();
+                showMessage("Error: " + t.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,471 @@
+package com.example.eknjiznica.viewmodels;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.SavedStateHandle;
+import androidx.lifecycle.ViewModel;
+
+import com.example.eknjiznica.api.ApiService;
+import com.example.eknjiznica.api.RequestPriority;
+import com.example.eknjiznica.api.RequestScheduler;
+import com.example.eknjiznica.api.RetrofitClient;
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.Book;
+import com.example.eknjiznica.models.CreateReviewRequest;
+import com.example.eknjiznica.models.RatingSummary;
+import com.example.eknjiznica.models.Reservation;
+import com.example.eknjiznica.models.Review;
+import com.example.eknjiznica.models.ReviewPage;
+import com.example.eknjiznica.utils.BookPrefetcher;
+import com.example.eknjiznica.utils.ChangeBus;
+import com.example.eknjiznica.utils.DataCache;
+import com.example.eknjiznica.utils.Event;
+import com.example.eknjiznica.utils.ListChange;
+import com.example.eknjiznica.utils.ListChangeLiveData;
+import com.example.eknjiznica.utils.NetworkMonitor;
+import com.example.eknjiznica.utils.StatisticsStore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+public class BookDetailsViewModel extends ViewModel {
+    private static final String KEY_BOOK = "book";
+
+    private final ApiService apiService = RetrofitClient.getInstance().getApiService();
+    private final MutableLiveData<Book> book;
+    private final List<Review> reviews = new ArrayList<>();
+    private final ListChangeLiveData reviewsChanged = new ListChangeLiveData();
+    private final MutableLiveData<String> ratingText = new MutableLiveData<>();
+    private final MutableLiveData<Event<String>> messages = new MutableLiveData<>();
+    private final MutableLiveData<Event<Boolean>> closeScreen = new MutableLiveData<>();
+    private final ChangeBus.Listener changeListener = (entity, id) -> {
+        if (id == ChangeBus.ANY_ID || id == bookId) {
+            bookChanged = true;
+        }
+    };
+    private int bookId;
+    private RatingSummary rating;
+    private Call<ApiResponse<ReviewPage>> reviewPageCall;
+    private Call<ApiResponse<RatingSummary>> ratingSyncCall;
+    private String nextReviewCursor;
+    private boolean loaded;
+    private boolean bookChanged;
+
+    public BookDetailsViewModel(SavedStateHandle state) {
+        // The latest copy of the book is kept in the saved state so it survives process death
+        book = state.getLiveData(KEY_BOOK);
+        ChangeBus.getInstance().subscribe(changeListener, ChangeBus.Entity.BOOK);
+    }
+
+    public LiveData<Book> getBook() {
+        return book;
+    }
+
+    public List<Review> getReviews() {
+        return reviews;
+    }
+
+    public LiveData<ListChange> getReviewsChanged() {
+        return reviewsChanged;
+    }
+
+    public LiveData<String> getRatingText() {
+        return ratingText;
+    }
+
+    public LiveData<Event<String>> getMessages() {
+        return messages;
+    }
+
+    public LiveData<Event<Boolean>> getCloseScreen() {
+        return closeScreen;
+    }
+
+    /**
+     * Shows the restored book, else the cached one, else the snapshot from the intent while
+     * the book is fetched; with none of them (a deep link) the screen waits for the fetch.
+     * Loads reviews and rating once per ViewModel.
+     */
+    public void init(int bookId, Book snapshot) {
+        this.bookId = bookId;
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        DataCache cache = DataCache.getInstance();
+        if (book.getValue() == null) {
+            Book cached = cache.findBook(bookId, DataCache.DEFAULT_MAX_AGE_MS);
+            if (cached != null) {
+                book.setValue(cached);
+            } else {
+                // A snapshot is only as fresh as the screen that sent it
+                if (snapshot != null) {
+                    book.setValue(snapshot);
+                }
+                loadBookDetails();
+            }
+        }
+        // The catalog usually loaded both while the book was on screen
+        ReviewPage cachedReviews = cache.getValue(DataCache.bookReviewsKey(bookId), BookPrefetcher.MAX_AGE_MS);
+        if (cachedReviews != null) {
+            reviews.addAll(cachedReviews.getItems());
+            nextReviewCursor = cachedReviews.getNextCursor();
+            reviewsChanged.setChange(ListChange.ALL);
+        } else {
+            loadReviews();
+        }
+        RatingSummary cachedRating = cache.getValue(DataCache.bookRatingKey(bookId), BookPrefetcher.MAX_AGE_MS);
+        if (cachedRating != null) {
+            showRating(cachedRating);
+        } else {
+            loadRating();
+        }
+    }
+
+    public void refreshIfChanged() {
+        if (bookChanged) {
+            bookChanged = false;
+            loadBookDetails();
+        }
+    }
+
+    public boolean hasMoreReviews() {
+        return nextReviewCursor != null;
+    }
+
+    /**
+     * Loads the next page of reviews; does nothing on the last page or while a page is loading.
+     */
+    public void loadMoreReviews() {
+        if (nextReviewCursor != null && reviewPageCall == null) {
+            loadReviewPage(nextReviewCursor);
+        }
+    }
+
+    private void loadReviews() {
+        if (reviewPageCall != null) {
+            reviewPageCall.cancel();
+        }
+        loadReviewPage(null);
+    }
+
+    private void loadReviewPage(String cursor) {
+        reviewPageCall = apiService.getBookReviewsPage(bookId, cursor, NetworkMonitor.getInstance().getPageSize());
+        reviewPageCall.enqueue(new Callback<ApiResponse<ReviewPage>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<ReviewPage>> call, Response<ApiResponse<ReviewPage>> response) {
+                if (call != reviewPageCall) {
+                    return;
+                }
+                reviewPageCall = null;
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    ReviewPage page = response.body().getData();
+                    nextReviewCursor = page.getNextCursor();
+                    if (cursor == null) {
+                        reviews.clear();
+                        reviews.addAll(page.getItems());
+                        reviewsChanged.setChange(ListChange.ALL);
+                    } else {
+                        // Only the new page is bound; the reviews list never recycles its rows
+                        int start = reviews.size();
+                        reviews.addAll(page.getItems());
+                        reviewsChanged.setChange(ListChange.inserted(start, page.getItems().size()));
+                    }
+                    cacheReviews();
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<ReviewPage>> call, Throwable t) {
+                if (call == reviewPageCall) {
+                    reviewPageCall = null;
+                }
+                // Silently fail - reviews are optional
+            }
+        });
+    }
+
+    /**
+     * Keeps the pages loaded so far cached, so reopening the book shows them without a request.
+     */
+    private void cacheReviews() {
+        DataCache.getInstance().putValue(DataCache.bookReviewsKey(bookId),
+                new ReviewPage(new ArrayList<>(reviews), nextReviewCursor));
+    }
+
+    /**
+     * Replaces a truncated comment preview with the full text.
+     */
+    public void expandComment(int position) {
+        Review review = reviews.get(position);
+        if (!review.isCommentTruncated()) {
+            return;
+        }
+        Call<ApiResponse<String>> call = apiService.getReviewComment(review.getId());
+        call.enqueue(new Callback<ApiResponse<String>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<String>> call, Response<ApiResponse<String>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    review.setComment(response.body().getData());
+                    review.setCommentTruncated(false);
+                    int index = reviews.indexOf(review);
+                    if (index >= 0) {
+                        reviewsChanged.setChange(ListChange.changed(index));
+                    }
+                } else {
+                    messages.setValue(new Event<>("Failed to load comment"));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<String>> call, Throwable t) {
+                messages.setValue(new Event<>("Error: " + t.getMessage()));
+            }
+        });
+    }
+
+    private void showRating(RatingSummary summary) {
+        rating = summary;
+        if (summary.getReviewCount() > 0) {
+            ratingText.setValue(String.format("Average Rating: %.1f/5.0 (%d reviews)",
+                    summary.getAverageRating(), summary.getReviewCount()));
+        } else {
+            ratingText.setValue("No reviews yet");
+        }
+    }
+
+    private void loadRating() {
+        Call<ApiResponse<RatingSummary>> call = apiService.getBookRating(bookId);
+        call.enqueue(new Callback<ApiResponse<RatingSummary>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<RatingSummary>> call, Response<ApiResponse<RatingSummary>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    DataCache.getInstance().putValue(DataCache.bookRatingKey(bookId), response.body().getData());
+                    showRating(response.body().getData());
+                } else {
+                    ratingText.setValue("Average Rating: -");
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<RatingSummary>> call, Throwable t) {
+                ratingText.setValue("Average Rating: -");
+            }
+        });
+    }
+
+    private void loadBookDetails() {
+        Call<ApiResponse<Book>> call = apiService.getBook(bookId);
+        call.enqueue(new Callback<ApiResponse<Book>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<Book>> call, Response<ApiResponse<Book>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()
+                        && response.body().getData() != null) {
+                    Book fetched = response.body().getData();
+                    DataCache.getInstance().putValue(DataCache.bookKey(fetched.getId()), fetched);
+                    book.setValue(fetched);
+                } else if (book.getValue() == null) {
+                    messages.setValue(new Event<>("Book not found"));
+                    closeScreen.setValue(new Event<>(true));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<Book>> call, Throwable t) {
+                // Keep existing data; without any there is nothing to show
+                if (book.getValue() == null) {
+                    messages.setValue(new Event<>("Error: " + t.getMessage()));
+                    closeScreen.setValue(new Event<>(true));
+                }
+            }
+        });
+    }
+
+    public void createReview(String token, int rating, String comment) {
+        CreateReviewRequest request = new CreateReviewRequest(bookId, rating, comment);
+        Call<ApiResponse<Review>> call = apiService.createReview(token, request);
+        call.enqueue(new Callback<ApiResponse<Review>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<Review>> call, Response<ApiResponse<Review>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    messages.setValue(new Event<>("Review added successfully!"));
+                    Review created = response.body().getData();
+                    if (created == null) {
+                        // Nothing to insert locally; take the server's view instead
+                        DataCache.getInstance().invalidate(DataCache.KEY_MY_REVIEWS);
+                        loadReviews();
+                        loadRating();
+                        return;
+                    }
+                    // Newer than every loaded review, so the page cursor stays valid
+                    reviews.add(0, created);
+                    reviewsChanged.setChange(ListChange.inserted(0, 1));
+                    cacheReviews();
+                    DataCache.getInstance().append(DataCache.KEY_MY_REVIEWS, created);
+                    applyRatingChange(created.getRating(), true);
+                } else {
+                    String message = response.body() != null ? response.body().getMessage() : "Failed to add review";
+                    messages.setValue(new Event<>(message));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<Review>> call, Throwable t) {
+                messages.setValue(new Event<>("Error: " + t.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Patches the cached summary in place so the user only waits on the mutation itself, then
+     * reconciles it with the server's summary in the background.
+     */
+    private void applyRatingChange(int stars, boolean added) {
+        if (rating == null) {
+            loadRating();
+            return;
+        }
+        if (added) {
+            rating.addRating(stars);
+        } else {
+            rating.removeRating(stars);
+        }
+        showRating(rating);
+        syncRating();
+    }
+
+    /**
+     * Replaces the locally patched summary with the server's, e.g. to pick up other users'
+     * reviews. On failure the patched summary stays.
+     */
+    private void syncRating() {
+        if (ratingSyncCall != null) {
+            ratingSyncCall.cancel();
+        }
+        ratingSyncCall = apiService.getBookRating(bookId);
+        RequestScheduler.getInstance().enqueue(RequestPriority.BACKGROUND_SYNC, ratingSyncCall, new Callback<ApiResponse<RatingSummary>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<RatingSummary>> call, Response<ApiResponse<RatingSummary>> response) {
+                if (call.isCanceled()) {
+                    return;
+                }
+                ratingSyncCall = null;
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()
+                        && response.body().getData() != null) {
+                    DataCache.getInstance().putValue(DataCache.bookRatingKey(bookId), response.body().getData());
+                    showRating(response.body().getData());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<RatingSummary>> call, Throwable t) {
+                if (!call.isCanceled()) {
+                    ratingSyncCall = null;
+                }
+            }
+        });
+    }
+
+    public void deleteReview(String token, int reviewId) {
+        Call<ApiResponse<Object>> call = apiService.deleteReview(token, reviewId);
+        call.enqueue(new Callback<ApiResponse<Object>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<Object>> call, Response<ApiResponse<Object>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    messages.setValue(new Event<>("Review deleted successfully"));
+                    removeReview(reviewId);
+                } else {
+                    String message = response.body() != null ? response.body().getMessage() : "Failed to delete review";
+                    messages.setValue(new Event<>(message));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<Object>> call, Throwable t) {
+                messages.setValue(new Event<>("Error: " + t.getMessage()));
+            }
+        });
+    }
+
+    private void removeReview(int reviewId) {
+        for (int i = 0; i < reviews.size(); i++) {
+            Review review = reviews.get(i);
+            if (review.getId() == reviewId) {
+                reviews.remove(i);
+                reviewsChanged.setChange(ListChange.removed(i));
+                cacheReviews();
+                DataCache.getInstance().invalidate(DataCache.KEY_MY_REVIEWS);
+                applyRatingChange(review.getRating(), false);
+                return;
+            }
+        }
+        // Not in the loaded list - fall back to the server's view
+        loadReviews();
+        loadRating();
+    }
+
+    public void reserveBook(String token) {
+        Call<ApiResponse<Reservation>> call = apiService.reserveBook(token, bookId);
+        call.enqueue(new Callback<ApiResponse<Reservation>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<Reservation>> call, Response<ApiResponse<Reservation>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    messages.setValue(new Event<>("Book reserved successfully!"));
+                    DataCache cache = DataCache.getInstance();
+                    cache.append(DataCache.KEY_MY_RESERVATIONS, response.body().getData());
+                    cache.invalidate(DataCache.KEY_ALL_RESERVATIONS);
+                    StatisticsStore.getInstance().onBookReserved();
+                    ChangeBus.getInstance().publish(ChangeBus.Entity.RESERVATION, ChangeBus.ANY_ID);
+                    closeScreen.setValue(new Event<>(true));
+                } else {
+                    String message = response.body() != null ? response.body().getMessage() : "Failed to reserve book";
+                    messages.setValue(new Event<>(message));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<Reservation>> call, Throwable t) {
+                messages.setValue(new Event<>("Error: " + t.getMessage()));
+            }
+        });
+    }
+
+    public void deleteBook(String token) {
+        Call<ApiResponse<Object>> call = apiService.deleteBook(token, bookId);
+        call.enqueue(new Callback<ApiResponse<Object>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<Object>> call, Response<ApiResponse<Object>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    messages.setValue(new Event<>("Book deleted successfully"));
+                    DataCache.getInstance().invalidate(DataCache.KEY_BOOKS, DataCache.bookKey(bookId));
+                    StatisticsStore.getInstance().onBookDeleted(book.getValue().isAvailable());
+                    ChangeBus.getInstance().publish(ChangeBus.Entity.BOOK, bookId);
+                    closeScreen.setValue(new Event<>(true));
+                } else {
+                    String message = response.body() != null ? response.body().getMessage() : "Failed to delete book";
+                    messages.setValue(new Event<>(message));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<Object>> call, Throwable t) {
+                messages.setValue(new Event<>("Error: " + t.getMessage()));
+            }
+        });
+    }
+
+    @Override
+    protected void onCleared() {
+        ChangeBus.getInstance().unsubscribe(changeListener);
+        if (reviewPageCall != null) {
+            reviewPageCall.cancel();
+        }
+        if (ratingSyncCall != null) {
+            ratingSyncCall.cancel();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.eknjiznica.viewmodels;
+
+import androidx.lifecycle.SavedStateHandle;
+
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.Book;
+import com.example.eknjiznica.models.Reservation;
+import com.example.eknjiznica.utils.BookPrefetcher;
+import com.example.eknjiznica.utils.CatalogStore;
+import com.example.eknjiznica.utils.ChangeBus;
+import com.example.eknjiznica.utils.DataCache;
+import com.example.eknjiznica.utils.SnapshotCodecs;
+import com.example.eknjiznica.utils.SnapshotStore;
+import com.example.eknjiznica.utils.StatisticsStore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+public class BooksViewModel extends ListViewModel<Book> {
+    private static final String KEY_QUERY = "query";
+    // Roughly the rows visible on the first screens of the catalog
+    private static final int SNAPSHOT_FIRST_PAGE = 50;
+
+    private final SavedStateHandle state;
+    private final BookPrefetcher prefetcher = new BookPrefetcher();
+    private boolean compactCatalog;
+    private CatalogStore catalog;
+    private Call<ResponseBody> catalogCall;
+
+    public BooksViewModel(SavedStateHandle state) {
+        super(ChangeBus.Entity.BOOK);
+        this.state = state;
+    }
+
+    public String getQuery() {
+        return state.get(KEY_QUERY);
+    }
+
+    /**
+     * Runs a new search unless the query is unchanged, e.g. when the restored search field
+     * fires its text watcher after rotation.
+     */
+    public void search(String query) {
+        String current = getQuery();
+        if (query == null ? current == null : query.equals(current)) {
+            loadIfNeeded(null);
+            return;
+        }
+        state.set(KEY_QUERY, query);
+        load(null);
+    }
+
+    /**
+     * Switches the unfiltered catalog between a list of Book objects and a CatalogStore,
+     * which needs a fraction of the heap for very large libraries. Search results are
+     * always a plain list.
+     */
+    public void setCompactCatalog(boolean compact) {
+        if (compactCatalog == compact) {
+            return;
+        }
+        compactCatalog = compact;
+        if (!compact) {
+            if (catalogCall != null) {
+                catalogCall.cancel();
+                catalogCall = null;
+            }
+            catalog = null;
+            DataCache.getInstance().invalidate(DataCache.KEY_CATALOG);
+        }
+        load(null);
+    }
+
+    /**
+     * The rows to show: a view over the CatalogStore in compact mode, else the item list.
+     */
+    public List<Book> getBooks() {
+        return catalog != null && getQuery() == null ? catalog.asBooks() : getItems();
+    }
+
+    @Override
+    public void load(String token) {
+        if (!compactCatalog || getQuery() != null) {
+            super.load(token);
+            return;
+        }
+        CatalogStore cached = DataCache.getInstance().getValue(DataCache.KEY_CATALOG, getCacheMaxAgeMs());
+        if (cached != null) {
+            showCatalog(cached);
+            return;
+        }
+        if (catalogCall != null) {
+            return;
+        }
+        catalogCall = CatalogStore.load(apiService, store -> {
+            catalogCall = null;
+            if (store == null) {
+                showMessage(getLoadErrorMessage());
+                return;
+            }
+            DataCache cache = DataCache.getInstance();
+            // The store replaces the object list, which would otherwise stay in the heap
+            cache.invalidate(DataCache.KEY_BOOKS);
+            cache.putValue(DataCache.KEY_CATALOG, store);
+            if (compactCatalog && getQuery() == null) {
+                showCatalog(store);
+            }
+        });
+    }
+
+    private void showCatalog(CatalogStore store) {
+        catalog = store;
+        // Emits ListChange.ALL; the rows now come from getBooks()
+        setItems(null);
+    }
+
+    /**
+     * Prefetches reviews and ratings for the rows in [first, last] and stops prefetching the rest.
+     */
+    public void prefetchVisible(int first, int last) {
+        List<Book> items = getBooks();
+        List<Integer> bookIds = new ArrayList<>();
+        for (int i = Math.max(first, 0); i <= last && i < items.size(); i++) {
+            bookIds.add(items.get(i).getId());
+        }
+        prefetcher.prefetch(bookIds);
+    }
+
+    @Override
+    protected Call<ApiResponse<List<Book>>> createCall(String token) {
+        return apiService.getBooks(getQuery());
+    }
+
+    @Override
+    protected String getCacheKey() {
+        return getQuery() == null ? DataCache.KEY_BOOKS : null;
+    }
+
+    @Override
+    protected String getLoadErrorMessage() {
+        return "Failed to load books";
+    }
+
+    @Override
+    protected SnapshotStore.Codec<Book> getSnapshotCodec() {
+        return SnapshotCodecs.BOOK;
+    }
+
+    @Override
+    protected int getSnapshotLimit() {
+        return SNAPSHOT_FIRST_PAGE;
+    }
+
+    public void reserveBook(String token, int bookId) {
+        Call<ApiResponse<Reservation>> call = apiService.reserveBook(token, bookId);
+        call.enqueue(new Callback<ApiResponse<Reservation>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<Reservation>> call, Response<ApiResponse<Reservation>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    showMessage("Book reserved successfully!");
+                    // Reserving does not change availability, so the catalog stays as it is
+                    DataCache cache = DataCache.getInstance();
+                    cache.append(DataCache.KEY_MY_RESERVATIONS, response.body().getData());
+                    cache.invalidate(DataCache.KEY_ALL_RESERVATIONS);
+                    StatisticsStore.getInstance().onBookReserved();
+                    ChangeBus.getInstance().publish(ChangeBus.Entity.RESERVATION, ChangeBus.ANY_ID);
+                } else {
+                    String message = response.body() != null ? response.body().getMessage() : "Failed to reserve book";
+                    showMessage(message);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<Reservation>> call, Throwable t) {
+                showMessage("Error: " + t.getMessage());
+            }
+        });
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        prefetcher.cancelAll();
+        if (catalogCall != null) {
+            catalogCall.cancel();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.eknjiznica.viewmodels;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.example.eknjiznica.api.ApiService;
+import com.example.eknjiznica.api.RetrofitClient;
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.LibrarianStatistics;
+import com.example.eknjiznica.models.MemberStatistics;
+import com.example.eknjiznica.utils.SharedPreferencesHelper;
+import com.example.eknjiznica.utils.StatisticsStore;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+public class HomeViewModel extends ViewModel {
+    private final ApiService apiService = RetrofitClient.getInstance().getApiService();
+    private final MutableLiveData<Boolean> loggedIn = new MutableLiveData<>();
+    private final MutableLiveData<LibrarianStatistics> librarianStatistics = new MutableLiveData<>();
+    private final MutableLiveData<MemberStatistics> memberStatistics = new MutableLiveData<>();
+    private Call<ApiResponse<LibrarianStatistics>> librarianCall;
+    private Call<ApiResponse<MemberStatistics>> memberCall;
+    private boolean sessionLoading;
+
+    /**
+     * Null until the session has been read, then whether a user is logged in.
+     */
+    public LiveData<Boolean> isLoggedIn() {
+        return loggedIn;
+    }
+
+    /**
+     * Reads the saved session on a background thread so the first prefs load doesn't block
+     * the splash screen, and starts the dashboard statistics request as soon as it is known.
+     */
+    public void loadSession(Context appContext) {
+        if (loggedIn.getValue() != null || sessionLoading) {
+            return;
+        }
+        sessionLoading = true;
+
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        new Thread(() -> {
+            SharedPreferencesHelper prefsHelper = new SharedPreferencesHelper(appContext);
+            boolean isLoggedIn = prefsHelper.isLoggedIn();
+            String token = prefsHelper.getAuthHeader();
+            boolean isLibrarian = prefsHelper.isLibrarian();
+            boolean isMember = prefsHelper.isMember();
+
+            mainHandler.post(() -> {
+                sessionLoading = false;
+                if (isLoggedIn && token != null) {
+                    loadStatistics(token, isLibrarian, isMember);
+                }
+                loggedIn.setValue(isLoggedIn);
+            });
+        }, "session-load").start();
+    }
+
+    public LiveData<LibrarianStatistics> getLibrarianStatistics() {
+        return librarianStatistics;
+    }
+
+    public LiveData<MemberStatistics> getMemberStatistics() {
+        return memberStatistics;
+    }
+
+    /**
+     * Shows cached or locally derived counts when possible and only falls back to the
+     * server when neither is available. Cheap enough to call on every resume.
+     */
+    public void loadStatistics(String token, boolean isLibrarian, boolean isMember) {
+        StatisticsStore store = StatisticsStore.getInstance();
+        if (isLibrarian) {
+            LibrarianStatistics cached = store.getLibrarian();
+            if (cached != null) {
+                librarianStatistics.setValue(cached);
+            } else if (librarianCall == null) {
+                fetchLibrarianStatistics(token);
+            }
+        }
+        if (isMember) {
+            MemberStatistics cached = store.getMember();
+            if (cached != null) {
+                memberStatistics.setValue(cached);
+            } else if (memberCall == null) {
+                fetchMemberStatistics(token);
+            }
+        }
+    }
+
+    private void fetchLibrarianStatistics(String token) {
+        librarianCall = apiService.getLibrarianStatistics(token);
+        librarianCall.enqueue(new Callback<ApiResponse<LibrarianStatistics>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<LibrarianStatistics>> call, Response<ApiResponse<LibrarianStatistics>> response) {
+                librarianCall = null;
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    StatisticsStore.getInstance().putLibrarian(response.body().getData());
+                    librarianStatistics.setValue(response.body().getData());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<LibrarianStatistics>> call, Throwable t) {
+                librarianCall = null;
+                // Silently fail - the cards just show no counts
+            }
+        });
+    }
+
+    private void fetchMemberStatistics(String token) {
+        memberCall = apiService.getMemberStatistics(token);
+        memberCall.enqueue(new Callback<ApiResponse<MemberStatistics>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<MemberStatistics>> call, Response<ApiResponse<MemberStatistics>> response) {
+                memberCall = null;
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    StatisticsStore.getInstance().putMember(response.body().getData());
+                    memberStatistics.setValue(response.body().getData());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<MemberStatistics>> call, Throwable t) {
+                memberCall = null;
+                // Silently fail - the cards just show no counts
+            }
+        });
+    }
+
+    @Override
+    protected void onCleared() {
+        if (librarianCall != null) {
+            librarianCall.cancel();
+        }
+        if (memberCall != null) {
+            memberCall.cancel();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.eknjiznica.viewmodels;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.example.eknjiznica.api.ApiService;
+import com.example.eknjiznica.api.RetrofitClient;
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.utils.CacheWarmer;
+import com.example.eknjiznica.utils.ChangeBus;
+import com.example.eknjiznica.utils.DataCache;
+import com.example.eknjiznica.utils.Event;
+import com.example.eknjiznica.utils.ListChange;
+import com.example.eknjiznica.utils.ListChangeLiveData;
+import com.example.eknjiznica.utils.SnapshotStore;
+import com.example.eknjiznica.utils.Tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Retained state of a list screen. The list instance is shared with the adapter and
+ * survives configuration changes together with any call that is still in flight. It is not
+ * kept in the saved state: after process death the DataCache is empty too, so a screen shows
+ * its SnapshotStore snapshot, if it has a codec, until the list is fetched again.
+ */
+public abstract class ListViewModel<T> extends ViewModel {
+    public static final int ALL_ITEMS = -1;
+
+    protected final ApiService apiService = RetrofitClient.getInstance().getApiService();
+    private final List<T> items = new ArrayList<>();
+    private final ListChangeLiveData itemsChanged = new ListChangeLiveData();
+    private final MutableLiveData<Event<String>> messages = new MutableLiveData<>();
+    private final ChangeBus.Listener changeListener = (entity, id) -> dataChanged = true;
+    // Built once, so release builds, where tracing compiles away, do not build it per update
+    private final String replaceItemsSection = getClass().getSimpleName() + ".replaceItems";
+    private Call<ApiResponse<List<T>>> inFlight;
+    private boolean loaded;
+    private boolean dataChanged;
+
+    protected ListViewModel(ChangeBus.Entity... entities) {
+        ChangeBus.getInstance().subscribe(changeListener, entities);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Emits a changed row, or ListChange.ALL when the whole list was replaced.
+     */
+    public LiveData<ListChange> getItemsChanged() {
+        return itemsChanged;
+    }
+
+    public LiveData<Event<String>> getMessages() {
+        return messages;
+    }
+
+    /**
+     * Loads only on first use; a recreated activity reuses the retained data or in-flight call.
+     */
+    public void loadIfNeeded(String token) {
+        if (!loaded && inFlight == null) {
+            load(token);
+        }
+    }
+
+    /**
+     * Reloads when a ChangeBus event for this screen's entities arrived since the last load.
+     */
+    public void refreshIfChanged(String token) {
+        if (dataChanged) {
+            dataChanged = false;
+            load(token);
+        }
+    }
+
+    public void load(String token) {
+        String cacheKey = getCacheKey();
+        if (cacheKey != null) {
+            List<T> cached = DataCache.getInstance().get(cacheKey, getCacheMaxAgeMs());
+            if (cached != null) {
+                setItems(cached);
+                return;
+            }
+        }
+
+        SnapshotStore.Codec<T> codec = getSnapshotCodec();
+        if (!loaded && cacheKey != null && codec != null) {
+            // Paint the last known rows from disk while the request below is in flight
+            SnapshotStore.getInstance().read(cacheKey, codec, snapshot -> {
+                if (!loaded && snapshot != null) {
+                    replaceItems(snapshot);
+                }
+            });
+        }
+
+        // A post-login warm-up may already be fetching this list; reuse its result, now as an
+        // interactive call. A warm-up that has not started yet is dropped in favour of ours.
+        if (cacheKey != null && CacheWarmer.getInstance().runWhenWarmed(cacheKey, () -> load(token))) {
+            return;
+        }
+
+        if (inFlight != null) {
+            inFlight.cancel();
+        }
+        inFlight = createCall(token);
+        inFlight.enqueue(new Callback<ApiResponse<List<T>>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<List<T>>> call, Response<ApiResponse<List<T>>> response) {
+                if (call != inFlight) {
+                    return;
+                }
+                inFlight = null;
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    setItems(response.body().getData());
+                    // The key the call was made for, should the query have changed since
+                    cacheItems(cacheKey);
+                } else {
+                    showMessage(getLoadErrorMessage());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<List<T>>> call, Throwable t) {
+                if (call.isCanceled() || call != inFlight) {
+                    return;
+                }
+                inFlight = null;
+                showMessage("Error: " + t.getMessage());
+            }
+        });
+    }
+
+    protected abstract Call<ApiResponse<List<T>>> createCall(String token);
+
+    /**
+     * DataCache key for the current query, or null if it should not be cached.
+     */
+    protected abstract String getCacheKey();
+
+    protected abstract String getLoadErrorMessage();
+
+    /**
+     * How old a cached list may be before the screen asks the server again.
+     */
+    protected long getCacheMaxAgeMs() {
+        return DataCache.DEFAULT_MAX_AGE_MS;
+    }
+
+    /**
+     * Codec for persisting the cached list as a warm-start snapshot, or null for no snapshot.
+     */
+    protected SnapshotStore.Codec<T> getSnapshotCodec() {
+        return null;
+    }
+
+    protected int getSnapshotLimit() {
+        return Integer.MAX_VALUE;
+    }
+
+    protected void setItems(List<T> data) {
+        replaceItems(data);
+        loaded = true;
+    }
+
+    private void replaceItems(List<T> data) {
+        // Includes the observing activity's adapter update, which runs inside setValue()
+        Tracing.begin(replaceItemsSection);
+        try {
+            items.clear();
+            if (data != null) {
+                items.addAll(data);
+            }
+            itemsChanged.setChange(ListChange.ALL);
+        } finally {
+            Tracing.end();
+        }
+    }
+
+    /**
+     * Stores the current list in the DataCache and, if the screen has a codec, its snapshot, so
+     * both hold the same rows, e.g. after a confirmed change to a single row.
+     */
+    protected void cacheItems() {
+        cacheItems(getCacheKey());
+    }
+
+    private void cacheItems(String cacheKey) {
+        if (cacheKey == null) {
+            return;
+        }
+        DataCache.getInstance().put(cacheKey, items);
+        SnapshotStore.Codec<T> codec = getSnapshotCodec();
+        if (codec != null) {
+            SnapshotStore.getInstance().write(cacheKey, items, codec, getSnapshotLimit());
+        }
+    }
+
+    protected void notifyItemChanged(int position) {
+        itemsChanged.setChange(ListChange.changed(position));
+    }
+
+    protected void showMessage(String message) {
+        messages.setValue(new Event<>(message));
+    }
+
+    @Override
+    protected void onCleared() {
+        ChangeBus.getInstance().unsubscribe(changeListener);
+        if (inFlight != null) {
+            inFlight.cancel();
+        }
+    }
+}
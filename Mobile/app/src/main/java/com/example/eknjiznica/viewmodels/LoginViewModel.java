@@ -0,0 +1,61 @@
+package com.example.eknjiznica.viewmodels;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.example.eknjiznica.api.ApiService;
+import com.example.eknjiznica.api.RetrofitClient;
+import com.example.eknjiznica.models.LoginRequest;
+import com.example.eknjiznica.models.LoginResponse;
+import com.example.eknjiznica.utils.Event;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+public class LoginViewModel extends ViewModel {
+    private final ApiService apiService = RetrofitClient.getInstance().getApiService();
+    private final MutableLiveData<Boolean> loggingIn = new MutableLiveData<>(false);
+    private final MutableLiveData<Event<LoginResponse>> loginResult = new MutableLiveData<>();
+    private final MutableLiveData<Event<String>> messages = new MutableLiveData<>();
+
+    public LiveData<Boolean> isLoggingIn() {
+        return loggingIn;
+    }
+
+    public LiveData<Event<LoginResponse>> getLoginResult() {
+        return loginResult;
+    }
+
+    public LiveData<Event<String>> getMessages() {
+        return messages;
+    }
+
+    public void login(String email, String password) {
+        if (Boolean.TRUE.equals(loggingIn.getValue())) {
+            return;
+        }
+        loggingIn.setValue(true);
+
+        LoginRequest request = new LoginRequest(email, password);
+        Call<LoginResponse> call = apiService.login(request);
+        call.enqueue(new Callback<LoginResponse>() {
+            @Override
+            public void onResponse(Call<LoginResponse> call, Response<LoginResponse> response) {
+                loggingIn.setValue(false);
+                if (response.isSuccessful() && response.body() != null) {
+                    loginResult.setValue(new Event<>(response.body()));
+                } else {
+                    messages.setValue(new Event<>("Invalid email or password"));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<LoginResponse> call, Throwable t) {
+                loggingIn.setValue(false);
+                messages.setValue(new Event<>("Error: " + t.getMessage()));
+            }
+        });
+    }
+}
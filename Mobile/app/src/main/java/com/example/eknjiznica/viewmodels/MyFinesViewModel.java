@@ -0,0 +1,46 @@
+package com.example.eknjiznica.viewmodels;
+
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.Fine;
+import com.example.eknjiznica.utils.ChangeBus;
+import com.example.eknjiznica.utils.DataCache;
+import com.example.eknjiznica.utils.MemberSync;
+import com.example.eknjiznica.utils.SnapshotCodecs;
+import com.example.eknjiznica.utils.SnapshotStore;
+
+import java.util.List;
+
+import retrofit2.Call;
+
+public class MyFinesViewModel extends ListViewModel<Fine> {
+
+    public MyFinesViewModel() {
+        super(ChangeBus.Entity.FINE);
+    }
+
+    @Override
+    protected Call<ApiResponse<List<Fine>>> createCall(String token) {
+        return apiService.getMyFines(token);
+    }
+
+    @Override
+    protected String getCacheKey() {
+        return DataCache.KEY_MY_FINES;
+    }
+
+    @Override
+    protected String getLoadErrorMessage() {
+        return "Failed to load fines";
+    }
+
+    @Override
+    protected long getCacheMaxAgeMs() {
+        // Kept current by MemberSync, which refreshes the cache in the background
+        return MemberSync.FRESH_FOR_MS;
+    }
+
+    @Override
+    protected SnapshotStore.Codec<Fine> getSnapshotCodec() {
+        return SnapshotCodecs.FINE;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.eknjiznica.viewmodels;
+
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.Loan;
+import com.example.eknjiznica.utils.ChangeBus;
+import com.example.eknjiznica.utils.DataCache;
+import com.example.eknjiznica.utils.MemberSync;
+import com.example.eknjiznica.utils.LoanReminders;
+import com.example.eknjiznica.utils.SnapshotCodecs;
+import com.example.eknjiznica.utils.SnapshotStore;
+
+import java.util.Collections;
+import java.util.List;
+
+import retrofit2.Call;
+
+public class MyLoansViewModel extends ListViewModel<Loan> {
+
+    public MyLoansViewModel() {
+        super(ChangeBus.Entity.LOAN);
+    }
+
+    @Override
+    protected Call<ApiResponse<List<Loan>>> createCall(String token) {
+        return apiService.getMyLoans(token);
+    }
+
+    @Override
+    protected String getCacheKey() {
+        return DataCache.KEY_MY_LOANS;
+    }
+
+    @Override
+    protected String getLoadErrorMessage() {
+        return "Failed to load loans";
+    }
+
+    @Override
+    protected long getCacheMaxAgeMs() {
+        // Kept current by MemberSync, which refreshes the cache in the background
+        return MemberSync.FRESH_FOR_MS;
+    }
+
+    @Override
+    protected SnapshotStore.Codec<Loan> getSnapshotCodec() {
+        return SnapshotCodecs.LOAN;
+    }
+
+    /**
+     * Reschedules due-date reminders; a no-op unless the open loans actually changed. Done
+     * before the screen is told, so it can see whether any reminders are scheduled.
+     */
+    @Override
+    protected void setItems(List<Loan> data) {
+        LoanReminders.getInstance().sync(data != null ? data : Collections.<Loan>emptyList());
+        super.setItems(data);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.eknjiznica.viewmodels;
+
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.Reservation;
+import com.example.eknjiznica.utils.ChangeBus;
+import com.example.eknjiznica.utils.DataCache;
+import com.example.eknjiznica.utils.MemberSync;
+import com.example.eknjiznica.utils.SnapshotCodecs;
+import com.example.eknjiznica.utils.SnapshotStore;
+
+import java.util.List;
+
+import retrofit2.Call;
+
+public class MyReservationsViewModel extends ListViewModel<Reservation> {
+
+    public MyReservationsViewModel() {
+        super(ChangeBus.Entity.RESERVATION);
+    }
+
+    @Override
+    protected Call<ApiResponse<List<Reservation>>> createCall(String token) {
+        return apiService.getMyReservations(token);
+    }
+
+    @Override
+    protected String getCacheKey() {
+        return DataCache.KEY_MY_RESERVATIONS;
+    }
+
+    @Override
+    protected String getLoadErrorMessage() {
+        return "Failed to load reservations";
+    }
+
+    @Override
+    protected long getCacheMaxAgeMs() {
+        // Kept current by MemberSync, which refreshes the cache in the background
+        return MemberSync.FRESH_FOR_MS;
+    }
+
+    @Override
+    protected SnapshotStore.Codec<Reservation> getSnapshotCodec() {
+        return SnapshotCodecs.RESERVATION;
+    }
+}
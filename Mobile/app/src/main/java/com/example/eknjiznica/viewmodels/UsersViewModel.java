@@ -0,0 +1,158 @@
+package com.example.eknjiznica.viewmodels;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.example.eknjiznica.api.ApiService;
+import com.example.eknjiznica.api.RetrofitClient;
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.CreateUserRequest;
+import com.example.eknjiznica.utils.ChangeBus;
+import com.example.eknjiznica.utils.Event;
+import com.example.eknjiznica.utils.StatisticsStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Users are returned as untyped maps, so this screen does not use ListViewModel.
+ */
+public class UsersViewModel extends ViewModel {
+    private final ApiService apiService = RetrofitClient.getInstance().getApiService();
+    private final List<Map<String, Object>> users = new ArrayList<>();
+    private final MutableLiveData<Integer> usersChanged = new MutableLiveData<>();
+    private final MutableLiveData<Event<String>> messages = new MutableLiveData<>();
+    private final ChangeBus.Listener changeListener = (entity, id) -> dataChanged = true;
+    private Call<ApiResponse<List<Object>>> inFlight;
+    private boolean loaded;
+    private boolean dataChanged;
+
+    public UsersViewModel() {
+        ChangeBus.getInstance().subscribe(changeListener, ChangeBus.Entity.USER);
+    }
+
+    public List<Map<String, Object>> getUsers() {
+        return users;
+    }
+
+    public LiveData<Integer> getUsersChanged() {
+        return usersChanged;
+    }
+
+    public LiveData<Event<String>> getMessages() {
+        return messages;
+    }
+
+    public void loadIfNeeded(String token) {
+        if (!loaded && inFlight == null) {
+            loadUsers(token);
+        }
+    }
+
+    public void refreshIfChanged(String token) {
+        if (dataChanged) {
+            dataChanged = false;
+            loadUsers(token);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void loadUsers(String token) {
+        if (inFlight != null) {
+            inFlight.cancel();
+        }
+        inFlight = apiService.getAllUsers(token);
+        inFlight.enqueue(new Callback<ApiResponse<List<Object>>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<List<Object>>> call, Response<ApiResponse<List<Object>>> response) {
+                if (call != inFlight) {
+                    return;
+                }
+                inFlight = null;
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    users.clear();
+                    // Convert objects to maps
+                    for (Object obj : response.body().getData()) {
+                        if (obj instanceof Map) {
+                            users.add((Map<String, Object>) obj);
+                        }
+                    }
+                    loaded = true;
+                    usersChanged.setValue(ListViewModel.ALL_ITEMS);
+                } else {
+                    messages.setValue(new Event<>("Failed to load users"));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<List<Object>>> call, Throwable t) {
+                if (call.isCanceled() || call != inFlight) {
+                    return;
+                }
+                inFlight = null;
+                messages.setValue(new Event<>("Error: " + t.getMessage()));
+            }
+        });
+    }
+
+    public void createUser(String token, String email, String password, String role) {
+        CreateUserRequest request = new CreateUserRequest(email, password, role);
+        Call<ApiResponse<Object>> call = apiService.createUser(token, request);
+        call.enqueue(new Callback<ApiResponse<Object>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<Object>> call, Response<ApiResponse<Object>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    messages.setValue(new Event<>("User created successfully!"));
+                    if ("Member".equals(role)) {
+                        StatisticsStore.getInstance().onMemberCreated();
+                    }
+                    loadUsers(token);
+                } else {
+                    String message = response.body() != null ? response.body().getMessage() : "Failed to create user";
+                    messages.setValue(new Event<>(message));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<Object>> call, Throwable t) {
+                messages.setValue(new Event<>("Error: " + t.getMessage()));
+            }
+        });
+    }
+
+    public void deleteUser(String token, String userId) {
+        Call<ApiResponse<Object>> call = apiService.deleteUser(token, userId);
+        call.enqueue(new Callback<ApiResponse<Object>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<Object>> call, Response<ApiResponse<Object>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    messages.setValue(new Event<>("User deleted successfully"));
+                    StatisticsStore.getInstance().onUserDeleted();
+                    loadUsers(token);
+                } else {
+                    String message = response.body() != null ? response.body().getMessage() : "Failed to delete user";
+                    messages.setValue(new Event<>(message));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponse<Object>> call, Throwable t) {
+                messages.setValue(new Event<>("Error: " + t.getMessage()));
+            }
+        });
+    }
+
+    @Override
+    protected void onCleared() {
+        ChangeBus.getInstance().unsubscribe(changeListener);
+        if (inFlight != null) {
+            inFlight.cancel();
+        }
+    }
+}
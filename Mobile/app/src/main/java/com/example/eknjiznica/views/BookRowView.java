@@ -0,0 +1,321 @@
+package com.example.eknjiznica.views;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Outline;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.ViewOutlineProvider;
+
+import androidx.core.view.ViewCompat;
+
+import com.example.eknjiznica.models.Book;
+
+/**
+ * Catalog row drawn as a single view, a lighter alternative to item_book.xml (a CardView with
+ * six child views). Text is laid out into StaticLayouts that are only rebuilt when the text
+ * or the width changes, and the reserve button is drawn and hit-tested here.
+ */
+public class BookRowView extends View {
+    public interface OnReserveClickListener {
+        void onReserveClick();
+    }
+
+    private static final String RESERVE_LABEL = "RESERVE";
+
+    private final int padding = dp(16);
+    private final float cornerRadius = dp(8);
+    private final int buttonHeight = dp(48);
+    private final int buttonPadding = dp(16);
+
+    private final TextPaint titlePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint authorPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint detailPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint availablePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint buttonTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint cardPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint buttonPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final int availableColor;
+    private final int unavailableColor;
+
+    private String title = "";
+    private String author = "";
+    private String year = "";
+    private String genre = "";
+    private String rating = "";
+    private boolean available;
+    private boolean showReserve;
+    private OnReserveClickListener reserveListener;
+    private int accessibilityActionId = View.NO_ID;
+
+    // Layouts for layoutWidth; null when their text changed since they were built
+    private int layoutWidth = -1;
+    private StaticLayout titleLayout, authorLayout, yearLayout, genreLayout, ratingLayout, availableLayout;
+    private final RectF cardRect = new RectF();
+    private final RectF buttonRect = new RectF();
+    private boolean reservePressed;
+
+    public BookRowView(Context context) {
+        super(context);
+        TypedArray colors = context.obtainStyledAttributes(new int[]{
+                android.R.attr.textColorPrimary,
+                android.R.attr.textColorSecondary,
+                com.google.android.material.R.attr.colorSurface,
+                com.google.android.material.R.attr.colorPrimary});
+        int primaryText = colors.getColor(0, Color.BLACK);
+        int secondaryText = colors.getColor(1, Color.DKGRAY);
+        cardPaint.setColor(colors.getColor(2, Color.WHITE));
+        buttonPaint.setColor(colors.getColor(3, Color.BLUE));
+        colors.recycle();
+
+        titlePaint.setTextSize(sp(20));
+        titlePaint.setTypeface(Typeface.DEFAULT_BOLD);
+        titlePaint.setColor(primaryText);
+        authorPaint.setTextSize(sp(16));
+        authorPaint.setColor(secondaryText);
+        detailPaint.setTextSize(sp(14));
+        detailPaint.setColor(secondaryText);
+        availablePaint.setTextSize(sp(14));
+        availablePaint.setTypeface(Typeface.DEFAULT_BOLD);
+        buttonTextPaint.setTextSize(sp(14));
+        buttonTextPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        buttonTextPaint.setColor(Color.WHITE);
+        buttonTextPaint.setTextAlign(Paint.Align.CENTER);
+        availableColor = context.getColor(android.R.color.holo_green_dark);
+        unavailableColor = context.getColor(android.R.color.holo_red_dark);
+
+        // The shadow is rendered from the outline, so no card background is needed
+        setElevation(dp(4));
+        setOutlineProvider(new ViewOutlineProvider() {
+            @Override
+            public void getOutline(View view, Outline outline) {
+                outline.setRoundRect(0, 0, view.getWidth(), view.getHeight(), cornerRadius);
+            }
+        });
+        TypedValue ripple = new TypedValue();
+        context.getTheme().resolveAttribute(android.R.attr.selectableItemBackground, ripple, true);
+        setForeground(context.getDrawable(ripple.resourceId));
+        setClickable(true);
+    }
+
+    public void bind(Book book, boolean showReserve) {
+        String newTitle = book.getTitle() != null ? book.getTitle() : "";
+        String newAuthor = "Author: " + book.getAuthor();
+        String newYear = "Year: " + book.getYear();
+        String newGenre = "Genre: " + book.getGenre();
+        boolean changed = !newTitle.equals(title) || !newAuthor.equals(author)
+                || showReserve != this.showReserve;
+        if (!newTitle.equals(title)) {
+            title = newTitle;
+            titleLayout = null;
+        }
+        if (!newAuthor.equals(author)) {
+            author = newAuthor;
+            authorLayout = null;
+        }
+        if (!newYear.equals(year)) {
+            year = newYear;
+            yearLayout = null;
+        }
+        if (!newGenre.equals(genre)) {
+            genre = newGenre;
+            genreLayout = null;
+        }
+        if (book.isAvailable() != available || availableLayout == null) {
+            available = book.isAvailable();
+            availableLayout = null;
+        }
+        this.showReserve = showReserve;
+        setRating("");
+        updateAccessibility();
+
+        // Title and author may wrap; the other lines never change the row height
+        if (changed) {
+            requestLayout();
+        }
+        invalidate();
+    }
+
+    public void setRating(String text) {
+        if (!text.equals(rating)) {
+            rating = text;
+            ratingLayout = null;
+            invalidate();
+        }
+    }
+
+    public void setOnReserveClickListener(OnReserveClickListener listener) {
+        reserveListener = listener;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        ensureLayouts(width);
+        int height = padding
+                + titleLayout.getHeight()
+                + dp(4) + authorLayout.getHeight()
+                + dp(8) + Math.max(yearLayout.getHeight(), genreLayout.getHeight())
+                + dp(4) + ratingLayout.getHeight()
+                + dp(8) + availableLayout.getHeight()
+                + (showReserve ? dp(8) + buttonHeight : 0)
+                + padding;
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        ensureLayouts(getWidth());
+        cardRect.set(0, 0, getWidth(), getHeight());
+        canvas.drawRoundRect(cardRect, cornerRadius, cornerRadius, cardPaint);
+
+        int y = padding;
+        y = drawLayout(canvas, titleLayout, padding, y);
+        y = drawLayout(canvas, authorLayout, padding, y + dp(4));
+        y += dp(8);
+        drawLayout(canvas, yearLayout, padding, y);
+        drawLayout(canvas, genreLayout, padding + contentWidth() / 2, y);
+        y += Math.max(yearLayout.getHeight(), genreLayout.getHeight());
+        y = drawLayout(canvas, ratingLayout, padding, y + dp(4));
+        y = drawLayout(canvas, availableLayout, padding, y + dp(8));
+
+        if (showReserve) {
+            float textWidth = buttonTextPaint.measureText(RESERVE_LABEL);
+            float top = y + dp(8);
+            buttonRect.set(padding, top, padding + textWidth + 2 * buttonPadding, top + buttonHeight);
+            buttonPaint.setAlpha(reservePressed ? 200 : 255);
+            // The visible button is inset inside its 48dp touch target
+            canvas.drawRoundRect(buttonRect.left, buttonRect.top + dp(6), buttonRect.right, buttonRect.bottom - dp(6),
+                    dp(4), dp(4), buttonPaint);
+            Paint.FontMetrics metrics = buttonTextPaint.getFontMetrics();
+            float baseline = buttonRect.centerY() - (metrics.ascent + metrics.descent) / 2;
+            canvas.drawText(RESERVE_LABEL, buttonRect.centerX(), baseline, buttonTextPaint);
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        boolean inButton = showReserve && buttonRect.contains(event.getX(), event.getY());
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                if (inButton) {
+                    setReservePressed(true);
+                    return true;
+                }
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if (reservePressed) {
+                    setReservePressed(inButton);
+                    return true;
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+                if (reservePressed) {
+                    setReservePressed(false);
+                    if (inButton && reserveListener != null) {
+                        playSoundEffect(SoundEffectConstants.CLICK);
+                        reserveListener.onReserveClick();
+                    }
+                    return true;
+                }
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                setReservePressed(false);
+                break;
+        }
+        // Everywhere else the row behaves as one clickable item
+        return super.onTouchEvent(event);
+    }
+
+    private void setReservePressed(boolean pressed) {
+        if (pressed != reservePressed) {
+            reservePressed = pressed;
+            invalidate();
+        }
+    }
+
+    private void updateAccessibility() {
+        setContentDescription(title + ", " + author + ", " + year + ", " + genre + ", "
+                + (available ? "Available" : "Not Available"));
+        if (accessibilityActionId != View.NO_ID) {
+            ViewCompat.removeAccessibilityAction(this, accessibilityActionId);
+            accessibilityActionId = View.NO_ID;
+        }
+        if (showReserve) {
+            accessibilityActionId = ViewCompat.addAccessibilityAction(this, "Reserve", (view, arguments) -> {
+                if (reserveListener == null) {
+                    return false;
+                }
+                reserveListener.onReserveClick();
+                return true;
+            });
+        }
+    }
+
+    private void ensureLayouts(int width) {
+        if (width != layoutWidth) {
+            layoutWidth = width;
+            titleLayout = authorLayout = yearLayout = genreLayout = ratingLayout = availableLayout = null;
+        }
+        int content = contentWidth();
+        if (titleLayout == null) {
+            titleLayout = layout(title, titlePaint, content, Integer.MAX_VALUE);
+        }
+        if (authorLayout == null) {
+            authorLayout = layout(author, authorPaint, content, Integer.MAX_VALUE);
+        }
+        if (yearLayout == null) {
+            yearLayout = layout(year, detailPaint, content / 2, 1);
+        }
+        if (genreLayout == null) {
+            genreLayout = layout(genre, detailPaint, content - content / 2, 1);
+        }
+        if (ratingLayout == null) {
+            ratingLayout = layout(rating, detailPaint, content, 1);
+        }
+        if (availableLayout == null) {
+            availablePaint.setColor(available ? availableColor : unavailableColor);
+            availableLayout = layout(available ? "Available" : "Not Available", availablePaint, content, 1);
+        }
+    }
+
+    private int contentWidth() {
+        return Math.max(0, layoutWidth - 2 * padding);
+    }
+
+    private static StaticLayout layout(String text, TextPaint paint, int width, int maxLines) {
+        return StaticLayout.Builder.obtain(text, 0, text.length(), paint, width)
+                .setAlignment(Layout.Alignment.ALIGN_NORMAL)
+                .setIncludePad(true)
+                .setMaxLines(maxLines)
+                .setEllipsize(TextUtils.TruncateAt.END)
+                .build();
+    }
+
+    private static int drawLayout(Canvas canvas, StaticLayout layout, int x, int y) {
+        canvas.save();
+        canvas.translate(x, y);
+        layout.draw(canvas);
+        canvas.restore();
+        return y + layout.getHeight();
+    }
+
+    private int dp(int value) {
+        return Math.round(value * getResources().getDisplayMetrics().density);
+    }
+
+    private float sp(int value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, value, getResources().getDisplayMetrics());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.eknjiznica.workers;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.eknjiznica.api.ApiService;
+import com.example.eknjiznica.api.RequestPriority;
+import com.example.eknjiznica.api.RequestScheduler;
+import com.example.eknjiznica.api.RetrofitClient;
+import com.example.eknjiznica.models.ApiResponse;
+import com.example.eknjiznica.models.Fine;
+import com.example.eknjiznica.models.Loan;
+import com.example.eknjiznica.models.Reservation;
+import com.example.eknjiznica.models.Review;
+import com.example.eknjiznica.utils.ChangeBus;
+import com.example.eknjiznica.utils.DataCache;
+import com.example.eknjiznica.utils.LoanReminders;
+import com.example.eknjiznica.utils.SharedPreferencesHelper;
+import com.example.eknjiznica.utils.SnapshotCodecs;
+import com.example.eknjiznica.utils.SnapshotStore;
+
+import java.io.IOException;
+import java.util.List;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Fetches the member's loans, reservations, fines and reviews back to back in a single
+ * wake-up and stores them in the DataCache and snapshots, so their screens open without
+ * waiting on the network.
+ */
+public class MemberSyncWorker extends Worker {
+
+    public MemberSyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        SharedPreferencesHelper prefsHelper = new SharedPreferencesHelper(getApplicationContext());
+        String token = prefsHelper.getAuthHeader();
+        if (token == null || !prefsHelper.isMember()) {
+            return Result.success();
+        }
+
+        ApiService apiService = RetrofitClient.getInstance().getApiService();
+        List<Loan> loans;
+        List<Reservation> reservations;
+        List<Fine> fines;
+        List<Review> reviews;
+        try {
+            loans = fetch(apiService.getMyLoans(token));
+            reservations = fetch(apiService.getMyReservations(token));
+            fines = fetch(apiService.getMyFines(token));
+            reviews = fetch(apiService.getMyReviews(token));
+        } catch (IOException e) {
+            return Result.retry();
+        }
+
+        // The cache and ChangeBus are used from the main thread
+        new Handler(Looper.getMainLooper()).post(() -> {
+            // Logged out (or in as someone else) while the requests were running
+            if (!token.equals(prefsHelper.getAuthHeader())) {
+                return;
+            }
+            store(DataCache.KEY_MY_LOANS, loans, SnapshotCodecs.LOAN, ChangeBus.Entity.LOAN);
+            store(DataCache.KEY_MY_RESERVATIONS, reservations, SnapshotCodecs.RESERVATION, ChangeBus.Entity.RESERVATION);
+            store(DataCache.KEY_MY_FINES, fines, SnapshotCodecs.FINE, ChangeBus.Entity.FINE);
+            store(DataCache.KEY_MY_REVIEWS, reviews, null, ChangeBus.Entity.REVIEW);
+            if (loans != null) {
+                LoanReminders.getInstance().sync(loans);
+            }
+        });
+        return Result.success();
+    }
+
+    /**
+     * Returns the list, or null when the server rejected the request.
+     */
+    private static <T> List<T> fetch(Call<ApiResponse<List<T>>> call) throws IOException {
+        Response<ApiResponse<List<T>>> response =
+                RequestScheduler.getInstance().execute(RequestPriority.BACKGROUND_SYNC, call);
+        if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+            return response.body().getData();
+        }
+        return null;
+    }
+
+    private static <T> void store(String key, List<T> items, SnapshotStore.Codec<T> codec, ChangeBus.Entity entity) {
+        if (items == null) {
+            return;
+        }
+        DataCache.getInstance().put(key, items);
+        if (codec != null) {
+            SnapshotStore.getInstance().write(key, items, codec, Integer.MAX_VALUE);
+        }
+        // Open screens pick the new list up from the cache on their next resume
+        ChangeBus.getInstance().publish(entity, ChangeBus.ANY_ID);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.eknjiznica.api;
+
+import com.example.eknjiznica.BuildConfig;
+import com.example.eknjiznica.models.Book;
+import com.example.eknjiznica.utils.RecordingTraceBackend;
+import com.example.eknjiznica.utils.Tracing;
+import com.google.gson.JsonSyntaxException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collections;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class TracingConverterFactoryTest {
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private RecordingTraceBackend backend;
+    private Converter<ResponseBody, ?> bookConverter;
+
+    @Before
+    public void setUp() {
+        // Sections are compiled out of release builds
+        assumeTrue(BuildConfig.DEBUG);
+        backend = new RecordingTraceBackend();
+        Tracing.setBackend(backend);
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl("http://localhost/")
+                .addConverterFactory(new TracingConverterFactory(GsonConverterFactory.create()))
+                .build();
+        bookConverter = retrofit.responseBodyConverter(Book.class, new Annotation[0]);
+    }
+
+    @Test
+    public void parseIsOneClosedSection() throws Exception {
+        Book book = (Book) bookConverter.convert(ResponseBody.create("{\"id\":3,\"title\":\"Dune\"}", JSON));
+
+        assertEquals(3, book.getId());
+        assertEquals("Dune", book.getTitle());
+        assertEquals(Collections.singletonList("parse Book"), backend.getCompleted());
+        assertTrue(backend.isBalanced());
+    }
+
+    @Test
+    public void failedParseStillEndsSection() throws Exception {
+        try {
+            bookConverter.convert(ResponseBody.create("{\"id\":", JSON));
+            fail("Malformed JSON was parsed");
+        } catch (JsonSyntaxException expected) {
+            // The section must be closed on the way out
+        }
+        assertEquals(Collections.singletonList("parse Book"), backend.getCompleted());
+        assertTrue(backend.isBalanced());
+    }
+
+    @Test
+    public void parseNestsInsideEnclosingSection() throws Exception {
+        Tracing.begin("load");
+        try {
+            bookConverter.convert(ResponseBody.create("{\"id\":1}", JSON));
+            assertFalse(backend.isBalanced());
+        } finally {
+            Tracing.end();
+        }
+        assertEquals(Arrays.asList("parse Book", "load"), backend.getCompleted());
+        assertTrue(backend.isBalanced());
+    }
+}
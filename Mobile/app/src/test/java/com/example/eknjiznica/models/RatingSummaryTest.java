@@ -0,0 +1,104 @@
+package com.example.eknjiznica.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RatingSummaryTest {
+    private static final double DELTA = 1e-9;
+
+    private static RatingSummary summary(int... ratingCounts) {
+        RatingSummary summary = new RatingSummary();
+        int count = 0;
+        for (int c : ratingCounts) {
+            count += c;
+        }
+        summary.setReviewCount(count);
+        summary.setRatingCounts(ratingCounts);
+        return summary;
+    }
+
+    @Test
+    public void averageComesFromHistogram() {
+        // 2 x 5 stars, 1 x 2 stars
+        RatingSummary summary = summary(0, 1, 0, 0, 2);
+        summary.setAverageRating(4.0); // rounded by the server
+        assertEquals(12.0 / 3, summary.getAverageRating(), DELTA);
+    }
+
+    @Test
+    public void averageWithoutReviewsIsZero() {
+        assertEquals(0, summary(0, 0, 0, 0, 0).getAverageRating(), DELTA);
+    }
+
+    @Test
+    public void averageWithoutHistogramUsesServerAverage() {
+        RatingSummary summary = new RatingSummary();
+        summary.setReviewCount(4);
+        summary.setAverageRating(3.5);
+        assertEquals(3.5, summary.getAverageRating(), DELTA);
+    }
+
+    @Test
+    public void addRatingUpdatesCountHistogramAndAverage() {
+        RatingSummary summary = summary(0, 0, 0, 1, 0);
+        summary.addRating(2);
+        assertEquals(2, summary.getReviewCount());
+        assertArrayEquals(new int[]{0, 1, 0, 1, 0}, summary.getRatingCounts());
+        assertEquals(3.0, summary.getAverageRating(), DELTA);
+    }
+
+    @Test
+    public void addRatingToEmptySummary() {
+        RatingSummary summary = summary(0, 0, 0, 0, 0);
+        summary.addRating(5);
+        assertEquals(1, summary.getReviewCount());
+        assertEquals(5.0, summary.getAverageRating(), DELTA);
+    }
+
+    @Test
+    public void removeRatingUpdatesCountHistogramAndAverage() {
+        RatingSummary summary = summary(1, 0, 0, 0, 2);
+        summary.removeRating(1);
+        assertEquals(2, summary.getReviewCount());
+        assertArrayEquals(new int[]{0, 0, 0, 0, 2}, summary.getRatingCounts());
+        assertEquals(5.0, summary.getAverageRating(), DELTA);
+    }
+
+    @Test
+    public void removeLastRatingLeavesEmptySummary() {
+        RatingSummary summary = summary(0, 0, 1, 0, 0);
+        summary.removeRating(3);
+        assertEquals(0, summary.getReviewCount());
+        assertEquals(0, summary.getAverageRating(), DELTA);
+    }
+
+    @Test
+    public void removeRatingFromEmptySummaryIsIgnored() {
+        RatingSummary summary = summary(0, 0, 0, 0, 0);
+        summary.removeRating(4);
+        assertEquals(0, summary.getReviewCount());
+        assertArrayEquals(new int[]{0, 0, 0, 0, 0}, summary.getRatingCounts());
+    }
+
+    @Test
+    public void addThenRemoveRestoresSummary() {
+        RatingSummary summary = summary(0, 2, 1, 0, 3);
+        double average = summary.getAverageRating();
+        summary.addRating(4);
+        summary.removeRating(4);
+        assertEquals(6, summary.getReviewCount());
+        assertArrayEquals(new int[]{0, 2, 1, 0, 3}, summary.getRatingCounts());
+        assertEquals(average, summary.getAverageRating(), DELTA);
+    }
+
+    @Test
+    public void changesWithoutHistogramAdjustServerAverage() {
+        RatingSummary summary = new RatingSummary();
+        summary.setReviewCount(2);
+        summary.setAverageRating(4.0);
+        summary.addRating(1);
+        assertEquals(3, summary.getReviewCount());
+        assertEquals(3.0, summary.getAverageRating(), DELTA);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.eknjiznica.utils;
+
+import com.example.eknjiznica.models.Book;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CatalogStoreTest {
+
+    @Test
+    public void rowsKeepTheirColumns() {
+        CatalogStore store = new CatalogStore.Builder()
+                .add(7, "Dune", "Herbert", 1965, "SF", true)
+                .add(3, "Emma", "Austen", 1815, "Classic", false)
+                .build();
+
+        assertEquals(2, store.size());
+        assertEquals(3, store.getId(1));
+        assertEquals("Emma", store.getTitle(1));
+        assertEquals("Austen", store.getAuthor(1));
+        assertEquals(1815, store.getYear(1));
+        assertEquals("Classic", store.getGenre(1));
+        assertFalse(store.isAvailable(1));
+        assertTrue(store.isAvailable(0));
+        assertEquals(1, store.countAvailable());
+    }
+
+    @Test
+    public void repeatedAuthorsAndGenresAreStoredOnce() {
+        CatalogStore store = new CatalogStore.Builder()
+                .add(1, "Emma", "Austen", 1815, "Classic", true)
+                .add(2, "Persuasion", new String("Austen"), 1817, new String("Classic"), true)
+                .add(3, "Dune", "Herbert", 1965, "SF", true)
+                .add(4, "No author", null, 2000, null, true)
+                .build();
+
+        assertEquals(3, store.getStats().authors);
+        assertEquals(3, store.getStats().genres);
+        // Equal strings from different rows map to the first instance seen
+        assertSame(store.getAuthor(0), store.getAuthor(1));
+        assertSame(store.getGenre(0), store.getGenre(1));
+        assertNull(store.getAuthor(3));
+        assertNull(store.getGenre(3));
+    }
+
+    @Test
+    public void builderGrowsPastItsInitialCapacity() {
+        CatalogStore.Builder builder = new CatalogStore.Builder();
+        for (int i = 0; i < 3000; i++) {
+            builder.add(i, "Title " + i, "Author " + i % 10, 1900 + i % 100, "Genre " + i % 3, i % 2 == 0);
+        }
+        CatalogStore store = builder.build();
+
+        assertEquals(3000, store.size());
+        assertEquals("Title 2999", store.getTitle(2999));
+        assertEquals("Author 9", store.getAuthor(2999));
+        assertEquals(1500, store.countAvailable());
+        assertEquals(10, store.getStats().authors);
+        assertEquals(3, store.getStats().genres);
+    }
+
+    @Test
+    public void findLooksUpRowsInAnyIdOrder() {
+        int[] ids = {42, -5, 7, Integer.MAX_VALUE, 0, 1000, Integer.MIN_VALUE, 8};
+        CatalogStore.Builder builder = new CatalogStore.Builder();
+        for (int id : ids) {
+            builder.add(id, "Book " + id, "A", 2000, "G", true);
+        }
+        CatalogStore store = builder.build();
+
+        for (int id : ids) {
+            Book book = store.find(id);
+            assertNotNull("id " + id, book);
+            assertEquals(id, book.getId());
+            assertEquals("Book " + id, book.getTitle());
+        }
+        assertNull(store.find(6));
+        assertNull(store.find(43));
+        assertNull(store.find(Integer.MAX_VALUE - 1));
+    }
+
+    @Test
+    public void findInEmptyStore() {
+        CatalogStore store = new CatalogStore.Builder().build();
+        assertEquals(0, store.size());
+        assertNull(store.find(1));
+    }
+
+    @Test
+    public void asBooksIsAReadOnlyListView() {
+        CatalogStore store = new CatalogStore.Builder()
+                .add(1, "Emma", "Austen", 1815, "Classic", true)
+                .add(2, "Dune", "Herbert", 1965, "SF", false)
+                .build();
+        List<Book> books = store.asBooks();
+
+        assertEquals(2, books.size());
+        assertEquals("Dune", books.get(1).getTitle());
+        try {
+            books.get(2);
+            fail("Read past the last row");
+        } catch (IndexOutOfBoundsException expected) {
+            // The view is bounded by the store
+        }
+        try {
+            books.remove(0);
+            fail("Removed a row");
+        } catch (UnsupportedOperationException expected) {
+            // The store is immutable
+        }
+    }
+
+    @Test
+    public void stringSizesFollowArtLayout() {
+        assertEquals(0, CatalogStore.HeapSize.string(null));
+        // Header, count and hash are 16 bytes, then one byte per ASCII character, 8-aligned
+        assertEquals(16, CatalogStore.HeapSize.string(""));
+        assertEquals(24, CatalogStore.HeapSize.string("abc"));
+        assertEquals(24, CatalogStore.HeapSize.string("abcdefgh"));
+        assertEquals(32, CatalogStore.HeapSize.string("abcdefghi"));
+        // Any non-ASCII character makes it two bytes per character
+        assertEquals(24, CatalogStore.HeapSize.string("\u010da\u0107"));
+        assertEquals(32, CatalogStore.HeapSize.string("abcd\u010d"));
+    }
+
+    @Test
+    public void estimatesForOneRow() {
+        CatalogStore store = new CatalogStore.Builder().add(1, "T", "A", 2000, "G", true).build();
+        CatalogStore.Stats stats = store.getStats();
+
+        // ArrayList and its array, one reference, one Book and its three strings
+        assertEquals(24 + 16 + 32 + 3 * 24, stats.estimatedBookListBytes);
+        // Store object, five int arrays, the BitSet and its words, three reference arrays,
+        // three strings
+        assertEquals(56 + 5 * 16 + 24 + 24 + 3 * 16 + 3 * 24, stats.estimatedRetainedBytes);
+    }
+
+    @Test
+    public void columnsBeatBookObjectsForRepetitiveCatalogs() {
+        CatalogStore.Builder builder = new CatalogStore.Builder();
+        for (int i = 0; i < 10_000; i++) {
+            builder.add(i, "Title " + i, "Author " + i % 50, 2000, "Genre " + i % 8, true);
+        }
+        CatalogStore.Stats stats = builder.build().getStats();
+
+        assertTrue(stats.estimatedRetainedBytes > 0);
+        assertTrue(stats.estimatedRetainedBytes < stats.estimatedBookListBytes / 2);
+    }
+}
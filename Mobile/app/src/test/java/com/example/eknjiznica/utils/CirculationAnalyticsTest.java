@@ -0,0 +1,242 @@
+package com.example.eknjiznica.utils;
+
+import com.example.eknjiznica.models.Loan;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class CirculationAnalyticsTest {
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    private static final long TODAY = 20000; // epoch day the tests start on
+
+    private final long[] now = {at(0)};
+    private final CirculationAnalytics analytics = new CirculationAnalytics(() -> now[0]);
+    private TimeZone defaultTimeZone;
+    private int nextId = 1;
+
+    @Before
+    public void setUp() {
+        // Days are local days; pin them so the tests do not depend on the machine
+        defaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(defaultTimeZone);
+    }
+
+    /**
+     * Noon of the day that many days from the start day, negative for the past.
+     */
+    private static long at(int days) {
+        return (TODAY + days) * DAY_MS + DAY_MS / 2;
+    }
+
+    private void moveToDay(int days) {
+        now[0] = at(days);
+    }
+
+    private Loan loan(int bookId, int loanDay, int dueDay, String status) {
+        Loan loan = new Loan();
+        loan.setId(nextId++);
+        loan.setBookId(bookId);
+        loan.setLoanDate(new Date(at(loanDay)));
+        loan.setDueDate(new Date(at(dueDay)));
+        loan.setStatus(status);
+        return loan;
+    }
+
+    private Loan returned(int bookId, int loanDay, int returnDay) {
+        Loan loan = loan(bookId, loanDay, loanDay + 14, "Returned");
+        loan.setReturnDate(new Date(at(returnDay)));
+        return loan;
+    }
+
+    @Test
+    public void loansAreBucketedByDay() {
+        analytics.rebuild(Arrays.asList(
+                loan(1, 0, 14, "Active"),
+                loan(1, -1, 13, "Active"),
+                loan(2, -6, 8, "Active"),
+                loan(3, -10, 4, "Active")));
+
+        assertEquals(1, analytics.loansInLastDays(1));
+        assertEquals(2, analytics.loansInLastDays(2));
+        assertEquals(3, analytics.loansInLastDays(7));
+        assertEquals(4, analytics.loansInLastDays(30));
+        assertArrayEquals(new int[]{1, 0, 0, 0, 1, 0, 0, 0, 0, 1, 1}, analytics.loansPerDay(11));
+    }
+
+    @Test
+    public void windowsAreClamped() {
+        analytics.rebuild(Arrays.asList(
+                loan(1, 0, 14, "Active"),
+                loan(1, -(CirculationAnalytics.MAX_WINDOW_DAYS - 1), 0, "Returned"),
+                loan(1, -CirculationAnalytics.MAX_WINDOW_DAYS, 0, "Returned")));
+
+        // The last loan is one day older than the window can hold
+        assertEquals(2, analytics.loansInLastDays(CirculationAnalytics.MAX_WINDOW_DAYS));
+        assertEquals(2, analytics.loansInLastDays(10 * CirculationAnalytics.MAX_WINDOW_DAYS));
+        assertEquals(0, analytics.loansInLastDays(0));
+        assertEquals(0, analytics.loansInLastDays(-5));
+        assertEquals(CirculationAnalytics.MAX_WINDOW_DAYS, analytics.loansPerDay(1000).length);
+    }
+
+    @Test
+    public void daysLeaveTheWindowAsTimePasses() {
+        analytics.rebuild(Arrays.asList(loan(1, 0, 14, "Active"), loan(1, -2, 12, "Active")));
+
+        moveToDay(5);
+        assertEquals(0, analytics.loansInLastDays(5));
+        assertEquals(1, analytics.loansInLastDays(6));
+        assertEquals(2, analytics.loansInLastDays(8));
+        assertArrayEquals(new int[]{1, 0, 0, 0, 0, 0}, analytics.loansPerDay(6));
+    }
+
+    @Test
+    public void reusedSlotStartsFromZero() {
+        analytics.rebuild(Arrays.asList(loan(1, 0, 14, "Active")));
+
+        // Same ring slot as day 0, one lap later
+        moveToDay(CirculationAnalytics.MAX_WINDOW_DAYS);
+        assertEquals(0, analytics.loansInLastDays(CirculationAnalytics.MAX_WINDOW_DAYS));
+        analytics.onLoanCreated(loan(2, CirculationAnalytics.MAX_WINDOW_DAYS, CirculationAnalytics.MAX_WINDOW_DAYS + 14, "Active"));
+        assertEquals(1, analytics.loansInLastDays(1));
+        assertEquals(1, analytics.loansInLastDays(CirculationAnalytics.MAX_WINDOW_DAYS));
+    }
+
+    @Test
+    public void longGapClearsEverything() {
+        analytics.rebuild(Arrays.asList(loan(1, 0, 14, "Active"), returned(2, -3, -1)));
+
+        moveToDay(3 * CirculationAnalytics.MAX_WINDOW_DAYS);
+        assertEquals(0, analytics.loansInLastDays(CirculationAnalytics.MAX_WINDOW_DAYS));
+        assertEquals(0, analytics.returnsInLastDays(CirculationAnalytics.MAX_WINDOW_DAYS));
+        // Still open, so still overdue
+        assertEquals(1, analytics.overdueCount());
+    }
+
+    @Test
+    public void returnsAreBucketedByReturnDay() {
+        analytics.rebuild(Arrays.asList(returned(1, -20, -1), returned(2, -20, -8), loan(3, -1, 13, "Active")));
+
+        assertEquals(0, analytics.returnsInLastDays(1));
+        assertEquals(1, analytics.returnsInLastDays(7));
+        assertEquals(2, analytics.returnsInLastDays(30));
+    }
+
+    @Test
+    public void overdueCountsOpenLoansDueBeforeToday() {
+        analytics.rebuild(Arrays.asList(
+                loan(1, -20, -1, "Active"),
+                loan(2, -20, 0, "Active"),
+                loan(3, -10, 1, "Active"),
+                loan(4, -500, -480, "Active"),
+                returned(5, -30, -2)));
+
+        assertEquals(2, analytics.overdueCount());
+        moveToDay(2);
+        assertEquals(4, analytics.overdueCount());
+    }
+
+    @Test
+    public void dueDaysMoveBeforeTheWindowWhileStillOverdue() {
+        analytics.rebuild(Arrays.asList(loan(1, -20, -1, "Active")));
+
+        moveToDay(CirculationAnalytics.MAX_WINDOW_DAYS + 10);
+        assertEquals(1, analytics.overdueCount());
+    }
+
+    @Test
+    public void returnUpdatesCountersInPlace() {
+        Loan open = loan(1, -20, -1, "Active");
+        analytics.rebuild(Arrays.asList(open));
+
+        analytics.onLoanReturned(open, new Date(at(0)));
+        assertEquals(0, analytics.overdueCount());
+        assertEquals(1, analytics.returnsInLastDays(1));
+
+        // A loan that was already returned is not counted twice
+        analytics.onLoanReturned(returned(2, -5, -1), new Date(at(0)));
+        assertEquals(1, analytics.returnsInLastDays(1));
+    }
+
+    @Test
+    public void topBorrowedOrdersByCount() {
+        analytics.rebuild(Arrays.asList(
+                loan(7, -3, 11, "Active"),
+                loan(9, -2, 12, "Active"),
+                returned(7, -40, -30),
+                loan(7, -1, 13, "Active")));
+
+        List<CirculationAnalytics.BookCount> top = analytics.topBorrowed(1);
+        assertEquals(1, top.size());
+        assertEquals(7, top.get(0).bookId);
+        assertEquals(3, top.get(0).count);
+        assertEquals(2, analytics.topBorrowed(5).size());
+    }
+
+    @Test
+    public void sameLoansAreNotRebuilt() {
+        List<Loan> loans = Arrays.asList(loan(1, 0, 14, "Active"), loan(2, -1, -1, "Active"));
+        assertTrue(analytics.rebuildIfChanged(loans));
+        assertFalse(analytics.rebuildIfChanged(loans));
+
+        // The counters were updated in place, so the returned copy matches them
+        analytics.onLoanReturned(loans.get(1), new Date(at(0)));
+        Loan returnedCopy = loan(2, -1, -1, "Returned");
+        returnedCopy.setId(loans.get(1).getId());
+        assertFalse(analytics.rebuildIfChanged(Arrays.asList(loans.get(0), returnedCopy)));
+        assertEquals(0, analytics.overdueCount());
+        assertEquals(1, analytics.returnsInLastDays(1));
+    }
+
+    @Test
+    public void changedLoansAreRebuilt() {
+        Loan first = loan(1, 0, 14, "Active");
+        assertTrue(analytics.rebuildIfChanged(Arrays.asList(first)));
+
+        assertTrue(analytics.rebuildIfChanged(Arrays.asList(first, loan(2, 0, 14, "Active"))));
+        assertEquals(2, analytics.loansInLastDays(1));
+
+        Loan overdue = loan(3, -20, -1, "Overdue");
+        overdue.setId(first.getId());
+        assertTrue(analytics.rebuildIfChanged(Arrays.asList(overdue, loan(2, 0, 14, "Active"))));
+        assertEquals(1, analytics.overdueCount());
+    }
+
+    @Test
+    public void loanDueBeyondTheRangeIsSkippedWhenReturnedToo() {
+        Loan farAhead = loan(1, 0, CirculationAnalytics.MAX_WINDOW_DAYS + 30, "Active");
+        Loan dueYesterday = loan(2, -20, -1, "Active");
+        analytics.rebuild(Arrays.asList(farAhead, dueYesterday));
+
+        // By now its due day is within range, but it was never counted there
+        moveToDay(60);
+        analytics.onLoanReturned(farAhead, new Date(at(60)));
+        assertEquals(1, analytics.overdueCount());
+        moveToDay(CirculationAnalytics.MAX_WINDOW_DAYS + 40);
+        assertEquals(1, analytics.overdueCount());
+    }
+
+    @Test
+    public void clearForgetsEverything() {
+        List<Loan> loans = Arrays.asList(loan(1, 0, 14, "Active"), loan(2, -20, -1, "Active"));
+        analytics.rebuild(loans);
+
+        analytics.clear();
+        assertEquals(0, analytics.loansInLastDays(CirculationAnalytics.MAX_WINDOW_DAYS));
+        assertEquals(0, analytics.overdueCount());
+        assertTrue(analytics.topBorrowed(5).isEmpty());
+        assertTrue(analytics.rebuildIfChanged(loans));
+    }
+}
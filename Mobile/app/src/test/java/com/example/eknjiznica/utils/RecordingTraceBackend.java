@@ -0,0 +1,58 @@
+package com.example.eknjiznica.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracing backend for local unit tests, where android.os.Trace is not available. Install it
+ * with Tracing.setBackend() and inspect the completed sections afterwards.
+ */
+public class RecordingTraceBackend implements Tracing.Backend {
+    private final Deque<String> open = new ArrayDeque<>();
+    private final Map<String, Long> openAsync = new HashMap<>();
+    private final List<String> completed = new ArrayList<>();
+
+    @Override
+    public synchronized void beginSection(String name) {
+        open.push(name);
+    }
+
+    @Override
+    public synchronized void endSection() {
+        if (open.isEmpty()) {
+            throw new IllegalStateException("endSection() without beginSection()");
+        }
+        completed.add(open.pop());
+    }
+
+    @Override
+    public synchronized void beginAsyncSection(String name, int cookie) {
+        openAsync.put(name + "#" + cookie, System.nanoTime());
+    }
+
+    @Override
+    public synchronized void endAsyncSection(String name, int cookie) {
+        if (openAsync.remove(name + "#" + cookie) == null) {
+            throw new IllegalStateException("endAsyncSection() without beginAsyncSection(): " + name);
+        }
+        completed.add(name);
+    }
+
+    /**
+     * Names of the finished sections, in the order they ended.
+     */
+    public synchronized List<String> getCompleted() {
+        return new ArrayList<>(completed);
+    }
+
+    /**
+     * Whether every section that was started has also been ended.
+     */
+    public synchronized boolean isBalanced() {
+        return open.isEmpty() && openAsync.isEmpty();
+    }
+}
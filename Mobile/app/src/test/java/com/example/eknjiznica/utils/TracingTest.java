@@ -0,0 +1,65 @@
+package com.example.eknjiznica.utils;
+
+import com.example.eknjiznica.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class TracingTest {
+    private RecordingTraceBackend backend;
+
+    @Before
+    public void setUp() {
+        // Sections are compiled out of release builds
+        assumeTrue(BuildConfig.DEBUG);
+        backend = new RecordingTraceBackend();
+        Tracing.setBackend(backend);
+    }
+
+    private static String longName() {
+        char[] name = new char[200];
+        Arrays.fill(name, 'x');
+        return new String(name);
+    }
+
+    @Test
+    public void sectionsEndInnermostFirst() {
+        Tracing.begin("outer");
+        Tracing.begin("inner");
+        Tracing.end();
+        assertFalse(backend.isBalanced());
+        Tracing.end();
+        assertEquals(Arrays.asList("inner", "outer"), backend.getCompleted());
+        assertTrue(backend.isBalanced());
+    }
+
+    @Test
+    public void asyncSectionsPairByNameAndCookie() {
+        Tracing.beginAsync("GET books", 1);
+        Tracing.beginAsync("GET books", 2);
+        Tracing.endAsync("GET books", 2);
+        assertFalse(backend.isBalanced());
+        Tracing.endAsync("GET books", 1);
+        assertTrue(backend.isBalanced());
+    }
+
+    @Test
+    public void longNamesAreTruncated() {
+        Tracing.begin(longName());
+        Tracing.end();
+        assertEquals(127, backend.getCompleted().get(0).length());
+    }
+
+    @Test
+    public void longAsyncNamesAreTruncatedAlike() {
+        Tracing.beginAsync(longName(), 7);
+        Tracing.endAsync(longName(), 7);
+        assertEquals(127, backend.getCompleted().get(0).length());
+        assertTrue(backend.isBalanced());
+    }
+}